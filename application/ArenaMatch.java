@@ -0,0 +1,271 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.ActionResult;
+import model.Character;
+import model.MatchContext;
+import model.MatchRandom;
+import model.RandomEnemy;
+
+/**
+ * An arena battle between two teams of any size, from one character each up to thousands.
+ * Each turn every living member of team one acts, then every living member of team two,
+ * each on the opponent picked by the TargetPolicy of its team. The match is over when a team has no one left alive.
+ * 
+ * The members of each team are kept in an IndexedHeap ordered by the policy of the other team.
+ * An action only changes the stats of the character taking it and of its target, 
+ * so after each action only those two are moved in their heaps, and picking a target never scans a team.
+ * Each action costs O(log n) in the size of the teams.
+ * 
+ * The GameEventListener is told about every action and every slain character. 
+ * The other events are about matches of two characters, so the arena does not send them.
+ * @author Jason Osmond
+ */
+public class ArenaMatch {
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final MatchContext matchContext;
+	private final Team teamOne;
+	private final Team teamTwo;
+	private GameEventListener eventListener = NoOpEventListener.INSTANCE;
+	private int turn;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * Creates an arena battle between two teams, all the characters join the given match context.
+	 * @param teamOne the characters of team one, which acts first
+	 * @param policyOne how team one picks its targets
+	 * @param teamTwo the characters of team two
+	 * @param policyTwo how team two picks its targets
+	 * @param matchContext the context of the match
+	 */
+	public ArenaMatch(List<? extends Character> teamOne, TargetPolicy policyOne, 
+			List<? extends Character> teamTwo, TargetPolicy policyTwo, MatchContext matchContext) {
+		if (teamOne.isEmpty() || teamTwo.isEmpty())
+			throw new IllegalArgumentException("Both teams need at least one character");
+		
+		this.matchContext = matchContext;
+		matchContext.setTurn(0);
+		
+		// The members of each team are ordered by the policy of the team targeting them
+		this.teamOne = new Team(teamOne, policyTwo, matchContext);
+		this.teamTwo = new Team(teamTwo, policyOne, matchContext);
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Creates an arena battle between two teams of RandomEnemies.
+	 * @param sizeOne the number of characters in team one
+	 * @param policyOne how team one picks its targets
+	 * @param sizeTwo the number of characters in team two
+	 * @param policyTwo how team two picks its targets
+	 * @param matchContext the context of the match
+	 * @return the arena battle
+	 */
+	public static ArenaMatch ofRandomEnemies(int sizeOne, TargetPolicy policyOne, int sizeTwo, TargetPolicy policyTwo, 
+			MatchContext matchContext) {
+		List<Character> teamOne = new ArrayList<>(sizeOne);
+		List<Character> teamTwo = new ArrayList<>(sizeTwo);
+		
+		for (int index = 0; index < sizeOne; index++)
+			teamOne.add(new RandomEnemy(matchContext));
+		for (int index = 0; index < sizeTwo; index++)
+			teamTwo.add(new RandomEnemy(matchContext));
+		
+		return new ArenaMatch(teamOne, policyOne, teamTwo, policyTwo, matchContext);
+	}
+	
+	/**
+	 * Runs turns until a team has no one left alive.
+	 */
+	public void run() {
+		while (playTurn());
+	}
+	
+	/**
+	 * Runs a single turn, team one acting first.
+	 * A member slain before its turn comes does not act. 
+	 * @return true if another turn should be ran, false if the match is over
+	 */
+	public boolean playTurn() {
+		if (isOver())
+			return false;
+		
+		turn++;
+		matchContext.setTurn(turn);
+		
+		playTeam(teamOne, teamTwo);
+		playTeam(teamTwo, teamOne);
+		
+		return !isOver();
+	}
+	
+	/**
+	 * Makes every living member of a team act on the opponent picked by its policy.
+	 * @param team the team acting
+	 * @param opponents the team acted on
+	 */
+	private void playTeam(Team team, Team opponents) {
+		Character[] members = team.members;
+		
+		for (int member = 0; member < members.length; member++) {
+			int target = opponents.index.peek();
+			if (target < 0)
+				return;
+			if (!team.index.contains(member))
+				continue;
+			
+			Character actor = members[member];
+			Character targetCharacter = opponents.members[target];
+			ActionResult actionResult = actor.resolveAction(targetCharacter);
+			eventListener.actionResolved(turn, actionResult);
+			
+			team.reindex(member, actor, eventListener, turn);
+			opponents.reindex(target, actor, eventListener, turn);
+		}
+	}
+	
+	/**
+	 * @return true if a team has no one left alive
+	 */
+	public boolean isOver() {
+		return teamOne.index.size() == 0 || teamTwo.index.size() == 0;
+	}
+	
+	/**
+	 * A team, with its members kept in order of the policy of the team targeting them.
+	 * A member is only in the index while it is alive.
+	 */
+	private static class Team {
+		
+		private final Character[] members;
+		private final TargetPolicy targetedBy;
+		private final IndexedHeap index;
+		
+		/**
+		 * @param members the characters of the team
+		 * @param targetedBy the policy of the team targeting this team
+		 * @param matchContext the context of the match, joined by every member
+		 */
+		Team(List<? extends Character> members, TargetPolicy targetedBy, MatchContext matchContext) {
+			this.members = members.toArray(new Character[0]);
+			this.targetedBy = targetedBy;
+			index = new IndexedHeap(this.members.length);
+			
+			for (int member = 0; member < this.members.length; member++) {
+				Character character = this.members[member];
+				character.setMatchContext(matchContext);
+				
+				if (character.getCurrentHealth() > 0)
+					index.add(member, targetedBy.keyOf(character));
+			}
+		}
+		
+		/**
+		 * Moves a member to its new place after an action changed its stats, or removes it if it was slain.
+		 * @param member the member
+		 * @param actor the character that took the action
+		 * @param eventListener told if the member was slain
+		 * @param turn the current turn
+		 */
+		void reindex(int member, Character actor, GameEventListener eventListener, int turn) {
+			if (!index.contains(member))
+				return;
+			
+			Character character = members[member];
+			
+			if (character.getCurrentHealth() > 0) {
+				index.update(member, targetedBy.keyOf(character));
+			}
+			else {
+				index.remove(member);
+				eventListener.characterSlain(turn, character, actor, index.size() == 0);
+			}
+		}
+	}
+	
+	//====== [GETTER AND SETTER METHODS] ======
+	
+	/**
+	 * @return the number of turns played
+	 */
+	public int getTurn() {
+		return turn;
+	}
+	
+	/**
+	 * @return the number of living members of team one
+	 */
+	public int getTeamOneAlive() {
+		return teamOne.index.size();
+	}
+	
+	/**
+	 * @return the number of living members of team two
+	 */
+	public int getTeamTwoAlive() {
+		return teamTwo.index.size();
+	}
+	
+	/**
+	 * @return 1 or 2 for the team that won, 0 if the match is not over or both teams were wiped out
+	 */
+	public int getWinner() {
+		if (teamOne.index.size() > 0 && teamTwo.index.size() == 0)
+			return 1;
+		if (teamTwo.index.size() > 0 && teamOne.index.size() == 0)
+			return 2;
+		
+		return 0;
+	}
+	
+	/**
+	 * @return the context of the match
+	 */
+	public MatchContext getMatchContext() {
+		return matchContext;
+	}
+	
+	/**
+	 * @return the listener told about the actions and slain characters
+	 */
+	public GameEventListener getEventListener() {
+		return eventListener;
+	}
+	
+	/**
+	 * @param eventListener the listener told about the actions and slain characters
+	 */
+	public void setEventListener(GameEventListener eventListener) {
+		this.eventListener = eventListener;
+	}
+	
+	/**
+	 * Runs an arena battle between two teams of RandomEnemies and prints how it went.
+	 * @param args the size of team one and of team two, 1000 each if not given, 
+	 * the policies of team one and two, LOWEST_HEALTH if not given, and the seed, random if not given
+	 */
+	public static void main(String[] args) {
+		int sizeOne = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+		int sizeTwo = (args.length > 1) ? Integer.parseInt(args[1]) : sizeOne;
+		TargetPolicy policyOne = (args.length > 2) ? TargetPolicy.valueOf(args[2]) : TargetPolicy.LOWEST_HEALTH;
+		TargetPolicy policyTwo = (args.length > 3) ? TargetPolicy.valueOf(args[3]) : TargetPolicy.LOWEST_HEALTH;
+		long seed = (args.length > 4) ? Long.parseLong(args[4]) : MatchRandom.newSeed();
+		
+		ArenaMatch arena = ofRandomEnemies(sizeOne, policyOne, sizeTwo, policyTwo, new MatchContext(seed));
+		
+		long startTime = System.nanoTime();
+		arena.run();
+		double millis = (System.nanoTime() - startTime) / 1e6;
+		
+		System.out.println("Team one (" + sizeOne + ", " + policyOne + ") vs team two (" + sizeTwo + ", " + policyTwo + ")");
+		System.out.println("Winner: " + ((arena.getWinner() == 0) ? "none" : "team " + arena.getWinner()) 
+				+ ", survivors " + arena.getTeamOneAlive() + " and " + arena.getTeamTwoAlive());
+		System.out.println("Turns: " + arena.getTurn() + String.format(" in %.1f ms", millis));
+	}
+}
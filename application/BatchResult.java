@@ -0,0 +1,217 @@
+package application;
+
+/**
+ * The BatchResult holds the combined outcome of a batch of AI versus AI matches.
+ * It counts how many matches each character won, how many were a draw, 
+ * and how many turns the matches took.
+ * A BatchResult can not be changed once it is created, 
+ * results of two batches are combined into a new BatchResult.
+ * @author Jason Osmond
+ */
+public class BatchResult {
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final int matches;
+	private final int characterOneWins;
+	private final int characterTwoWins;
+	private final int draws;
+	private final long totalTurns;
+	private final int minTurns;
+	private final int maxTurns;
+	private final long elapsedNanos;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * Creates a result using the counts of a batch of matches.
+	 * @param matches the number of matches ran
+	 * @param characterOneWins the number of matches won by character one
+	 * @param characterTwoWins the number of matches won by character two
+	 * @param draws the number of matches where both characters died
+	 * @param totalTurns the sum of the turns of all the matches
+	 * @param minTurns the turns of the shortest match
+	 * @param maxTurns the turns of the longest match
+	 * @param elapsedNanos the time it took to run the matches, in nanoseconds
+	 */
+	public BatchResult(int matches, int characterOneWins, int characterTwoWins, int draws,
+			long totalTurns, int minTurns, int maxTurns, long elapsedNanos) {
+		this.matches = matches;
+		this.characterOneWins = characterOneWins;
+		this.characterTwoWins = characterTwoWins;
+		this.draws = draws;
+		this.totalTurns = totalTurns;
+		this.minTurns = minTurns;
+		this.maxTurns = maxTurns;
+		this.elapsedNanos = elapsedNanos;
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Creates a result that contains no matches.
+	 * @return an empty BatchResult
+	 */
+	public static BatchResult empty() {
+		return new BatchResult(0, 0, 0, 0, 0, Integer.MAX_VALUE, 0, 0);
+	}
+	
+	/**
+	 * Combines this result with the result of another batch.
+	 * The elapsed time is not added together since the batches may have ran at the same time.
+	 * @param other the other result
+	 * @return a new BatchResult containing the matches of both results
+	 */
+	public BatchResult combine(BatchResult other) {
+		return new BatchResult(
+				matches + other.matches,
+				characterOneWins + other.characterOneWins,
+				characterTwoWins + other.characterTwoWins,
+				draws + other.draws,
+				totalTurns + other.totalTurns,
+				Math.min(minTurns, other.minTurns),
+				Math.max(maxTurns, other.maxTurns),
+				Math.max(elapsedNanos, other.elapsedNanos));
+	}
+	
+	/**
+	 * Creates a copy of this result with a different elapsed time.
+	 * @param elapsedNanos the time it took to run the matches, in nanoseconds
+	 * @return a new BatchResult
+	 */
+	public BatchResult withElapsedNanos(long elapsedNanos) {
+		return new BatchResult(matches, characterOneWins, characterTwoWins, draws,
+				totalTurns, minTurns, maxTurns, elapsedNanos);
+	}
+	
+	/**
+	 * Gets the share of matches won by character one.
+	 * @return a value between 0 and 1
+	 */
+	public double getCharacterOneWinRate() {
+		return rate(characterOneWins);
+	}
+	
+	/**
+	 * Gets the share of matches won by character two.
+	 * @return a value between 0 and 1
+	 */
+	public double getCharacterTwoWinRate() {
+		return rate(characterTwoWins);
+	}
+	
+	/**
+	 * Gets the share of matches where both characters died.
+	 * @return a value between 0 and 1
+	 */
+	public double getDrawRate() {
+		return rate(draws);
+	}
+	
+	/**
+	 * Gets the average number of turns of a match.
+	 * @return the average turns, 0 if no matches were ran
+	 */
+	public double getAverageTurns() {
+		if (matches == 0)
+			return 0;
+		return (double) totalTurns / matches;
+	}
+	
+	/**
+	 * Gets the number of matches that were ran every second.
+	 * @return the throughput, 0 if no time was recorded
+	 */
+	public double getMatchesPerSecond() {
+		if (elapsedNanos == 0)
+			return 0;
+		return matches / (elapsedNanos / 1_000_000_000.0);
+	}
+	
+	/**
+	 * Divides a count by the number of matches.
+	 * @param count
+	 * @return the count as a share of all the matches
+	 */
+	private double rate(int count) {
+		if (matches == 0)
+			return 0;
+		return (double) count / matches;
+	}
+	
+	/**
+	 * Creates an output string containing an overview of the batch.
+	 * @return a String containing the overview
+	 */
+	@Override
+	public String toString() {
+		String outputString = 
+				"Matches: " + matches + "\n" +
+				"Character one wins: " + characterOneWins + String.format(" (%.2f%%)", getCharacterOneWinRate() * 100) + "\n" +
+				"Character two wins: " + characterTwoWins + String.format(" (%.2f%%)", getCharacterTwoWinRate() * 100) + "\n" +
+				"Draws: " + draws + String.format(" (%.2f%%)", getDrawRate() * 100) + "\n" +
+				"Turns: " + String.format("%.2f", getAverageTurns()) + " average, " + 
+					(matches == 0 ? 0 : minTurns) + " min, " + maxTurns + " max\n" +
+				"Throughput: " + String.format("%.0f", getMatchesPerSecond()) + " matches/sec\n";
+		
+		return outputString;
+	}
+	
+	//====== [GETTER METHODS] ======
+	
+	/**
+	 * @return the matches
+	 */
+	public int getMatches() {
+		return matches;
+	}
+	
+	/**
+	 * @return the characterOneWins
+	 */
+	public int getCharacterOneWins() {
+		return characterOneWins;
+	}
+	
+	/**
+	 * @return the characterTwoWins
+	 */
+	public int getCharacterTwoWins() {
+		return characterTwoWins;
+	}
+	
+	/**
+	 * @return the draws
+	 */
+	public int getDraws() {
+		return draws;
+	}
+	
+	/**
+	 * @return the totalTurns
+	 */
+	public long getTotalTurns() {
+		return totalTurns;
+	}
+	
+	/**
+	 * @return the minTurns, Integer.MAX_VALUE if no matches were ran
+	 */
+	public int getMinTurns() {
+		return minTurns;
+	}
+	
+	/**
+	 * @return the maxTurns
+	 */
+	public int getMaxTurns() {
+		return maxTurns;
+	}
+	
+	/**
+	 * @return the elapsedNanos
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+}
@@ -0,0 +1,210 @@
+package application;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import model.MatchContext;
+import model.MatchRandom;
+
+/**
+ * The BatchSimulator runs many AI versus AI matches (game mode 3) without printing them.
+ * The matches are split into tasks that run on a fork/join pool, 
+ * so idle threads steal work from busy ones and all cores are kept busy.
+ * Each match has its own MatchContext, so no state is shared between the matches.
+ * The seed of each match is derived from the seed of the batch and the index of the match,
+ * so a batch with the same seed has the same result no matter how the work was split.
+ * @author Jason Osmond
+ */
+public class BatchSimulator {
+	
+	//====== [CONSTANTS] =======
+	
+	/**
+	 * The number of matches a task runs on its own before it is split no further.
+	 */
+	public static final int MATCHES_PER_TASK = 64;
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final ForkJoinPool pool;
+	private MetricsRegistry metricsRegistry;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * Creates a simulator that runs its matches on the common fork/join pool,
+	 * which has one thread for every core.
+	 */
+	public BatchSimulator() {
+		this(ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Creates a simulator that runs its matches on the given pool.
+	 * @param pool the pool that runs the matches
+	 */
+	public BatchSimulator(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Runs a batch of AI versus AI matches with a random seed.
+	 * Blocks until all the matches are over.
+	 * @param matchCount the number of matches to run
+	 * @return the combined result of all the matches
+	 */
+	public BatchResult run(int matchCount) {
+		return run(matchCount, MatchRandom.newSeed());
+	}
+	
+	/**
+	 * Runs a batch of AI versus AI matches.
+	 * Blocks until all the matches are over.
+	 * @param matchCount the number of matches to run
+	 * @param seed the seed of the batch
+	 * @return the combined result of all the matches
+	 */
+	public BatchResult run(int matchCount, long seed) {
+		long startTime = System.nanoTime();
+		
+		BatchResult result = pool.invoke(new MatchTask(seed, 0, matchCount, metricsRegistry));
+		
+		return result.withElapsedNanos(System.nanoTime() - startTime);
+	}
+	
+	/**
+	 * A task that runs a range of matches.
+	 * If the range is bigger than MATCHES_PER_TASK, the range is split in half 
+	 * and each half is ran as its own task.
+	 */
+	private static class MatchTask extends RecursiveTask<BatchResult> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final long seed;
+		private final int from;
+		private final int to;
+		private final MetricsRegistry metricsRegistry;
+		
+		/**
+		 * @param seed the seed of the batch
+		 * @param from the first match of the range
+		 * @param to the match after the last match of the range
+		 * @param metricsRegistry the registry the metrics of the matches are recorded into, or null
+		 */
+		MatchTask(long seed, int from, int to, MetricsRegistry metricsRegistry) {
+			this.seed = seed;
+			this.from = from;
+			this.to = to;
+			this.metricsRegistry = metricsRegistry;
+		}
+		
+		@Override
+		protected BatchResult compute() {
+			if (to - from <= MATCHES_PER_TASK)
+				return runMatches();
+			
+			int middle = (from + to) >>> 1;
+			MatchTask firstHalf = new MatchTask(seed, from, middle, metricsRegistry);
+			MatchTask secondHalf = new MatchTask(seed, middle, to, metricsRegistry);
+			
+			firstHalf.fork();
+			BatchResult secondResult = secondHalf.compute();
+			
+			return firstHalf.join().combine(secondResult);
+		}
+		
+		/**
+		 * Runs the matches of the range one after the other, counting the results.
+		 * @return the combined result of the matches
+		 */
+		private BatchResult runMatches() {
+			int characterOneWins = 0;
+			int characterTwoWins = 0;
+			int draws = 0;
+			long totalTurns = 0;
+			int minTurns = Integer.MAX_VALUE;
+			int maxTurns = 0;
+			
+			for (int index = from; index < to; index++) {
+				TurnTracker turnTracker = new TurnTracker(new MatchContext(MatchRandom.deriveSeed(seed, index)));
+				if (metricsRegistry == null)
+					turnTracker.setEventListener(NoOpEventListener.INSTANCE);
+				else
+					turnTracker.setEventListener(new MetricsListener(metricsRegistry));
+				turnTracker.nextTurn();
+				
+				boolean characterOneAlive = turnTracker.getCharacterOne().getCurrentHealth() > 0;
+				boolean characterTwoAlive = turnTracker.getCharacterTwo().getCurrentHealth() > 0;
+				
+				if (characterOneAlive)
+					characterOneWins++;
+				else if (characterTwoAlive)
+					characterTwoWins++;
+				else
+					draws++;
+				
+				int turns = turnTracker.getTurn();
+				totalTurns += turns;
+				minTurns = Math.min(minTurns, turns);
+				maxTurns = Math.max(maxTurns, turns);
+			}
+			
+			return new BatchResult(to - from, characterOneWins, characterTwoWins, draws,
+					totalTurns, minTurns, maxTurns, 0);
+		}
+	}
+	
+	//====== [GETTER AND SETTER METHODS] ======
+	
+	/**
+	 * @return the metricsRegistry, null if no metrics are recorded
+	 */
+	public MetricsRegistry getMetricsRegistry() {
+		return metricsRegistry;
+	}
+	
+	/**
+	 * Sets the registry the gameplay metrics of the matches are recorded into.
+	 * Each match gets its own MetricsListener, all of them share the registry.
+	 * By default no metrics are recorded.
+	 * @param metricsRegistry the metricsRegistry to set, or null to record no metrics
+	 */
+	public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+		this.metricsRegistry = metricsRegistry;
+	}
+	
+	/**
+	 * Runs a batch of matches and prints the result into the console.
+	 * @param args the number of matches to run, 100000 if not given, 
+	 * optionally the seed of the batch, 
+	 * and optionally "json" or "csv" to also print the gameplay metrics in that format
+	 */
+	public static void main(String[] args) {
+		int matchCount = 100_000;
+		if (args.length > 0)
+			matchCount = Integer.parseInt(args[0]);
+		
+		long seed = MatchRandom.newSeed();
+		if (args.length > 1)
+			seed = Long.parseLong(args[1]);
+		
+		String metricsFormat = null;
+		if (args.length > 2)
+			metricsFormat = args[2].toLowerCase();
+		
+		BatchSimulator simulator = new BatchSimulator();
+		if (metricsFormat != null)
+			simulator.setMetricsRegistry(new MetricsRegistry());
+		
+		System.out.println("Seed: " + seed);
+		System.out.println(simulator.run(matchCount, seed));
+		
+		if (metricsFormat != null) {
+			MetricsSnapshot snapshot = simulator.getMetricsRegistry().snapshot();
+			System.out.println(metricsFormat.equals("csv") ? snapshot.toCsv() : snapshot.toJson());
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package application;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One turn of a broadcast match, encoded once and shared by every subscriber of the MatchBroadcaster.
+ * A frame holds the events of the turn in a compact binary payload, and a MatchSnapshot of the match
+ * at the end of the turn, so a subscriber that skipped frames can still show the whole state.
+ * Frames are immutable and can be read by any number of threads.
+ * 
+ * The events of the payload, all numbers are big-endian:
+ * <pre>
+ * start:     byte EVENT_START, byte gameMode
+ * turn:      byte EVENT_TURN, int turn
+ * action:    byte EVENT_ACTION, byte slot, byte (opcode &lt;&lt; 4 | outcome), int amount
+ * slain:     byte EVENT_SLAIN, byte slot
+ * spawn:     byte EVENT_SPAWN, int level
+ * game over: byte EVENT_GAME_OVER
+ * </pre>
+ * @author Jason Osmond
+ */
+public final class BroadcastFrame {
+	
+	//====== [CONSTANTS] =======
+	
+	public static final byte EVENT_START = 1;
+	public static final byte EVENT_TURN = 2;
+	public static final byte EVENT_ACTION = 3;
+	public static final byte EVENT_SLAIN = 4;
+	public static final byte EVENT_SPAWN = 5;
+	public static final byte EVENT_GAME_OVER = 6;
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final long sequence;
+	private final ByteBuffer payload;
+	private final MatchSnapshot snapshot;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * @param sequence the number of the frame, from 0
+	 * @param payload the encoded events, read-only
+	 * @param snapshot the state of the match after the events
+	 */
+	BroadcastFrame(long sequence, ByteBuffer payload, MatchSnapshot snapshot) {
+		this.sequence = sequence;
+		this.payload = payload;
+		this.snapshot = snapshot;
+	}
+	
+	//====== [METHODS] ======
+	
+	@Override
+	public String toString() {
+		return "Frame " + sequence + " (" + payload.remaining() + " bytes): " + snapshot;
+	}
+	
+	//====== [GETTER METHODS] ======
+	
+	/**
+	 * @return the sequence, the number of the frame in its broadcast
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+	
+	/**
+	 * Gets the encoded events of the frame.
+	 * Each call returns a new read-only view of the same bytes, with its own position, 
+	 * so the view can be read without affecting other subscribers.
+	 * @return the payload
+	 */
+	public ByteBuffer getPayload() {
+		return payload.duplicate();
+	}
+	
+	/**
+	 * @return the size of the payload in bytes
+	 */
+	public int getPayloadSize() {
+		return payload.remaining();
+	}
+	
+	/**
+	 * @return the snapshot of the match after the events of the frame
+	 */
+	public MatchSnapshot getSnapshot() {
+		return snapshot;
+	}
+}
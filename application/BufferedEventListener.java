@@ -0,0 +1,76 @@
+package application;
+
+import java.io.PrintStream;
+
+/**
+ * A GameEventListener that prints the same text as the ConsoleEventListener,
+ * but collects it in a buffer and only writes it once the buffer is full or the game is over.
+ * Writing a few large blocks is much cheaper than a println for every line,
+ * so this is meant for games where nobody is typing, such as AI versus AI.
+ * Games with players should use the ConsoleEventListener, 
+ * otherwise the prompts are shown before the turn they belong to.
+ * @author Jason Osmond
+ */
+public class BufferedEventListener extends ConsoleEventListener {
+	
+	//====== [CONSTANTS] =======
+	
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final StringBuilder buffer;
+	private final int bufferSize;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * Creates a listener that writes into System.out.
+	 */
+	public BufferedEventListener() {
+		this(System.out, DEFAULT_BUFFER_SIZE);
+	}
+	
+	/**
+	 * Creates a listener that writes into the given stream.
+	 * @param out the stream to write into
+	 * @param bufferSize the number of characters collected before they are written
+	 */
+	public BufferedEventListener(PrintStream out, int bufferSize) {
+		super(out);
+		this.bufferSize = bufferSize;
+		this.buffer = new StringBuilder(bufferSize);
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Prints the game over report, then writes everything left in the buffer.
+	 */
+	@Override
+	public void gameOver(TurnTracker turnTracker) {
+		super.gameOver(turnTracker);
+		flush();
+	}
+	
+	/**
+	 * Adds a line to the buffer, writing the buffer when it is full.
+	 * @param line the line to print
+	 */
+	@Override
+	protected void print(String line) {
+		buffer.append(line).append(System.lineSeparator());
+		
+		if (buffer.length() >= bufferSize)
+			flush();
+	}
+	
+	/**
+	 * Writes everything in the buffer and empties it.
+	 */
+	public void flush() {
+		getOut().append(buffer);
+		getOut().flush();
+		buffer.setLength(0);
+	}
+}
@@ -0,0 +1,257 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import model.MatchContext;
+import model.MatchRandom;
+import model.RandomEnemy;
+
+/**
+ * The BuildOptimizer finds the best ways to spend the stat points of a PlayerCharacter.
+ * Every build plays Player versus AI matches (game mode 1) against RandomEnemies 
+ * and is scored by the number of enemies it slays before it is slain.
+ * 
+ * The builds are raced: they play a round of matches at a time, 
+ * and after each round every build that is clearly worse than the best build is dropped.
+ * A build is clearly worse when the best it could be, its average plus confidenceZ standard errors,
+ * is still below the worst the leading build could be. Most builds are dropped after a few rounds,
+ * so the matches are spent on the builds that are close to each other.
+ * 
+ * The builds of a round are played in parallel on a fork/join pool.
+ * Match i of every build uses the same seed, so the builds meet the same enemies for as long
+ * as their matches go the same way, which makes the differences between them less noisy.
+ * @author Jason Osmond
+ */
+public class BuildOptimizer {
+	
+	//====== [CONSTANTS] =======
+	
+	public static final int DEFAULT_MATCHES_PER_ROUND = 256;
+	public static final int DEFAULT_MAX_ROUNDS = 16;
+	public static final double DEFAULT_CONFIDENCE_Z = 3.0;
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final ForkJoinPool pool;
+	private final int matchesPerRound;
+	private final int maxRounds;
+	private final double confidenceZ;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * Creates an optimizer with the default settings 
+	 * that runs its matches on the common fork/join pool.
+	 */
+	public BuildOptimizer() {
+		this(ForkJoinPool.commonPool(), DEFAULT_MATCHES_PER_ROUND, DEFAULT_MAX_ROUNDS, DEFAULT_CONFIDENCE_Z);
+	}
+	
+	/**
+	 * @param pool the pool that runs the matches
+	 * @param matchesPerRound the matches each build plays every round
+	 * @param maxRounds the most rounds a build can play
+	 * @param confidenceZ the number of standard errors a build must be behind to be dropped,
+	 * higher values drop fewer builds by mistake but take longer
+	 */
+	public BuildOptimizer(ForkJoinPool pool, int matchesPerRound, int maxRounds, double confidenceZ) {
+		this.pool = pool;
+		this.matchesPerRound = matchesPerRound;
+		this.maxRounds = maxRounds;
+		this.confidenceZ = confidenceZ;
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Races every build of a PlayerCharacter with a random seed.
+	 * @return the scores of the builds, best first
+	 */
+	public List<BuildScore> optimize() {
+		return optimize(PlayerBuild.allBuilds(), MatchRandom.newSeed());
+	}
+	
+	/**
+	 * Races the builds until one is left or the last round was played.
+	 * Blocks until the race is over.
+	 * @param builds the builds to race
+	 * @param seed the seed of the race
+	 * @return the scores of the builds, best first
+	 */
+	public List<BuildScore> optimize(List<PlayerBuild> builds, long seed) {
+		List<BuildScore> scores = new ArrayList<>();
+		for (PlayerBuild build : builds)
+			scores.add(new BuildScore(build));
+		
+		List<BuildScore> racing = new ArrayList<>(scores);
+		
+		for (int round = 0; round < maxRounds && racing.size() > 1; round++) {
+			int firstMatch = round * matchesPerRound;
+			
+			// Parallel streams started from inside a pool run on that pool
+			pool.submit(() -> racing.parallelStream()
+					.forEach(score -> score.playMatches(seed, firstMatch, matchesPerRound)))
+				.join();
+			
+			dropWorseBuilds(racing);
+		}
+		
+		scores.sort(BuildScore.BEST_FIRST);
+		
+		return scores;
+	}
+	
+	/**
+	 * Drops the builds whose upper bound is below the lower bound of the leading build.
+	 * @param racing the builds still racing
+	 */
+	private void dropWorseBuilds(List<BuildScore> racing) {
+		double bestLowerBound = Double.NEGATIVE_INFINITY;
+		
+		for (BuildScore score : racing)
+			bestLowerBound = Math.max(bestLowerBound, score.getAverageEnemiesSlain() - confidenceZ * score.getStandardError());
+		
+		final double cutoff = bestLowerBound;
+		racing.removeIf(score -> score.getAverageEnemiesSlain() + confidenceZ * score.getStandardError() < cutoff);
+	}
+	
+	/**
+	 * The score of a build, from the matches it played.
+	 * Only the thread playing the build's matches changes it, 
+	 * the pool's join makes the changes visible before the scores are compared.
+	 */
+	public static class BuildScore {
+		
+		/**
+		 * Builds that played more matches were dropped later, so they are ranked first.
+		 * Builds that played the same matches are ranked by enemies slain, then by turns survived.
+		 */
+		static final Comparator<BuildScore> BEST_FIRST = Comparator
+				.comparingInt(BuildScore::getMatches).reversed()
+				.thenComparing(Comparator.comparingDouble(BuildScore::getAverageEnemiesSlain).reversed())
+				.thenComparing(Comparator.comparingDouble(BuildScore::getAverageTurns).reversed());
+		
+		private final PlayerBuild build;
+		private int matches;
+		private long enemiesSlain;
+		private long enemiesSlainSquared;
+		private long turns;
+		
+		/**
+		 * @param build the build being scored
+		 */
+		BuildScore(PlayerBuild build) {
+			this.build = build;
+		}
+		
+		/**
+		 * Plays matches with the build and adds them to the score.
+		 * @param seed the seed of the race
+		 * @param firstMatch the index of the first match
+		 * @param matchCount the number of matches to play
+		 */
+		void playMatches(long seed, int firstMatch, int matchCount) {
+			for (int index = firstMatch; index < firstMatch + matchCount; index++) {
+				MatchContext matchContext = new MatchContext(MatchRandom.deriveSeed(seed, index));
+				TurnTracker turnTracker = new TurnTracker(build.createCharacter(matchContext), 
+						new RandomEnemy(matchContext), 1, matchContext);
+				turnTracker.setEventListener(NoOpEventListener.INSTANCE);
+				turnTracker.nextTurn();
+				
+				// The last enemy of the match slew the player
+				long slain = matchContext.getTotalEnemyCount() - 1;
+				
+				matches++;
+				enemiesSlain += slain;
+				enemiesSlainSquared += slain * slain;
+				turns += turnTracker.getTurn();
+			}
+		}
+		
+		/**
+		 * @return the average enemies slain each match, 0 if no matches were played
+		 */
+		public double getAverageEnemiesSlain() {
+			if (matches == 0)
+				return 0;
+			return (double) enemiesSlain / matches;
+		}
+		
+		/**
+		 * @return the average turns survived each match, 0 if no matches were played
+		 */
+		public double getAverageTurns() {
+			if (matches == 0)
+				return 0;
+			return (double) turns / matches;
+		}
+		
+		/**
+		 * Gets the standard error of the average enemies slain.
+		 * @return the standard error, infinite if fewer than 2 matches were played
+		 */
+		public double getStandardError() {
+			if (matches < 2)
+				return Double.POSITIVE_INFINITY;
+			
+			double average = getAverageEnemiesSlain();
+			double variance = (enemiesSlainSquared - matches * average * average) / (matches - 1);
+			
+			return Math.sqrt(Math.max(variance, 0) / matches);
+		}
+		
+		/**
+		 * @return the build
+		 */
+		public PlayerBuild getBuild() {
+			return build;
+		}
+		
+		/**
+		 * @return the matches played
+		 */
+		public int getMatches() {
+			return matches;
+		}
+		
+		/**
+		 * Creates an output string containing the score.
+		 * @return a String containing the score
+		 */
+		@Override
+		public String toString() {
+			return String.format("%-11s %8.3f enemies slain (+/- %.3f) %8.2f turns %6d matches",
+					build, getAverageEnemiesSlain(), getStandardError(), getAverageTurns(), matches);
+		}
+	}
+	
+	/**
+	 * Races every build and prints the best ones into the console.
+	 * @param args the number of builds to print, 10 if not given, 
+	 * and optionally the seed of the race
+	 */
+	public static void main(String[] args) {
+		int shown = 10;
+		if (args.length > 0)
+			shown = Integer.parseInt(args[0]);
+		
+		long seed = MatchRandom.newSeed();
+		if (args.length > 1)
+			seed = Long.parseLong(args[1]);
+		
+		System.out.println("Seed: " + seed);
+		System.out.println("Builds are attack/defense/search/toughness points\n");
+		
+		long startTime = System.nanoTime();
+		List<BuildScore> scores = new BuildOptimizer().optimize(PlayerBuild.allBuilds(), seed);
+		long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+		
+		for (int rank = 0; rank < Math.min(shown, scores.size()); rank++)
+			System.out.println(String.format("%3d. ", rank + 1) + scores.get(rank));
+		
+		System.out.println("\n" + scores.size() + " builds raced in " + elapsedMillis + " ms");
+	}
+}
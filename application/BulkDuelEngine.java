@@ -0,0 +1,473 @@
+package application;
+
+import java.util.stream.IntStream;
+
+import model.Action;
+import model.Character;
+import model.CombatRules;
+import model.EnemyCharacter;
+import model.MatchRandom;
+
+/**
+ * The BulkDuelEngine simulates many duels between two AI characters at the same time.
+ * Instead of a Character object for every combatant, the statistics of all the duels 
+ * are kept in arrays of ints, one array per statistic and side.
+ * A turn is resolved for every duel in a few tight loops over these arrays,
+ * using the same CombatRules as the Character class.
+ * The combatants act like RandomEnemy, each action has a 25% chance to be taken.
+ * Finished duels are swapped to the end of the arrays, so the loops only visit duels that are still running.
+ * @author Jason Osmond
+ */
+public class BulkDuelEngine {
+	
+	//====== [CONSTANTS] =======
+	
+	public static final int RESULT_CHARACTER_ONE = 0;
+	public static final int RESULT_CHARACTER_TWO = 1;
+	public static final int RESULT_DRAW = 2;
+	
+	/**
+	 * The number of duels each engine runs when the duels are split across the cores.
+	 */
+	public static final int DUELS_PER_BLOCK = 8192;
+	
+	private static final int ATTACK = Action.ATTACK.getOpcode();
+	private static final int DEFEND = Action.DEFEND.getOpcode();
+	private static final int SEARCH = Action.SEARCH.getOpcode();
+	private static final int WEAKEN = Action.WEAKEN.getOpcode();
+	private static final int ACTION_COUNT = 4;
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final int capacity;
+	private final Side sideOne;
+	private final Side sideTwo;
+	private final MatchRandom random;
+	
+	// Indexed by slot, the duel that is in each slot of the arrays
+	private final int[] duelIds;
+	
+	// Indexed by duel
+	private final int[] results;
+	private final int[] turnsTaken;
+	
+	private final int[] points = new int[CombatRules.POINT_TYPES];
+	private int duelCount;
+	private int active;
+	private int turn;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * Creates an engine that can hold a number of duels.
+	 * @param capacity the maximum number of duels
+	 * @param random the random number generator used for every duel of this engine
+	 */
+	public BulkDuelEngine(int capacity, MatchRandom random) {
+		this.capacity = capacity;
+		this.random = random;
+		sideOne = new Side(capacity);
+		sideTwo = new Side(capacity);
+		duelIds = new int[capacity];
+		results = new int[capacity];
+		turnsTaken = new int[capacity];
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Adds a duel between two characters, copying their current statistics.
+	 * The characters themselves are not changed by the engine.
+	 * @param characterOne
+	 * @param characterTwo
+	 * @return the id of the duel
+	 */
+	public int addDuel(Character characterOne, Character characterTwo) {
+		int slot = addSlot();
+		sideOne.load(slot, characterOne);
+		sideTwo.load(slot, characterTwo);
+		return duelIds[slot];
+	}
+	
+	/**
+	 * Adds a duel between two enemies with randomly allocated stats, 
+	 * the same way EnemyCharacter allocates the stats of a new enemy.
+	 * @param level the level of both enemies
+	 * @return the id of the duel
+	 */
+	public int addRandomEnemyDuel(int level) {
+		int slot = addSlot();
+		loadRandomEnemy(sideOne, slot, level);
+		loadRandomEnemy(sideTwo, slot, level);
+		return duelIds[slot];
+	}
+	
+	/**
+	 * Runs turns until every duel is over.
+	 */
+	public void run() {
+		while (active > 0)
+			runTurn();
+	}
+	
+	/**
+	 * Runs one turn of every duel that is still running.
+	 * Character one acts first, then character two, even if character one's action killed it.
+	 * Then the duels where a character has died are finished.
+	 */
+	public void runTurn() {
+		turn++;
+		
+		drawActions(sideOne);
+		resolveActions(sideOne, sideTwo);
+		
+		drawActions(sideTwo);
+		resolveActions(sideTwo, sideOne);
+		
+		finishDuels();
+	}
+	
+	/**
+	 * Removes all the duels, so the engine can be reused.
+	 */
+	public void clear() {
+		duelCount = 0;
+		active = 0;
+		turn = 0;
+	}
+	
+	/**
+	 * Combines the results of all the finished duels.
+	 * @return the combined result, with no elapsed time
+	 */
+	public BatchResult getBatchResult() {
+		int characterOneWins = 0;
+		int characterTwoWins = 0;
+		int draws = 0;
+		long totalTurns = 0;
+		int minTurns = Integer.MAX_VALUE;
+		int maxTurns = 0;
+		int finished = 0;
+		
+		for (int duel = 0; duel < duelCount; duel++) {
+			int turns = turnsTaken[duel];
+			if (turns == 0)
+				continue;
+			
+			finished++;
+			if (results[duel] == RESULT_CHARACTER_ONE)
+				characterOneWins++;
+			else if (results[duel] == RESULT_CHARACTER_TWO)
+				characterTwoWins++;
+			else
+				draws++;
+			
+			totalTurns += turns;
+			minTurns = Math.min(minTurns, turns);
+			maxTurns = Math.max(maxTurns, turns);
+		}
+		
+		return new BatchResult(finished, characterOneWins, characterTwoWins, draws,
+				totalTurns, minTurns, maxTurns, 0);
+	}
+	
+	/**
+	 * Simulates duels between random level 1 enemies, spread across all the cores.
+	 * The duels are split into blocks of DUELS_PER_BLOCK, each ran by its own engine.
+	 * The seed of each block is derived from the seed, so the result only depends on the seed.
+	 * @param duelCount the number of duels
+	 * @param seed the seed of the simulation
+	 * @return the combined result of all the duels
+	 */
+	public static BatchResult simulateRandomEnemyDuels(int duelCount, long seed) {
+		long startTime = System.nanoTime();
+		int blocks = (duelCount + DUELS_PER_BLOCK - 1) / DUELS_PER_BLOCK;
+		
+		BatchResult result = IntStream.range(0, blocks).parallel()
+				.mapToObj(block -> {
+					int size = Math.min(DUELS_PER_BLOCK, duelCount - block * DUELS_PER_BLOCK);
+					BulkDuelEngine engine = new BulkDuelEngine(size, new MatchRandom(MatchRandom.deriveSeed(seed, block)));
+					for (int duel = 0; duel < size; duel++)
+						engine.addRandomEnemyDuel(1);
+					engine.run();
+					return engine.getBatchResult();
+				})
+				.reduce(BatchResult.empty(), BatchResult::combine);
+		
+		return result.withElapsedNanos(System.nanoTime() - startTime);
+	}
+	
+	/**
+	 * Takes the next free slot for a new duel.
+	 * @return the slot
+	 */
+	private int addSlot() {
+		if (duelCount == capacity)
+			throw new IllegalStateException("The engine is full, it can only hold " + capacity + " duels");
+		if (turn > 0)
+			throw new IllegalStateException("Duels can not be added once the engine has started");
+		
+		int slot = active;
+		duelIds[slot] = duelCount;
+		turnsTaken[duelCount] = 0;
+		duelCount++;
+		active++;
+		return slot;
+	}
+	
+	/**
+	 * Allocates the stats of a random enemy into a slot.
+	 * @param side
+	 * @param slot
+	 * @param level
+	 */
+	private void loadRandomEnemy(Side side, int slot, int level) {
+		CombatRules.allocateEnemyPoints(random, CombatRules.enemyPointBuy(level), points);
+		
+		int toughness = points[CombatRules.POINT_TOUGHNESS];
+		side.health[slot] = CombatRules.startingHealth(EnemyCharacter.DEFAULT_BASEHEALTH, toughness);
+		side.attack[slot] = points[CombatRules.POINT_ATTACK] * CombatRules.ENEMY_POINT_VALUE;
+		side.defense[slot] = points[CombatRules.POINT_DEFENSE] * CombatRules.ENEMY_POINT_VALUE;
+		side.search[slot] = points[CombatRules.POINT_SEARCH];
+		side.toughness[slot] = toughness;
+		side.weakenModifier[slot] = 1;
+		side.increaseDefenseAmount[slot] = EnemyCharacter.DEFAULT_INCREASE_DEFENSE_AMOUNT;
+	}
+	
+	/**
+	 * Picks the action of every running duel for one side.
+	 * The random rolls of the search action are made here as well,
+	 * and turned into the amount each stat will change by,
+	 * so the resolving loop only has to add numbers.
+	 * @param actor the side that is acting
+	 */
+	private void drawActions(Side actor) {
+		for (int slot = 0; slot < active; slot++) {
+			int action = random.nextInt(ACTION_COUNT);
+			actor.action[slot] = action;
+			
+			int health = 0;
+			int attack = 0;
+			int defense = 0;
+			int search = 0;
+			int weaken = 0;
+			
+			if (action == SEARCH) {
+				int roll = random.nextInt(CombatRules.SEARCH_ROLL_RANGE);
+				int searchModifier = CombatRules.rollSearchModifier(random, actor.search[slot]);
+				
+				switch (CombatRules.searchOutcome(roll)) {
+					case CombatRules.SEARCH_JACKPOT:
+						health = searchModifier * CombatRules.HEALTH_PER_SEARCH_POINT;
+						attack = searchModifier;
+						defense = searchModifier;
+						search = searchModifier;
+						break;
+					case CombatRules.SEARCH_MAGNIFYING_GLASS:
+						search = searchModifier;
+						break;
+					case CombatRules.SEARCH_POISON:
+						weaken = CombatRules.POISON_WEAKEN_INCREASE;
+						break;
+					case CombatRules.SEARCH_HEALING_POTION:
+						health = searchModifier * CombatRules.HEALTH_PER_SEARCH_POINT;
+						break;
+					default:
+						attack = searchModifier;
+				}
+			}
+			
+			actor.foundHealth[slot] = health;
+			actor.foundAttack[slot] = attack;
+			actor.foundDefense[slot] = defense;
+			actor.foundSearch[slot] = search;
+			actor.foundWeaken[slot] = weaken;
+		}
+	}
+	
+	/**
+	 * Resolves the actions picked by one side.
+	 * Every action is written as arithmetic on 0 or 1 flags instead of branches,
+	 * so the loop has no unpredictable jumps and the JIT compiler can vectorize it.
+	 * An action that is not taken adds 0, and weakening by 0 leaves a stat as it is.
+	 * @param actor the side that is acting
+	 * @param target the side being acted on
+	 */
+	private void resolveActions(Side actor, Side target) {
+		for (int slot = 0; slot < active; slot++) {
+			int action = actor.action[slot];
+			int attacking = (action == ATTACK) ? 1 : 0;
+			int defending = (action == DEFEND) ? 1 : 0;
+			int weakening = (action == WEAKEN) ? 1 : 0;
+			
+			int damage = attacking * CombatRules.damageAfterBlock(actor.attack[slot], target.defense[slot]);
+			int weaken = weakening * actor.weakenModifier[slot];
+			
+			target.health[slot] -= damage + weaken;
+			target.defense[slot] = CombatRules.weakenedStat(target.defense[slot], weaken);
+			target.search[slot] = CombatRules.weakenedStat(target.search[slot], weaken);
+			
+			actor.health[slot] += actor.foundHealth[slot];
+			actor.attack[slot] += actor.foundAttack[slot];
+			actor.defense[slot] += defending * actor.increaseDefenseAmount[slot] + actor.foundDefense[slot];
+			actor.search[slot] += actor.foundSearch[slot];
+			actor.weakenModifier[slot] += actor.foundWeaken[slot];
+		}
+	}
+	
+	/**
+	 * Records the result of every duel where a character has died,
+	 * then moves the last running duel into its slot.
+	 */
+	private void finishDuels() {
+		int slot = 0;
+		
+		while (slot < active) {
+			int healthOne = sideOne.health[slot];
+			int healthTwo = sideTwo.health[slot];
+			
+			if (healthOne > 0 && healthTwo > 0) {
+				slot++;
+				continue;
+			}
+			
+			int duel = duelIds[slot];
+			if (healthOne > 0)
+				results[duel] = RESULT_CHARACTER_ONE;
+			else if (healthTwo > 0)
+				results[duel] = RESULT_CHARACTER_TWO;
+			else
+				results[duel] = RESULT_DRAW;
+			turnsTaken[duel] = turn;
+			
+			// The slot is checked again, since it now holds another duel
+			active--;
+			duelIds[slot] = duelIds[active];
+			sideOne.move(active, slot);
+			sideTwo.move(active, slot);
+		}
+	}
+	
+	//====== [GETTER METHODS] ======
+	
+	/**
+	 * Gets the result of a duel.
+	 * @param duel the id of the duel
+	 * @return one of the RESULT_ constants
+	 */
+	public int getResult(int duel) {
+		return results[duel];
+	}
+	
+	/**
+	 * Gets the number of turns a duel took.
+	 * @param duel the id of the duel
+	 * @return the turns, 0 if the duel is still running
+	 */
+	public int getTurnsTaken(int duel) {
+		return turnsTaken[duel];
+	}
+	
+	/**
+	 * @return the number of duels that are still running
+	 */
+	public int getActiveDuels() {
+		return active;
+	}
+	
+	/**
+	 * @return the number of duels added to the engine
+	 */
+	public int getDuelCount() {
+		return duelCount;
+	}
+	
+	/**
+	 * One side of every duel, each statistic is kept in its own array, indexed by slot.
+	 */
+	private static class Side {
+		
+		final int[] health;
+		final int[] attack;
+		final int[] defense;
+		final int[] search;
+		final int[] toughness;
+		final int[] weakenModifier;
+		final int[] increaseDefenseAmount;
+		
+		// Filled in when the actions are drawn
+		final int[] action;
+		final int[] foundHealth;
+		final int[] foundAttack;
+		final int[] foundDefense;
+		final int[] foundSearch;
+		final int[] foundWeaken;
+		
+		/**
+		 * @param capacity the number of slots
+		 */
+		Side(int capacity) {
+			health = new int[capacity];
+			attack = new int[capacity];
+			defense = new int[capacity];
+			search = new int[capacity];
+			toughness = new int[capacity];
+			weakenModifier = new int[capacity];
+			increaseDefenseAmount = new int[capacity];
+			action = new int[capacity];
+			foundHealth = new int[capacity];
+			foundAttack = new int[capacity];
+			foundDefense = new int[capacity];
+			foundSearch = new int[capacity];
+			foundWeaken = new int[capacity];
+		}
+		
+		/**
+		 * Copies the current stats of a character into a slot.
+		 * @param slot
+		 * @param character
+		 */
+		void load(int slot, Character character) {
+			health[slot] = character.getCurrentHealth();
+			attack[slot] = character.getAttack();
+			defense[slot] = character.getDefense();
+			search[slot] = character.getSearch();
+			toughness[slot] = character.getToughness();
+			weakenModifier[slot] = character.getWeakenModifier();
+			increaseDefenseAmount[slot] = character.getIncreaseDefenseAmount();
+		}
+		
+		/**
+		 * Moves the stats in one slot into another.
+		 * Only the stats are moved, the drawn actions are drawn again every turn.
+		 * @param from
+		 * @param to
+		 */
+		void move(int from, int to) {
+			health[to] = health[from];
+			attack[to] = attack[from];
+			defense[to] = defense[from];
+			search[to] = search[from];
+			toughness[to] = toughness[from];
+			weakenModifier[to] = weakenModifier[from];
+			increaseDefenseAmount[to] = increaseDefenseAmount[from];
+		}
+	}
+	
+	/**
+	 * Simulates duels and prints the result into the console.
+	 * @param args the number of duels, 1000000 if not given, and optionally the seed
+	 */
+	public static void main(String[] args) {
+		int duelCount = 1_000_000;
+		if (args.length > 0)
+			duelCount = Integer.parseInt(args[0]);
+		
+		long seed = MatchRandom.newSeed();
+		if (args.length > 1)
+			seed = Long.parseLong(args[1]);
+		
+		System.out.println("Seed: " + seed);
+		System.out.println(simulateRandomEnemyDuels(duelCount, seed));
+	}
+}
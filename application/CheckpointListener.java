@@ -0,0 +1,80 @@
+package application;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import model.BinaryFiles;
+import model.Character;
+
+/**
+ * A GameEventListener that saves a MatchCheckpoint of its match every few turns,
+ * meant for the endless games of game mode 1, so a long run can be carried on after it was stopped.
+ * The checkpoint is taken at the start of a turn, before any action, 
+ * so it holds the match as it was at the end of the turn before.
+ * The checkpoint is encoded into the same buffer every time, only the file is new.
+ * @author Jason Osmond
+ */
+public class CheckpointListener implements GameEventListener {
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final TurnTracker turnTracker;
+	private final Path path;
+	private final int interval;
+	private ByteBuffer buffer = ByteBuffer.allocate(256);
+	private int checkpointsSaved;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * The characters of the match are checked now, so a match that can not be saved fails here
+	 * instead of at its first checkpoint. An enemy spawner of the match has to spawn characters that can be saved too.
+	 * @param turnTracker the match to save, a restored match has to be given its own listener
+	 * @param path the file of the checkpoint, replaced by each new checkpoint
+	 * @param interval the number of turns between checkpoints
+	 * @throws IllegalArgumentException if the interval is below 1 or a character can not be saved
+	 */
+	public CheckpointListener(TurnTracker turnTracker, Path path, int interval) {
+		if (interval < 1)
+			throw new IllegalArgumentException("The interval must be at least 1 turn");
+		MatchCheckpoint.checkSupported(turnTracker);
+		
+		this.turnTracker = turnTracker;
+		this.path = path;
+		this.interval = interval;
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Saves a checkpoint of the turns before this one, if a multiple of the interval was played.
+	 * @throws UncheckedIOException if the checkpoint could not be saved
+	 */
+	@Override
+	public void turnStarted(int turn, Character characterOne, Character characterTwo) {
+		int turnsPlayed = turn - 1;
+		
+		if (turnsPlayed == 0 || turnsPlayed % interval != 0)
+			return;
+		
+		try {
+			buffer = MatchCheckpoint.encode(turnTracker, turnsPlayed, buffer);
+			BinaryFiles.save(buffer, path);
+			checkpointsSaved++;
+		}
+		catch (IOException ioe) {
+			throw new UncheckedIOException("Could not save the checkpoint of turn " + turnsPlayed, ioe);
+		}
+	}
+	
+	//====== [GETTER METHODS] ======
+	
+	/**
+	 * @return the number of checkpoints saved
+	 */
+	public int getCheckpointsSaved() {
+		return checkpointsSaved;
+	}
+}
@@ -0,0 +1,69 @@
+package application;
+
+import model.ActionResult;
+import model.Character;
+
+/**
+ * A GameEventListener that passes every event on to a list of listeners, in order.
+ * Used when a game should be shown and recorded at the same time, for example.
+ * @author Jason Osmond
+ */
+public class CompositeEventListener implements GameEventListener {
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final GameEventListener[] listeners;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * @param listeners the listeners the events are passed on to
+	 */
+	public CompositeEventListener(GameEventListener... listeners) {
+		this.listeners = listeners.clone();
+	}
+	
+	//====== [METHODS] ======
+	
+	@Override
+	public void gameStarted(TurnTracker turnTracker) {
+		for (GameEventListener listener : listeners)
+			listener.gameStarted(turnTracker);
+	}
+	
+	@Override
+	public void turnStarted(int turn, Character characterOne, Character characterTwo) {
+		for (GameEventListener listener : listeners)
+			listener.turnStarted(turn, characterOne, characterTwo);
+	}
+	
+	@Override
+	public void actionResolved(int turn, ActionResult actionResult) {
+		for (GameEventListener listener : listeners)
+			listener.actionResolved(turn, actionResult);
+	}
+	
+	@Override
+	public void characterSlain(int turn, Character slain, Character slayer, boolean gameOver) {
+		for (GameEventListener listener : listeners)
+			listener.characterSlain(turn, slain, slayer, gameOver);
+	}
+	
+	@Override
+	public void enemySpawned(int turn, Character enemy) {
+		for (GameEventListener listener : listeners)
+			listener.enemySpawned(turn, enemy);
+	}
+	
+	@Override
+	public void turnEnded(int turn, Character characterOne, Character characterTwo) {
+		for (GameEventListener listener : listeners)
+			listener.turnEnded(turn, characterOne, characterTwo);
+	}
+	
+	@Override
+	public void gameOver(TurnTracker turnTracker) {
+		for (GameEventListener listener : listeners)
+			listener.gameOver(turnTracker);
+	}
+}
@@ -0,0 +1,111 @@
+package application;
+
+import java.io.PrintStream;
+
+import model.ActionResult;
+import model.Character;
+
+/**
+ * A GameEventListener that prints the game into the console,
+ * the same text the TurnTracker has always printed.
+ * @author Jason Osmond
+ */
+public class ConsoleEventListener implements GameEventListener {
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final PrintStream out;
+	private int actionsThisTurn;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * Creates a listener that prints into System.out.
+	 */
+	public ConsoleEventListener() {
+		this(System.out);
+	}
+	
+	/**
+	 * Creates a listener that prints into the given stream.
+	 * @param out the stream to print into
+	 */
+	public ConsoleEventListener(PrintStream out) {
+		this.out = out;
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Prints the turn number and each character's statistics.
+	 */
+	@Override
+	public void turnStarted(int turn, Character characterOne, Character characterTwo) {
+		actionsThisTurn = 0;
+		
+		print("===================== [" + "Turn: " + turn + "] =====================");
+		
+		print(characterOne.getName() + ":");
+		print(
+				"(Health: " + characterOne.getCurrentHealth() + " | " +
+				"Attack: " + characterOne.getAttack() + " | " +
+				"Defense: " + characterOne.getDefense() + " | " + 
+				"Search: " + characterOne.getSearch() + ")");
+		
+		print("---------------------------------------------");
+		
+		print(characterTwo.getName() + ":");
+		print(
+				"(Health: " + characterTwo.getCurrentHealth() + " | " +
+				"Attack: " + characterTwo.getAttack() + " | " +
+				"Defense: " + characterTwo.getDefense() + " | " + 
+				"Search: " + characterTwo.getSearch() + ")\n");
+	}
+	
+	/**
+	 * Prints the action report, with a blank line before the first action 
+	 * of the turn and two after the second.
+	 */
+	@Override
+	public void actionResolved(int turn, ActionResult actionResult) {
+		if (actionsThisTurn == 0)
+			print("\n    [" + actionResult.getDescription() + "]\n");
+		else
+			print("    [" + actionResult.getDescription() + "]\n\n");
+		
+		actionsThisTurn++;
+	}
+	
+	/**
+	 * Prints who was slain, unless the death ends the game, 
+	 * since the game over report already says who was slain.
+	 */
+	@Override
+	public void characterSlain(int turn, Character slain, Character slayer, boolean gameOver) {
+		if (!gameOver)
+			print( slayer.getName() + " has slain " + slain.getName() + "!");
+	}
+	
+	/**
+	 * Prints the game over report.
+	 */
+	@Override
+	public void gameOver(TurnTracker turnTracker) {
+		print(turnTracker.getGameOverReport());
+	}
+	
+	/**
+	 * Prints a line.
+	 * @param line the line to print
+	 */
+	protected void print(String line) {
+		out.println(line);
+	}
+	
+	/**
+	 * @return the stream this listener prints into
+	 */
+	protected PrintStream getOut() {
+		return out;
+	}
+}
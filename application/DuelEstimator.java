@@ -0,0 +1,255 @@
+package application;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import model.Character;
+import model.MatchContext;
+import model.MatchRandom;
+import model.RandomEnemy;
+
+/**
+ * Estimates the chances of a duel between two characters with known stats,
+ * where both characters take random actions the way a RandomEnemy does.
+ * 
+ * The duels are simulated by BulkDuelEngines, a block of duels at a time, until the error bound
+ * of every chance is below the target error or maxDuels were simulated. The error bound is 
+ * confidenceZ standard errors of the estimated chance.
+ * 
+ * The seed of the simulation is derived from the stats, and every round simulates the same number of blocks
+ * with seeds derived from their index, so the same two stat blocks always get the same estimate on any machine. 
+ * The outcome is kept in a bounded cache so asking again is free.
+ * A DuelEstimator can be used by many threads at once.
+ * @author Jason Osmond
+ */
+public class DuelEstimator {
+	
+	//====== [CONSTANTS] =======
+	
+	public static final double DEFAULT_TARGET_ERROR = 0.01;
+	public static final double DEFAULT_CONFIDENCE_Z = 3.0;
+	public static final int DEFAULT_MAX_DUELS = 1 << 20;
+	public static final int DEFAULT_CACHE_SIZE = 1024;
+	
+	private static final int BLOCK_SIZE = BulkDuelEngine.DUELS_PER_BLOCK;
+	
+	/** The blocks of the first round, which measures the spread of the chances. */
+	private static final int FIRST_ROUND_BLOCKS = 2;
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final double targetError;
+	private final double confidenceZ;
+	private final int maxDuels;
+	private final Map<StatKey, DuelOutcome> cache;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * Creates an estimator with the default settings.
+	 */
+	public DuelEstimator() {
+		this(DEFAULT_TARGET_ERROR, DEFAULT_CONFIDENCE_Z, DEFAULT_MAX_DUELS, DEFAULT_CACHE_SIZE);
+	}
+	
+	/**
+	 * @param targetError the error bound to reach before the simulation stops
+	 * @param confidenceZ the number of standard errors in the error bound
+	 * @param maxDuels the most duels simulated for one estimate
+	 * @param cacheSize the most outcomes that are kept, the least recently used outcome is removed first
+	 */
+	public DuelEstimator(double targetError, double confidenceZ, int maxDuels, int cacheSize) {
+		this.targetError = targetError;
+		this.confidenceZ = confidenceZ;
+		this.maxDuels = maxDuels;
+		this.cache = new LinkedHashMap<StatKey, DuelOutcome>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<StatKey, DuelOutcome> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Estimates the chances of a duel between two characters, starting from their current stats.
+	 * Character one acts first each turn, the same as in the TurnTracker.
+	 * The characters themselves are not changed.
+	 * @param characterOne
+	 * @param characterTwo
+	 * @return the chances of each ending
+	 */
+	public DuelOutcome estimate(Character characterOne, Character characterTwo) {
+		StatKey key = new StatKey(characterOne, characterTwo);
+		
+		DuelOutcome outcome;
+		synchronized (cache) {
+			outcome = cache.get(key);
+		}
+		
+		if (outcome == null) {
+			outcome = simulate(characterOne, characterTwo, key.hashCode());
+			
+			synchronized (cache) {
+				cache.put(key, outcome);
+			}
+		}
+		
+		return outcome;
+	}
+	
+	/**
+	 * Removes every outcome from the cache.
+	 */
+	public void clearCache() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+	
+	/**
+	 * Simulates rounds of duels until the error bound is reached.
+	 * The first round runs FIRST_ROUND_BLOCKS blocks, every later round the blocks the duels so far 
+	 * show are still needed, all at the same time. Block i always uses the same derived seed, 
+	 * and the size of a round only depends on the duels before it, so the result does not depend on the number of cores.
+	 * @param characterOne
+	 * @param characterTwo
+	 * @param seed the seed of the simulation
+	 * @return the estimated chances
+	 */
+	private DuelOutcome simulate(Character characterOne, Character characterTwo, long seed) {
+		BatchResult result = BatchResult.empty();
+		int blocks = 0;
+		
+		while (result.getMatches() < maxDuels && errorBound(result) > targetError) {
+			int firstBlock = blocks;
+			int roundBlocks = (blocks == 0) ? FIRST_ROUND_BLOCKS : Math.max(1, blocksNeeded(result) - blocks);
+			roundBlocks = Math.min(roundBlocks, (maxDuels - result.getMatches() + BLOCK_SIZE - 1) / BLOCK_SIZE);
+			
+			result = result.combine(IntStream.range(firstBlock, firstBlock + roundBlocks).parallel()
+					.mapToObj(block -> simulateBlock(characterOne, characterTwo, MatchRandom.deriveSeed(seed, block)))
+					.reduce(BatchResult.empty(), BatchResult::combine));
+			
+			blocks += roundBlocks;
+		}
+		
+		return new DuelOutcome(result.getCharacterOneWinRate(), result.getCharacterTwoWinRate(), result.getDrawRate(),
+				errorBound(result), result.getAverageTurns(), result.getMatches());
+	}
+	
+	/**
+	 * Simulates one block of duels between copies of the two characters.
+	 * @param characterOne
+	 * @param characterTwo
+	 * @param seed the seed of the block
+	 * @return the result of the block
+	 */
+	private static BatchResult simulateBlock(Character characterOne, Character characterTwo, long seed) {
+		BulkDuelEngine engine = new BulkDuelEngine(BLOCK_SIZE, new MatchRandom(seed));
+		
+		for (int duel = 0; duel < BLOCK_SIZE; duel++)
+			engine.addDuel(characterOne, characterTwo);
+		
+		engine.run();
+		return engine.getBatchResult();
+	}
+	
+	/**
+	 * Gets the number of blocks it takes to reach the target error, if the chances stay as they are.
+	 * @param result the duels simulated so far
+	 * @return the blocks needed in all, including the ones simulated so far
+	 */
+	private int blocksNeeded(BatchResult result) {
+		double bound = errorBound(result);
+		double duels = result.getMatches() * (bound / targetError) * (bound / targetError);
+		
+		return (int) Math.min(Integer.MAX_VALUE, Math.ceil(duels / BLOCK_SIZE));
+	}
+	
+	/**
+	 * Gets the largest error bound of the three chances.
+	 * A chance of 0 or 1 has no spread, so it is treated as if one more duel had the other result.
+	 * @param result the duels simulated so far
+	 * @return confidenceZ standard errors of the least certain chance, 1 if no duels were simulated
+	 */
+	private double errorBound(BatchResult result) {
+		int duels = result.getMatches();
+		if (duels == 0)
+			return 1;
+		
+		double largestVariance = 0;
+		for (double chance : new double[] {result.getCharacterOneWinRate(), result.getCharacterTwoWinRate(), result.getDrawRate()})
+			largestVariance = Math.max(largestVariance, Math.max(chance * (1 - chance), 1.0 / duels));
+		
+		return confidenceZ * Math.sqrt(largestVariance / duels);
+	}
+	
+	/**
+	 * The stats of two characters that decide how a duel between them goes,
+	 * used to find the outcome of the duel in the cache.
+	 */
+	private static final class StatKey {
+		
+		private final int[] stats;
+		private final int hash;
+		
+		/**
+		 * @param characterOne
+		 * @param characterTwo
+		 */
+		StatKey(Character characterOne, Character characterTwo) {
+			stats = new int[] {
+				characterOne.getCurrentHealth(), characterOne.getAttack(), characterOne.getDefense(), 
+				characterOne.getSearch(), characterOne.getWeakenModifier(), characterOne.getIncreaseDefenseAmount(),
+				characterTwo.getCurrentHealth(), characterTwo.getAttack(), characterTwo.getDefense(), 
+				characterTwo.getSearch(), characterTwo.getWeakenModifier(), characterTwo.getIncreaseDefenseAmount()
+			};
+			hash = Arrays.hashCode(stats);
+		}
+		
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof StatKey && Arrays.equals(stats, ((StatKey) other).stats);
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+	
+	/**
+	 * Estimates a duel between two random enemies and prints the outcome into the console.
+	 * @param args the seed used to create the enemies, random if not given
+	 */
+	public static void main(String[] args) {
+		long seed = MatchRandom.newSeed();
+		if (args.length > 0)
+			seed = Long.parseLong(args[0]);
+		
+		MatchContext matchContext = new MatchContext(seed);
+		Character characterOne = new RandomEnemy(matchContext);
+		Character characterTwo = new RandomEnemy(matchContext);
+		
+		System.out.println(characterOne.displayStats());
+		System.out.println(characterTwo.displayStats());
+		
+		DuelEstimator estimator = new DuelEstimator();
+		
+		long startTime = System.nanoTime();
+		DuelOutcome outcome = estimator.estimate(characterOne, characterTwo);
+		long firstNanos = System.nanoTime() - startTime;
+		
+		startTime = System.nanoTime();
+		estimator.estimate(characterOne, characterTwo);
+		long cachedNanos = System.nanoTime() - startTime;
+		
+		System.out.println(outcome);
+		System.out.println(String.format("Estimated in %.1f ms, %.1f us from the cache", firstNanos / 1e6, cachedNanos / 1e3));
+	}
+}
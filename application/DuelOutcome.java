@@ -0,0 +1,102 @@
+package application;
+
+/**
+ * The chances of each way a duel between two characters can end, as estimated by the DuelEstimator.
+ * Each chance is within the error bound of the true chance, 
+ * unless the estimate was unlucky by more than the estimator's confidenceZ standard errors.
+ * @author Jason Osmond
+ */
+public class DuelOutcome {
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final double characterOneWinChance;
+	private final double characterTwoWinChance;
+	private final double drawChance;
+	private final double errorBound;
+	private final double averageTurns;
+	private final int duels;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * @param characterOneWinChance the chance character one is the only one alive at the end
+	 * @param characterTwoWinChance the chance character two is the only one alive at the end
+	 * @param drawChance the chance both characters die on the same turn
+	 * @param errorBound the most any of the chances is expected to be off by
+	 * @param averageTurns the average turns of a duel
+	 * @param duels the number of duels the chances were estimated from
+	 */
+	public DuelOutcome(double characterOneWinChance, double characterTwoWinChance, double drawChance,
+			double errorBound, double averageTurns, int duels) {
+		this.characterOneWinChance = characterOneWinChance;
+		this.characterTwoWinChance = characterTwoWinChance;
+		this.drawChance = drawChance;
+		this.errorBound = errorBound;
+		this.averageTurns = averageTurns;
+		this.duels = duels;
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Creates an output string containing the chances and their error bound.
+	 * @return a String containing the overview
+	 */
+	@Override
+	public String toString() {
+		String outputString = 
+				String.format("Character one wins: %.2f%%", characterOneWinChance * 100) + "\n" +
+				String.format("Character two wins: %.2f%%", characterTwoWinChance * 100) + "\n" +
+				String.format("Draws: %.2f%%", drawChance * 100) + "\n" +
+				String.format("Error bound: +/- %.2f%%", errorBound * 100) + "\n" +
+				String.format("Turns: %.2f average", averageTurns) + "\n" +
+				"Duels: " + duels + "\n";
+		
+		return outputString;
+	}
+	
+	//====== [GETTER METHODS] ======
+	
+	/**
+	 * @return the chance character one wins
+	 */
+	public double getCharacterOneWinChance() {
+		return characterOneWinChance;
+	}
+	
+	/**
+	 * @return the chance character two wins
+	 */
+	public double getCharacterTwoWinChance() {
+		return characterTwoWinChance;
+	}
+	
+	/**
+	 * @return the chance of a draw
+	 */
+	public double getDrawChance() {
+		return drawChance;
+	}
+	
+	/**
+	 * @return the most any of the chances is expected to be off by
+	 */
+	public double getErrorBound() {
+		return errorBound;
+	}
+	
+	/**
+	 * @return the average turns of a duel
+	 */
+	public double getAverageTurns() {
+		return averageTurns;
+	}
+	
+	/**
+	 * @return the number of duels the chances were estimated from
+	 */
+	public int getDuels() {
+		return duels;
+	}
+}
@@ -0,0 +1,189 @@
+package application;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The Elo ratings and scores of the entrants of a tournament.
+ * Games can be recorded by many threads at once without locks: 
+ * each rating is the bits of a double in an AtomicLongArray and is changed with compare-and-set,
+ * so a game only ever waits on a game of the same entrant, and then only for a retry.
+ * The ratings can be read while the tournament is running, they are always the result 
+ * of the games recorded so far, but a game may be half recorded (one entrant updated, not the other).
+ * @author Jason Osmond
+ */
+public class EloRatings {
+	
+	//====== [CONSTANTS] =======
+	
+	public static final double INITIAL_RATING = 1500;
+	public static final double DEFAULT_K_FACTOR = 16;
+	
+	/**
+	 * Scores are kept in half points, so a draw can be counted as a whole number.
+	 */
+	private static final int WIN_HALF_POINTS = 2;
+	private static final int DRAW_HALF_POINTS = 1;
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final double kFactor;
+	private final AtomicLongArray ratingBits;
+	private final AtomicIntegerArray halfPoints;
+	private final AtomicIntegerArray games;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * @param entrants the number of entrants, every entrant starts at INITIAL_RATING
+	 */
+	public EloRatings(int entrants) {
+		this(entrants, DEFAULT_K_FACTOR);
+	}
+	
+	/**
+	 * @param entrants the number of entrants, every entrant starts at INITIAL_RATING
+	 * @param kFactor the most a rating can change in one game
+	 */
+	public EloRatings(int entrants, double kFactor) {
+		this.kFactor = kFactor;
+		ratingBits = new AtomicLongArray(entrants);
+		halfPoints = new AtomicIntegerArray(entrants);
+		games = new AtomicIntegerArray(entrants);
+		
+		for (int entrant = 0; entrant < entrants; entrant++)
+			ratingBits.set(entrant, Double.doubleToRawLongBits(INITIAL_RATING));
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Records the result of a game, changing the rating of both entrants.
+	 * @param entrantOne
+	 * @param entrantTwo
+	 * @param scoreOne 1 if entrant one won, 0.5 for a draw, 0 if entrant two won
+	 */
+	public void recordGame(int entrantOne, int entrantTwo, double scoreOne) {
+		double expectedOne = 1 / (1 + Math.pow(10, (getRating(entrantTwo) - getRating(entrantOne)) / 400));
+		double change = kFactor * (scoreOne - expectedOne);
+		
+		addToRating(entrantOne, change);
+		addToRating(entrantTwo, -change);
+		
+		if (scoreOne == 1)
+			halfPoints.addAndGet(entrantOne, WIN_HALF_POINTS);
+		else if (scoreOne == 0)
+			halfPoints.addAndGet(entrantTwo, WIN_HALF_POINTS);
+		else {
+			halfPoints.addAndGet(entrantOne, DRAW_HALF_POINTS);
+			halfPoints.addAndGet(entrantTwo, DRAW_HALF_POINTS);
+		}
+		
+		games.incrementAndGet(entrantOne);
+		games.incrementAndGet(entrantTwo);
+	}
+	
+	/**
+	 * Gives an entrant the points of winning games without playing, for a bye in a Swiss round.
+	 * The rating is not changed.
+	 * @param entrant
+	 * @param wins the games the bye is worth, the games a paired entrant plays in the round
+	 */
+	public void recordBye(int entrant, int wins) {
+		halfPoints.addAndGet(entrant, WIN_HALF_POINTS * wins);
+	}
+	
+	/**
+	 * Adds to a rating with compare-and-set, retrying if another thread changed it first.
+	 * @param entrant
+	 * @param change
+	 */
+	private void addToRating(int entrant, double change) {
+		long current;
+		long updated;
+		
+		do {
+			current = ratingBits.get(entrant);
+			updated = Double.doubleToRawLongBits(Double.longBitsToDouble(current) + change);
+		} while (!ratingBits.compareAndSet(entrant, current, updated));
+	}
+	
+	/**
+	 * Ranks the entrants by their current rating.
+	 * @return the entrants, highest rating first
+	 */
+	public int[] rankByRating() {
+		double[] ratings = new double[getEntrants()];
+		for (int entrant = 0; entrant < ratings.length; entrant++)
+			ratings[entrant] = getRating(entrant);
+		
+		return rank(Comparator.comparingDouble((Integer entrant) -> ratings[entrant]).reversed());
+	}
+	
+	/**
+	 * Ranks the entrants by their current points, then by rating.
+	 * @return the entrants, most points first
+	 */
+	public int[] rankByPoints() {
+		double[] ratings = new double[getEntrants()];
+		int[] points = new int[getEntrants()];
+		for (int entrant = 0; entrant < ratings.length; entrant++) {
+			ratings[entrant] = getRating(entrant);
+			points[entrant] = halfPoints.get(entrant);
+		}
+		
+		return rank(Comparator.comparingInt((Integer entrant) -> points[entrant]).reversed()
+				.thenComparing(Comparator.comparingDouble((Integer entrant) -> ratings[entrant]).reversed()));
+	}
+	
+	/**
+	 * Sorts the entrants.
+	 * The values are copied before sorting, since other threads may change them while the entrants are sorted.
+	 * @param order the order, comparing the copied values
+	 * @return the entrants, sorted
+	 */
+	private int[] rank(Comparator<Integer> order) {
+		Integer[] entrants = new Integer[getEntrants()];
+		for (int entrant = 0; entrant < entrants.length; entrant++)
+			entrants[entrant] = entrant;
+		
+		Arrays.sort(entrants, order);
+		
+		return Arrays.stream(entrants).mapToInt(Integer::intValue).toArray();
+	}
+	
+	//====== [GETTER METHODS] ======
+	
+	/**
+	 * @param entrant
+	 * @return the current rating of the entrant
+	 */
+	public double getRating(int entrant) {
+		return Double.longBitsToDouble(ratingBits.get(entrant));
+	}
+	
+	/**
+	 * @param entrant
+	 * @return the points of the entrant, 1 for each win and 0.5 for each draw
+	 */
+	public double getPoints(int entrant) {
+		return halfPoints.get(entrant) / 2.0;
+	}
+	
+	/**
+	 * @param entrant
+	 * @return the games the entrant played
+	 */
+	public int getGames(int entrant) {
+		return games.get(entrant);
+	}
+	
+	/**
+	 * @return the number of entrants
+	 */
+	public int getEntrants() {
+		return ratingBits.length();
+	}
+}
@@ -0,0 +1,79 @@
+package application;
+
+import model.ActionResult;
+import model.Character;
+
+/**
+ * A GameEventListener is told what happens in a game run by the TurnTracker.
+ * The TurnTracker does not print anything itself, the listener decides what to do with the events.
+ * ConsoleEventListener prints the game the way it always was,
+ * BufferedEventListener prints the same text in large blocks
+ * and NoOpEventListener ignores everything, so headless games cost no output at all.
+ * All methods do nothing by default, so a listener only needs the events it uses.
+ * @author Jason Osmond
+ */
+public interface GameEventListener {
+	
+	/**
+	 * Called once before the first turn a TurnTracker plays, 
+	 * which is after the turn the game was saved at if it was restored from a checkpoint.
+	 * @param turnTracker the game that is starting, can be used to get the characters and match context
+	 */
+	default void gameStarted(TurnTracker turnTracker) {
+	}
+	
+	/**
+	 * Called at the start of each turn, before the characters act.
+	 * @param turn the turn number
+	 * @param characterOne the character that acts first
+	 * @param characterTwo the character that acts second
+	 */
+	default void turnStarted(int turn, Character characterOne, Character characterTwo) {
+	}
+	
+	/**
+	 * Called after a character has taken its action.
+	 * The text of the result is not created unless the listener asks for it,
+	 * and should be created before this method returns if it is needed.
+	 * @param turn the turn number
+	 * @param actionResult what happened, including the character that acted
+	 */
+	default void actionResolved(int turn, ActionResult actionResult) {
+	}
+	
+	/**
+	 * Called when a character has died.
+	 * @param turn the turn number
+	 * @param slain the character that died
+	 * @param slayer the opponent of the character that died
+	 * @param gameOver true if the death ends the game
+	 */
+	default void characterSlain(int turn, Character slain, Character slayer, boolean gameOver) {
+	}
+	
+	/**
+	 * Called when a new enemy has replaced a slain one, in game mode 1.
+	 * @param turn the turn number the enemy was slain on
+	 * @param enemy the new enemy
+	 */
+	default void enemySpawned(int turn, Character enemy) {
+	}
+	
+	/**
+	 * Called at the end of each turn, after any deaths, the spawn of a new enemy 
+	 * and the end of the game have been reported.
+	 * The characters are as they will be at the start of the next turn.
+	 * @param turn the turn number
+	 * @param characterOne the character that acts first
+	 * @param characterTwo the character that acts second
+	 */
+	default void turnEnded(int turn, Character characterOne, Character characterTwo) {
+	}
+	
+	/**
+	 * Called once when the game is over.
+	 * @param turnTracker the game that ended, can be used to get the final state and report
+	 */
+	default void gameOver(TurnTracker turnTracker) {
+	}
+}
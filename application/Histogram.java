@@ -0,0 +1,163 @@
+package application;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram with fixed buckets that many threads can record values into at once.
+ * Each bucket is a LongAdder, so threads recording at the same time update different cells 
+ * instead of fighting over one counter. Recording a value never allocates.
+ * @author Jason Osmond
+ */
+public class Histogram {
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final long[] upperBounds;
+	private final LongAdder[] buckets;
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+	private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * Creates a histogram with one bucket for each upper bound, and one more for bigger values.
+	 * A value goes in the first bucket whose upper bound it is less than or equal to.
+	 * @param upperBounds the upper bounds of the buckets, from smallest to largest
+	 */
+	public Histogram(long... upperBounds) {
+		this.upperBounds = upperBounds.clone();
+		Arrays.sort(this.upperBounds);
+		
+		buckets = new LongAdder[upperBounds.length + 1];
+		for (int bucket = 0; bucket < buckets.length; bucket++)
+			buckets[bucket] = new LongAdder();
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Records a value.
+	 * @param value
+	 */
+	public void record(long value) {
+		int bucket = Arrays.binarySearch(upperBounds, value);
+		if (bucket < 0)
+			bucket = -bucket - 1;
+		
+		buckets[bucket].increment();
+		count.increment();
+		sum.add(value);
+		min.accumulate(value);
+		max.accumulate(value);
+	}
+	
+	/**
+	 * Takes a copy of the histogram.
+	 * Values recorded while the copy is taken may be in some of its totals and not in others.
+	 * @return the copy
+	 */
+	public Snapshot snapshot() {
+		long[] counts = new long[buckets.length];
+		for (int bucket = 0; bucket < buckets.length; bucket++)
+			counts[bucket] = buckets[bucket].sum();
+		
+		return new Snapshot(upperBounds.clone(), counts, count.sum(), sum.sum(), min.get(), max.get());
+	}
+	
+	/**
+	 * Sets every bucket and total back to 0.
+	 */
+	public void reset() {
+		for (LongAdder bucket : buckets)
+			bucket.reset();
+		count.reset();
+		sum.reset();
+		min.reset();
+		max.reset();
+	}
+	
+	/**
+	 * A copy of a histogram at one point in time.
+	 */
+	public static class Snapshot {
+		
+		private final long[] upperBounds;
+		private final long[] counts;
+		private final long count;
+		private final long sum;
+		private final long min;
+		private final long max;
+		
+		/**
+		 * @param upperBounds the upper bounds of the buckets
+		 * @param counts the count of each bucket, the last bucket has no upper bound
+		 * @param count the number of values
+		 * @param sum the sum of the values
+		 * @param min the smallest value
+		 * @param max the largest value
+		 */
+		Snapshot(long[] upperBounds, long[] counts, long count, long sum, long min, long max) {
+			this.upperBounds = upperBounds;
+			this.counts = counts;
+			this.count = count;
+			this.sum = sum;
+			this.min = min;
+			this.max = max;
+		}
+		
+		/**
+		 * @return the average value, 0 if no values were recorded
+		 */
+		public double getMean() {
+			if (count == 0)
+				return 0;
+			return (double) sum / count;
+		}
+		
+		/**
+		 * @return a copy of the upper bounds of the buckets
+		 */
+		public long[] getUpperBounds() {
+			return upperBounds.clone();
+		}
+		
+		/**
+		 * @return a copy of the counts of the buckets, the last bucket has no upper bound
+		 */
+		public long[] getCounts() {
+			return counts.clone();
+		}
+		
+		/**
+		 * @return the count
+		 */
+		public long getCount() {
+			return count;
+		}
+		
+		/**
+		 * @return the sum
+		 */
+		public long getSum() {
+			return sum;
+		}
+		
+		/**
+		 * @return the smallest value, 0 if no values were recorded
+		 */
+		public long getMin() {
+			return (count == 0) ? 0 : min;
+		}
+		
+		/**
+		 * @return the largest value, 0 if no values were recorded
+		 */
+		public long getMax() {
+			return (count == 0) ? 0 : max;
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package application;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of the members of a team, ordered by an int key kept for each member.
+ * The heap knows where each member is, so the key of any member can be changed, 
+ * or the member removed, in O(log n) time, and the member with the smallest key is found in O(1) time.
+ * Members with the same key are ordered by their index, so the order never depends on the order of the changes.
+ * @author Jason Osmond
+ */
+public final class IndexedHeap {
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final int[] heap;
+	private final int[] positions;
+	private final int[] keys;
+	private int size;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * Creates an empty heap.
+	 * @param capacity the number of members, they are numbered from 0 to capacity - 1
+	 */
+	public IndexedHeap(int capacity) {
+		heap = new int[capacity];
+		positions = new int[capacity];
+		keys = new int[capacity];
+		Arrays.fill(positions, -1);
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Adds a member to the heap, or changes its key if it is already in the heap.
+	 * @param member
+	 * @param key
+	 */
+	public void add(int member, int key) {
+		if (positions[member] >= 0) {
+			update(member, key);
+			return;
+		}
+		
+		keys[member] = key;
+		heap[size] = member;
+		positions[member] = size;
+		siftUp(size++);
+	}
+	
+	/**
+	 * Changes the key of a member in the heap, moving it up or down to its new place.
+	 * @param member
+	 * @param key
+	 */
+	public void update(int member, int key) {
+		int oldKey = keys[member];
+		keys[member] = key;
+		
+		if (key < oldKey)
+			siftUp(positions[member]);
+		else if (key > oldKey)
+			siftDown(positions[member]);
+	}
+	
+	/**
+	 * Removes a member from the heap, does nothing if it is not in the heap.
+	 * @param member
+	 */
+	public void remove(int member) {
+		int position = positions[member];
+		if (position < 0)
+			return;
+		
+		positions[member] = -1;
+		size--;
+		
+		if (position == size)
+			return;
+		
+		// The last member fills the hole, then moves to its place
+		int last = heap[size];
+		heap[position] = last;
+		positions[last] = position;
+		siftUp(position);
+		siftDown(positions[last]);
+	}
+	
+	/**
+	 * @return the member with the smallest key, -1 if the heap is empty
+	 */
+	public int peek() {
+		return (size == 0) ? -1 : heap[0];
+	}
+	
+	/**
+	 * Moves the member at a position up until its parent comes before it.
+	 * @param position
+	 */
+	private void siftUp(int position) {
+		int member = heap[position];
+		
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			if (!before(member, heap[parent]))
+				break;
+			
+			place(heap[parent], position);
+			position = parent;
+		}
+		
+		place(member, position);
+	}
+	
+	/**
+	 * Moves the member at a position down until it comes before both of its children.
+	 * @param position
+	 */
+	private void siftDown(int position) {
+		int member = heap[position];
+		
+		while (true) {
+			int child = 2 * position + 1;
+			if (child >= size)
+				break;
+			if (child + 1 < size && before(heap[child + 1], heap[child]))
+				child++;
+			if (!before(heap[child], member))
+				break;
+			
+			place(heap[child], position);
+			position = child;
+		}
+		
+		place(member, position);
+	}
+	
+	/**
+	 * @param member
+	 * @param position the position the member is put at
+	 */
+	private void place(int member, int position) {
+		heap[position] = member;
+		positions[member] = position;
+	}
+	
+	/**
+	 * @param first
+	 * @param second
+	 * @return true if the first member comes before the second
+	 */
+	private boolean before(int first, int second) {
+		return keys[first] < keys[second] || (keys[first] == keys[second] && first < second);
+	}
+	
+	//====== [GETTER METHODS] ======
+	
+	/**
+	 * @param member
+	 * @return true if the member is in the heap
+	 */
+	public boolean contains(int member) {
+		return positions[member] >= 0;
+	}
+	
+	/**
+	 * @param member a member in the heap
+	 * @return the key of the member
+	 */
+	public int getKey(int member) {
+		return keys[member];
+	}
+	
+	/**
+	 * @return the number of members in the heap
+	 */
+	public int size() {
+		return size;
+	}
+}
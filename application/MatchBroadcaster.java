@@ -0,0 +1,360 @@
+package application;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import model.ActionResult;
+import model.Character;
+import model.EnemyCharacter;
+import model.MatchContext;
+
+/**
+ * A GameEventListener that streams one match to any number of subscribers on other threads.
+ * 
+ * The events of a turn are encoded once into a BroadcastFrame at the end of the turn, 
+ * and the frame is put in a ring shared by every subscriber. Publishing a frame is a store into the ring
+ * and one volatile write, no matter how many subscribers there are, so the match never waits for them.
+ * Each subscriber only keeps its own position in the ring, and takes all the frames it has not seen in one batch.
+ * A subscriber that falls behind by more than the ring holds has lost frames. Depending on the policy, 
+ * it either skips to the latest frame, whose snapshot holds the whole state of the match, or is dropped.
+ * The memory of the broadcast is the ring, whatever the number of subscribers.
+ * @author Jason Osmond
+ */
+public class MatchBroadcaster implements GameEventListener {
+	
+	//====== [CONSTANTS] =======
+	
+	public static final int DEFAULT_CAPACITY = 1024;
+	
+	private static final long MAX_PARK_NANOS = 1_000_000;
+	
+	/**
+	 * What happens to a subscriber that fell so far behind that its next frame was overwritten.
+	 */
+	public enum SlowSubscriberPolicy {
+		/** The subscriber skips to the latest frame. */
+		COALESCE,
+		/** The subscription is closed. */
+		DROP
+	}
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final BroadcastFrame[] ring;
+	private final int mask;
+	private final SlowSubscriberPolicy policy;
+	private final SpectatorFeed feed = new SpectatorFeed();
+	private ByteBuffer events = ByteBuffer.allocate(256);
+	private TurnTracker turnTracker;
+	private volatile long published;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * Creates a broadcaster with a ring of 1024 frames that skips slow subscribers to the latest frame.
+	 */
+	public MatchBroadcaster() {
+		this(DEFAULT_CAPACITY, SlowSubscriberPolicy.COALESCE);
+	}
+	
+	/**
+	 * @param capacity the number of frames kept for subscribers that are behind, rounded up to a power of 2
+	 * @param policy what happens to subscribers that fall further behind than that
+	 */
+	public MatchBroadcaster(int capacity, SlowSubscriberPolicy policy) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("The capacity must be at least 1");
+		
+		ring = new BroadcastFrame[(capacity <= 1) ? 1 : Integer.highestOneBit(capacity - 1) << 1];
+		mask = ring.length - 1;
+		this.policy = policy;
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Starts a subscription, from any thread.
+	 * The first frame of the subscription is the latest frame, so a late subscriber starts from the current state.
+	 * @return the subscription
+	 */
+	public Subscription subscribe() {
+		return new Subscription(Math.max(0, published - 1));
+	}
+	
+	@Override
+	public void gameStarted(TurnTracker turnTracker) {
+		this.turnTracker = turnTracker;
+		feed.gameStarted(turnTracker);
+		
+		events.clear();
+		events.put(BroadcastFrame.EVENT_START).put((byte) turnTracker.getGameMode());
+		publish();
+	}
+	
+	@Override
+	public void turnStarted(int turn, Character characterOne, Character characterTwo) {
+		ensureRoom(Byte.BYTES + Integer.BYTES);
+		events.put(BroadcastFrame.EVENT_TURN).putInt(turn);
+	}
+	
+	@Override
+	public void actionResolved(int turn, ActionResult actionResult) {
+		ensureRoom(3 * Byte.BYTES + Integer.BYTES);
+		events.put(BroadcastFrame.EVENT_ACTION)
+			.put((byte) slotOf(actionResult.getActor()))
+			.put((byte) (actionResult.getAction().getOpcode() << 4 | actionResult.getOutcome().getCode()))
+			.putInt(actionResult.getAmount());
+	}
+	
+	@Override
+	public void characterSlain(int turn, Character slain, Character slayer, boolean gameOver) {
+		ensureRoom(2 * Byte.BYTES);
+		events.put(BroadcastFrame.EVENT_SLAIN).put((byte) slotOf(slain));
+	}
+	
+	@Override
+	public void enemySpawned(int turn, Character enemy) {
+		ensureRoom(Byte.BYTES + Integer.BYTES);
+		events.put(BroadcastFrame.EVENT_SPAWN).putInt((enemy instanceof EnemyCharacter) ? ((EnemyCharacter) enemy).getLevel() : 0);
+	}
+	
+	@Override
+	public void gameOver(TurnTracker turnTracker) {
+		ensureRoom(Byte.BYTES);
+		events.put(BroadcastFrame.EVENT_GAME_OVER);
+	}
+	
+	@Override
+	public void turnEnded(int turn, Character characterOne, Character characterTwo) {
+		feed.turnEnded(turn, characterOne, characterTwo);
+		publish();
+	}
+	
+	/**
+	 * Encodes the events collected since the last frame into a new frame and puts it in the ring.
+	 * The frame is written into the ring before the count of published frames is raised,
+	 * so a subscriber that sees the count also sees the frame.
+	 */
+	private void publish() {
+		events.flip();
+		ByteBuffer payload = ByteBuffer.wrap(Arrays.copyOf(events.array(), events.limit())).asReadOnlyBuffer();
+		events.clear();
+		
+		long sequence = published;
+		ring[(int) (sequence & mask)] = new BroadcastFrame(sequence, payload, feed.getLatest());
+		published = sequence + 1;
+	}
+	
+	/**
+	 * Makes sure the events buffer has room for an event, growing it if needed.
+	 * @param bytes the size of the event
+	 */
+	private void ensureRoom(int bytes) {
+		if (events.remaining() < bytes) {
+			ByteBuffer larger = ByteBuffer.allocate(events.capacity() * 2);
+			events.flip();
+			larger.put(events);
+			events = larger;
+		}
+	}
+	
+	/**
+	 * @param character a character of the match
+	 * @return the slot of the character, 1 or 2
+	 */
+	private int slotOf(Character character) {
+		return (character == turnTracker.getCharacterOne()) ? 1 : 2;
+	}
+	
+	//====== [GETTER METHODS] ======
+	
+	/**
+	 * @return the number of frames published
+	 */
+	public long getPublished() {
+		return published;
+	}
+	
+	/**
+	 * A subscriber's position in the broadcast.
+	 * A subscription is read by one thread, but any number of subscriptions can be read at once.
+	 */
+	public final class Subscription {
+		
+		private long cursor;
+		private long framesReceived;
+		private long framesSkipped;
+		private boolean closed;
+		
+		/**
+		 * @param cursor the sequence of the first frame to read
+		 */
+		private Subscription(long cursor) {
+			this.cursor = cursor;
+		}
+		
+		/**
+		 * Hands every frame that arrived since the last call to the consumer, oldest first, up to the limit.
+		 * If the subscriber fell so far behind that some of its frames were overwritten,
+		 * it is either skipped to the latest frame or closed, depending on the policy of the broadcaster.
+		 * Never waits.
+		 * @param consumer the consumer of the frames
+		 * @param maxFrames the most frames to hand over
+		 * @return the number of frames handed over
+		 */
+		public int poll(Consumer<BroadcastFrame> consumer, int maxFrames) {
+			if (closed)
+				return 0;
+			
+			long available = published;
+			int count = 0;
+			
+			while (cursor < available && count < maxFrames) {
+				BroadcastFrame frame = ring[(int) (cursor & mask)];
+				
+				// The frame was overwritten by a newer one, the subscriber is a whole ring behind
+				if (frame.getSequence() != cursor || available - cursor > ring.length) {
+					if (policy == SlowSubscriberPolicy.DROP) {
+						closed = true;
+						return count;
+					}
+					
+					long latest = published - 1;
+					framesSkipped += latest - cursor;
+					cursor = latest;
+					available = latest + 1;
+					continue;
+				}
+				
+				consumer.accept(frame);
+				cursor++;
+				count++;
+				framesReceived++;
+			}
+			
+			return count;
+		}
+		
+		/**
+		 * Waits until a frame arrives or the time is up. 
+		 * The waiting thread checks for frames with growing pauses of up to a millisecond,
+		 * so the match never has to wake any subscriber up.
+		 * @param timeoutNanos the most time to wait, in nanoseconds
+		 * @return true if a frame is waiting to be polled
+		 */
+		public boolean await(long timeoutNanos) {
+			long deadline = System.nanoTime() + timeoutNanos;
+			long pause = 1_000;
+			
+			while (!closed && cursor >= published) {
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0)
+					return false;
+				
+				LockSupport.parkNanos(Math.min(pause, remaining));
+				pause = Math.min(pause * 2, MAX_PARK_NANOS);
+			}
+			
+			return !closed;
+		}
+		
+		/**
+		 * Stops the subscription, the broadcaster keeps nothing for it.
+		 */
+		public void close() {
+			closed = true;
+		}
+		
+		/**
+		 * @return true if the subscription was closed or dropped
+		 */
+		public boolean isClosed() {
+			return closed;
+		}
+		
+		/**
+		 * @return the number of frames handed to the subscriber
+		 */
+		public long getFramesReceived() {
+			return framesReceived;
+		}
+		
+		/**
+		 * @return the number of frames the subscriber skipped because it was too far behind
+		 */
+		public long getFramesSkipped() {
+			return framesSkipped;
+		}
+	}
+	
+	/**
+	 * Broadcasts an AI versus AI match with a pause between turns to many subscribers, 
+	 * read by a few threads, some of them too slow to keep up, and prints what the subscribers received.
+	 * @param args the number of subscribers, 10000 if not given, and the pause between turns in milliseconds, 1 if not given
+	 * @throws InterruptedException if interrupted while waiting for the readers
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int subscriberCount = (args.length > 0) ? Integer.parseInt(args[0]) : 10_000;
+		long pauseMillis = (args.length > 1) ? Long.parseLong(args[1]) : 1;
+		int readerCount = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+		
+		MatchBroadcaster broadcaster = new MatchBroadcaster(64, SlowSubscriberPolicy.COALESCE);
+		Subscription[] subscriptions = new Subscription[subscriberCount];
+		for (int index = 0; index < subscriberCount; index++)
+			subscriptions[index] = broadcaster.subscribe();
+		
+		// Each reader thread polls its share of the subscribers, the last reader is slow
+		Thread[] readers = new Thread[readerCount];
+		long[] bytesRead = new long[readerCount];
+		for (int reader = 0; reader < readerCount; reader++) {
+			int first = reader;
+			boolean slow = (reader == readerCount - 1) && readerCount > 1;
+			readers[reader] = new Thread(() -> {
+				long[] bytes = new long[1];
+				while (!Thread.currentThread().isInterrupted()) {
+					for (int index = first; index < subscriberCount; index += readerCount)
+						subscriptions[index].poll(frame -> bytes[0] += frame.getPayloadSize(), Integer.MAX_VALUE);
+					
+					if (slow)
+						LockSupport.parkNanos(200_000_000);
+					else
+						subscriptions[first].await(10_000_000);
+				}
+				bytesRead[first] = bytes[0];
+			});
+			readers[reader].start();
+		}
+		
+		MatchContext matchContext = new MatchContext();
+		TurnTracker turnTracker = new TurnTracker(matchContext);
+		turnTracker.setEventListener(broadcaster);
+		
+		long startTime = System.nanoTime();
+		while (turnTracker.playTurn())
+			Thread.sleep(pauseMillis);
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+		
+		Thread.sleep(500);
+		for (Thread reader : readers) {
+			reader.interrupt();
+			reader.join();
+		}
+		
+		long received = 0;
+		long skipped = 0;
+		long bytes = 0;
+		for (Subscription subscription : subscriptions) {
+			received += subscription.getFramesReceived();
+			skipped += subscription.getFramesSkipped();
+		}
+		for (long readerBytes : bytesRead)
+			bytes += readerBytes;
+		
+		System.out.println("Frames published: " + broadcaster.getPublished() + " in " + String.format("%.2f", seconds) + " s");
+		System.out.println("Subscribers: " + subscriberCount + " read by " + readerCount + " threads");
+		System.out.println("Frames received: " + received + ", skipped by slow subscribers: " + skipped);
+		System.out.println("Bytes received: " + bytes);
+	}
+}
@@ -0,0 +1,258 @@
+package application;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import model.AutoPlayerCharacter;
+import model.BinaryFiles;
+import model.Character;
+import model.ExpectimaxEnemy;
+import model.MatchContext;
+import model.PlayerCharacter;
+import model.RandomEnemy;
+
+/**
+ * Saves a match between two turns into a compact binary checkpoint, and restores it.
+ * A checkpoint holds everything needed to carry on the match as if it was never stopped: 
+ * the game mode, the turn, the enemy counters, the seed and state of the random number generator, 
+ * and the full state of both characters. A restored AI match plays out exactly like the original.
+ * 
+ * The format of a checkpoint, all numbers are big-endian:
+ * <pre>
+ * header:    int MAGIC, short VERSION, byte gameMode, int turn, int totalEnemyCount, int randomEnemiesFought,
+ *            long seed, long randomState
+ * character: byte kind (KIND_ constants), then the state written by Character.saveState, for slots 1 and 2
+ * trailer:   int CRC32C of everything before it
+ * </pre>
+ * A checkpoint is saved into a temporary file that is forced to the disk and then renamed over the old checkpoint,
+ * so after a crash the file holds either the old or the new checkpoint, never part of one.
+ * @author Jason Osmond
+ */
+public final class MatchCheckpoint {
+	
+	//====== [CONSTANTS] =======
+	
+	public static final int MAGIC = 0x42424350; // "BBCP"
+	public static final short VERSION = 1;
+	
+	public static final byte KIND_PLAYER = 1;
+	public static final byte KIND_AUTO_PLAYER = 2;
+	public static final byte KIND_RANDOM_ENEMY = 3;
+	public static final byte KIND_EXPECTIMAX_ENEMY = 4;
+	
+	private static final int INITIAL_BUFFER_SIZE = 256;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	private MatchCheckpoint() {
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Writes a checkpoint of a match that is between turns.
+	 * @param turnTracker the match
+	 * @param buffer the buffer to write into
+	 * @throws IllegalStateException if the match is over
+	 * @throws IllegalArgumentException if a character can not be saved
+	 * @throws BufferOverflowException if the buffer is too small
+	 */
+	public static void write(TurnTracker turnTracker, ByteBuffer buffer) {
+		write(turnTracker, turnTracker.getTurn(), buffer);
+	}
+	
+	/**
+	 * Writes a checkpoint of a match.
+	 * @param turnTracker the match
+	 * @param turn the last turn that was played
+	 * @param buffer the buffer to write into
+	 */
+	static void write(TurnTracker turnTracker, int turn, ByteBuffer buffer) {
+		if (turnTracker.isGameOver())
+			throw new IllegalStateException("A match that is over can not be saved");
+		
+		MatchContext matchContext = turnTracker.getMatchContext();
+		int start = buffer.position();
+		
+		buffer.putInt(MAGIC);
+		buffer.putShort(VERSION);
+		buffer.put((byte) turnTracker.getGameMode());
+		buffer.putInt(turn);
+		buffer.putInt(matchContext.getTotalEnemyCount());
+		buffer.putInt(matchContext.getRandomEnemiesFought());
+		buffer.putLong(matchContext.getSeed());
+		buffer.putLong(matchContext.getRandom().getState());
+		
+		writeCharacter(turnTracker.getCharacterOne(), buffer);
+		writeCharacter(turnTracker.getCharacterTwo(), buffer);
+		
+		buffer.putInt(BinaryFiles.checksum(buffer, start, buffer.position()));
+	}
+	
+	/**
+	 * Checks that both characters of a match can be saved in a checkpoint.
+	 * Characters that depend on something outside the match, such as the QTable of a QLearnedEnemy, can not.
+	 * @param turnTracker the match
+	 * @throws IllegalArgumentException if a character can not be saved
+	 */
+	public static void checkSupported(TurnTracker turnTracker) {
+		kindOf(turnTracker.getCharacterOne());
+		kindOf(turnTracker.getCharacterTwo());
+	}
+	
+	/**
+	 * Restores a match from a checkpoint.
+	 * The match carries on from the turn after the checkpoint the next time nextTurn or playTurn is called.
+	 * The TurnTracker prints into the console, like a new one does, and restored PlayerCharacters 
+	 * read from the console until they are given another input.
+	 * @param buffer the checkpoint, from its position
+	 * @return the restored match
+	 * @throws IllegalArgumentException if the buffer does not hold a valid checkpoint
+	 */
+	public static TurnTracker read(ByteBuffer buffer) {
+		int start = buffer.position();
+		
+		if (buffer.remaining() < Integer.BYTES + Short.BYTES || buffer.getInt() != MAGIC)
+			throw new IllegalArgumentException("Not a match checkpoint");
+		
+		short version = buffer.getShort();
+		if (version != VERSION)
+			throw new IllegalArgumentException("Unsupported checkpoint version " + version);
+		
+		try {
+			int gameMode = buffer.get();
+			int turn = buffer.getInt();
+			int totalEnemyCount = buffer.getInt();
+			int randomEnemiesFought = buffer.getInt();
+			long seed = buffer.getLong();
+			long randomState = buffer.getLong();
+			
+			// The characters are created first, since creating an enemy changes the counters and the random state
+			MatchContext matchContext = new MatchContext(seed);
+			Character characterOne = readCharacter(matchContext, buffer);
+			Character characterTwo = readCharacter(matchContext, buffer);
+			
+			if (buffer.getInt(buffer.position()) != BinaryFiles.checksum(buffer, start, buffer.position()))
+				throw new IllegalArgumentException("The checkpoint is corrupted");
+			buffer.position(buffer.position() + Integer.BYTES);
+			
+			TurnTracker turnTracker = new TurnTracker(characterOne, characterTwo, gameMode, matchContext);
+			matchContext.setTurn(turn);
+			matchContext.setTotalEnemyCount(totalEnemyCount);
+			matchContext.setRandomEnemiesFought(randomEnemiesFought);
+			matchContext.getRandom().setState(randomState);
+			
+			return turnTracker;
+		}
+		catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("The checkpoint is cut short", e);
+		}
+	}
+	
+	/**
+	 * Saves a checkpoint of a match that is between turns into a file.
+	 * @param turnTracker the match
+	 * @param path the file of the checkpoint, replaced if it exists
+	 * @throws IOException if the checkpoint could not be written
+	 */
+	public static void save(TurnTracker turnTracker, Path path) throws IOException {
+		BinaryFiles.save(encode(turnTracker, turnTracker.getTurn(), ByteBuffer.allocate(INITIAL_BUFFER_SIZE)), path);
+	}
+	
+	/**
+	 * Restores a match from a checkpoint file.
+	 * @param path the file of the checkpoint
+	 * @return the restored match
+	 * @throws IOException if the file could not be read
+	 * @throws IllegalArgumentException if the file does not hold a valid checkpoint
+	 */
+	public static TurnTracker load(Path path) throws IOException {
+		return read(ByteBuffer.wrap(Files.readAllBytes(path)));
+	}
+	
+	/**
+	 * Writes a checkpoint into a buffer, replacing the buffer with a larger one if it is too small.
+	 * @param turnTracker the match
+	 * @param turn the last turn that was played
+	 * @param buffer the buffer to reuse
+	 * @return the buffer holding the checkpoint, flipped for reading
+	 */
+	static ByteBuffer encode(TurnTracker turnTracker, int turn, ByteBuffer buffer) {
+		while (true) {
+			try {
+				buffer.clear();
+				write(turnTracker, turn, buffer);
+				return buffer.flip();
+			}
+			catch (BufferOverflowException boe) {
+				buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+			}
+		}
+	}
+	
+	/**
+	 * Writes the kind and the state of a character.
+	 * @param character
+	 * @param buffer
+	 * @throws IllegalArgumentException if the character is not of a kind that can be restored
+	 */
+	private static void writeCharacter(Character character, ByteBuffer buffer) {
+		buffer.put(kindOf(character));
+		character.saveState(buffer);
+	}
+	
+	/**
+	 * Creates a character of the kind read from the buffer and restores its state.
+	 * @param matchContext the context of the restored match
+	 * @param buffer
+	 * @return the character
+	 */
+	private static Character readCharacter(MatchContext matchContext, ByteBuffer buffer) {
+		Character character;
+		byte kind = buffer.get();
+		
+		switch (kind) {
+			case KIND_PLAYER:
+				character = new PlayerCharacter();
+				break;
+			case KIND_AUTO_PLAYER:
+				character = new AutoPlayerCharacter(matchContext, 0, 0, 0, 0);
+				break;
+			case KIND_RANDOM_ENEMY:
+				character = new RandomEnemy(matchContext);
+				break;
+			case KIND_EXPECTIMAX_ENEMY:
+				character = new ExpectimaxEnemy(matchContext);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown character kind " + kind);
+		}
+		
+		character.loadState(buffer);
+		return character;
+	}
+	
+	/**
+	 * @param character
+	 * @return the kind of the character
+	 * @throws IllegalArgumentException if the character is not of a kind that can be restored
+	 */
+	private static byte kindOf(Character character) {
+		Class<?> type = character.getClass();
+		
+		if (type == PlayerCharacter.class)
+			return KIND_PLAYER;
+		if (type == AutoPlayerCharacter.class)
+			return KIND_AUTO_PLAYER;
+		if (type == RandomEnemy.class)
+			return KIND_RANDOM_ENEMY;
+		if (type == ExpectimaxEnemy.class)
+			return KIND_EXPECTIMAX_ENEMY;
+		
+		throw new IllegalArgumentException(type.getSimpleName() + " can not be saved in a checkpoint");
+	}
+}
@@ -0,0 +1,112 @@
+package application;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An append-only file of recorded matches.
+ * MatchRecorders append the records of a match in chunks of whole turns while it is played, 
+ * so a run that crashes or is killed still leaves the turns before its last flush in the log.
+ * Many matches can be recorded into the same log at the same time: each chunk is written with one write
+ * and starts with the number of its match, so the chunks of a match can be put back together.
+ * 
+ * The format of a chunk, all numbers are big-endian:
+ * <pre>
+ * chunk: int matchNumber, byte flags (CHUNK_FIRST, CHUNK_LAST), int length, byte[length] records
+ * </pre>
+ * The numbers of the matches start at 0 each time a log is opened, 
+ * so a first chunk starts a new match even if an unfinished match of an earlier run had the same number.
+ * Only one MatchLog can have a file open at a time.
+ * @author Jason Osmond
+ */
+public class MatchLog implements Closeable {
+	
+	//====== [CONSTANTS] =======
+	
+	/** The chunk starts a match. */
+	public static final byte CHUNK_FIRST = 1;
+	
+	/** The chunk ends a match. */
+	public static final byte CHUNK_LAST = 2;
+	
+	public static final int CHUNK_HEADER_SIZE = Integer.BYTES + Byte.BYTES + Integer.BYTES;
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final FileChannel channel;
+	private final AtomicInteger nextMatchNumber = new AtomicInteger();
+	private final ByteBuffer chunkHeader = ByteBuffer.allocate(CHUNK_HEADER_SIZE);
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * Opens a log for appending, creating the file if it does not exist.
+	 * @param path the file of the log
+	 * @throws IOException if the file can not be opened
+	 */
+	public MatchLog(Path path) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Gives a match that is starting its number in this log.
+	 * @return the number of the match
+	 */
+	public int newMatchNumber() {
+		return nextMatchNumber.getAndIncrement();
+	}
+	
+	/**
+	 * Appends a chunk of the records of a match to the end of the log.
+	 * Chunks are appended one at a time, so the records of two chunks are never mixed.
+	 * @param matchNumber the number of the match, from newMatchNumber
+	 * @param flags CHUNK_FIRST and CHUNK_LAST or'd together, or 0 for a chunk in the middle of a match
+	 * @param records the records of the match, from their position to their limit
+	 */
+	public synchronized void append(int matchNumber, int flags, ByteBuffer records) {
+		chunkHeader.clear();
+		chunkHeader.putInt(matchNumber);
+		chunkHeader.put((byte) flags);
+		chunkHeader.putInt(records.remaining());
+		chunkHeader.flip();
+		
+		try {
+			while (chunkHeader.hasRemaining() || records.hasRemaining())
+				channel.write(new ByteBuffer[] {chunkHeader, records});
+		}
+		catch (IOException ioe) {
+			throw new UncheckedIOException("Could not append the match to the log", ioe);
+		}
+	}
+	
+	/**
+	 * Closes the file of the log.
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+	
+	/**
+	 * Maps a log file into memory for reading.
+	 * The chunks are read straight from the file through the mapping, nothing is copied.
+	 * @param path the file of the log
+	 * @return the contents of the log
+	 * @throws IOException if the file can not be read
+	 */
+	public static ByteBuffer read(Path path) throws IOException {
+		try (FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer mapped = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+			return mapped;
+		}
+	}
+}
@@ -0,0 +1,224 @@
+package application;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import model.ActionResult;
+import model.Character;
+import model.EnemyCharacter;
+import model.MatchContext;
+import model.ReplayCharacter;
+
+/**
+ * A GameEventListener that records a match in a compact binary format.
+ * The seed, the starting turn and the starting stats of both characters are recorded first,
+ * then every turn is recorded as the opcode, outcome and amount of both actions.
+ * The records are collected in a buffer and appended to a MatchLog as the match runs: the header as soon 
+ * as the match starts, then whole turns every flushTurns turns or once the buffer holds FLUSH_BYTES bytes, 
+ * and the last turns with the game over record. Recording a turn only costs a few bytes written into the buffer, 
+ * the buffer stays small however long the match runs, and a run that is killed loses at most its last few turns.
+ * The MatchReplayer can rebuild the match exactly from the records, or the turns that were recorded
+ * of a match that never ended.
+ * 
+ * The format of a match, all numbers are big-endian:
+ * <pre>
+ * header:    int MAGIC, short VERSION, byte gameMode, long seed, int turn, int totalEnemyCount, 
+ *            int randomEnemiesFought
+ * spawn:     byte RECORD_SPAWN, byte slot, int level (0 for players), int baseHealth, int currentHealth, 
+ *            int attack, int defense, int search, int toughness, int weakenModifier, 
+ *            int increaseDefenseAmount, short nameLength, byte[] name (UTF-8)
+ * turn:      byte RECORD_TURN, int turn, then for both actions: byte (opcode &lt;&lt; 4 | outcome), int amount
+ * game over: byte RECORD_GAME_OVER, int turn
+ * </pre>
+ * A match starts with the header and a spawn for slots 1 and 2. The turn of the header is 0,
+ * unless the match was restored from a MatchCheckpoint. In game mode 1,
+ * a spawn for slot 2 is recorded between turns each time an enemy is replaced.
+ * @author Jason Osmond
+ */
+public class MatchRecorder implements GameEventListener {
+	
+	//====== [CONSTANTS] =======
+	
+	public static final int MAGIC = 0x4242524C; // "BBRL"
+	public static final short VERSION = 2;
+	
+	public static final byte RECORD_SPAWN = 1;
+	public static final byte RECORD_TURN = 2;
+	public static final byte RECORD_GAME_OVER = 3;
+	
+	/** The turns recorded between appends to the log, unless another number is given. */
+	public static final int DEFAULT_FLUSH_TURNS = 16;
+	
+	/** The records are appended to the log at the end of a turn once the buffer holds this many bytes. */
+	public static final int FLUSH_BYTES = 4096;
+	
+	private static final int INITIAL_BUFFER_SIZE = 2 * FLUSH_BYTES;
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final MatchLog matchLog;
+	private final int flushTurns;
+	private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+	private int matchNumber;
+	private int turnsBuffered;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * Creates a recorder that appends the turns to the log every DEFAULT_FLUSH_TURNS turns.
+	 * @param matchLog the log the match is appended to while it runs
+	 */
+	public MatchRecorder(MatchLog matchLog) {
+		this(matchLog, DEFAULT_FLUSH_TURNS);
+	}
+	
+	/**
+	 * @param matchLog the log the match is appended to while it runs
+	 * @param flushTurns the most turns recorded before they are appended to the log
+	 */
+	public MatchRecorder(MatchLog matchLog, int flushTurns) {
+		if (flushTurns < 1)
+			throw new IllegalArgumentException("The turns between appends must be at least 1");
+		
+		this.matchLog = matchLog;
+		this.flushTurns = flushTurns;
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Records the header and the starting stats of both characters, and appends them to the log straight away.
+	 */
+	@Override
+	public void gameStarted(TurnTracker turnTracker) {
+		MatchContext matchContext = turnTracker.getMatchContext();
+		
+		buffer.clear();
+		buffer.putInt(MAGIC);
+		buffer.putShort(VERSION);
+		buffer.put((byte) turnTracker.getGameMode());
+		buffer.putLong(matchContext.getSeed());
+		buffer.putInt(matchContext.getTurn());
+		buffer.putInt(matchContext.getTotalEnemyCount());
+		buffer.putInt(matchContext.getRandomEnemiesFought());
+		
+		recordSpawn(1, turnTracker.getCharacterOne());
+		recordSpawn(2, turnTracker.getCharacterTwo());
+		
+		matchNumber = matchLog.newMatchNumber();
+		turnsBuffered = 0;
+		flush(MatchLog.CHUNK_FIRST);
+	}
+	
+	/**
+	 * Starts the record of a turn.
+	 */
+	@Override
+	public void turnStarted(int turn, Character characterOne, Character characterTwo) {
+		ensureCapacity(Byte.BYTES + Integer.BYTES);
+		buffer.put(RECORD_TURN);
+		buffer.putInt(turn);
+	}
+	
+	/**
+	 * Adds an action to the record of the turn.
+	 */
+	@Override
+	public void actionResolved(int turn, ActionResult actionResult) {
+		ensureCapacity(Byte.BYTES + Integer.BYTES);
+		buffer.put((byte) (actionResult.getAction().getOpcode() << 4 | actionResult.getOutcome().getCode()));
+		buffer.putInt(actionResult.getAmount());
+	}
+	
+	/**
+	 * Records the stats of the enemy that replaced a slain one.
+	 */
+	@Override
+	public void enemySpawned(int turn, Character enemy) {
+		recordSpawn(2, enemy);
+	}
+	
+	/**
+	 * Appends the turns recorded so far to the log, every flushTurns turns or once the buffer is full.
+	 * The replacement of a slain enemy is recorded before the end of its turn, so a chunk only holds whole turns.
+	 */
+	@Override
+	public void turnEnded(int turn, Character characterOne, Character characterTwo) {
+		turnsBuffered++;
+		
+		if (turnsBuffered >= flushTurns || buffer.position() >= FLUSH_BYTES)
+			flush(0);
+	}
+	
+	/**
+	 * Ends the record and appends the rest of the match to the log.
+	 */
+	@Override
+	public void gameOver(TurnTracker turnTracker) {
+		ensureCapacity(Byte.BYTES + Integer.BYTES);
+		buffer.put(RECORD_GAME_OVER);
+		buffer.putInt(turnTracker.getTurn());
+		
+		flush(MatchLog.CHUNK_LAST);
+	}
+	
+	/**
+	 * Appends the records in the buffer to the log as one chunk, and empties the buffer.
+	 * Nothing is appended if there are no records, such as at the end of the turn the game ended on.
+	 * @param flags the flags of the chunk
+	 */
+	private void flush(int flags) {
+		turnsBuffered = 0;
+		if (buffer.position() == 0)
+			return;
+		
+		buffer.flip();
+		matchLog.append(matchNumber, flags, buffer);
+		buffer.clear();
+	}
+	
+	/**
+	 * Records the current stats of a character.
+	 * @param slot 1 for the character that acts first, 2 for the other
+	 * @param character
+	 */
+	private void recordSpawn(int slot, Character character) {
+		byte[] name = character.getName().getBytes(StandardCharsets.UTF_8);
+		ensureCapacity(2 + 9 * Integer.BYTES + Short.BYTES + name.length);
+		
+		int level = 0;
+		
+		if (character instanceof EnemyCharacter)
+			level = ((EnemyCharacter) character).getLevel();
+		else if (character instanceof ReplayCharacter)
+			level = ((ReplayCharacter) character).getLevel();
+		
+		buffer.put(RECORD_SPAWN);
+		buffer.put((byte) slot);
+		buffer.putInt(level);
+		buffer.putInt(character.getBaseHealth());
+		buffer.putInt(character.getCurrentHealth());
+		buffer.putInt(character.getAttack());
+		buffer.putInt(character.getDefense());
+		buffer.putInt(character.getSearch());
+		buffer.putInt(character.getToughness());
+		buffer.putInt(character.getWeakenModifier());
+		buffer.putInt(character.getIncreaseDefenseAmount());
+		buffer.putShort((short) name.length);
+		buffer.put(name);
+	}
+	
+	/**
+	 * Makes sure the buffer has room for more bytes, doubling its size if it does not.
+	 * @param bytes the number of bytes about to be written
+	 */
+	private void ensureCapacity(int bytes) {
+		if (buffer.remaining() >= bytes)
+			return;
+		
+		ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+		buffer.flip();
+		larger.put(buffer);
+		buffer = larger;
+	}
+}
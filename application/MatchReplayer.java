@@ -0,0 +1,248 @@
+package application;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.MatchContext;
+import model.ReplayCharacter;
+
+/**
+ * Replays a match recorded by a MatchRecorder.
+ * The characters are rebuilt from the recording as ReplayCharacters and the match is ran 
+ * by a normal TurnTracker, so any GameEventListener can be told about the replay 
+ * as if the match was being played again. With a ConsoleEventListener the replay prints
+ * the same text as the original match. A match whose run was killed before it ended
+ * is replayed up to the last turn that reached the log.
+ * @author Jason Osmond
+ */
+public class MatchReplayer implements ReplayCharacter.ActionSource {
+	
+	//====== [CONSTANTS] =======
+	
+	private static final int ACTIONS_PER_TURN = 2;
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final ByteBuffer matchRecord;
+	private int actionsLeftInTurn;
+	private int opcode;
+	private int outcomeCode;
+	private int amount;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * @param matchRecord the records of one match, from its position to its limit
+	 */
+	public MatchReplayer(ByteBuffer matchRecord) {
+		this.matchRecord = matchRecord.slice();
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Replays the match, telling the listener what happens.
+	 * @param eventListener the listener told about the replay
+	 * @return the TurnTracker of the replayed match, once the match is over or its recorded turns ran out
+	 * @throws IllegalStateException if the record is not a match or the replay does not match the record
+	 */
+	public TurnTracker replay(GameEventListener eventListener) {
+		matchRecord.rewind();
+		actionsLeftInTurn = 0;
+		
+		if (matchRecord.getInt() != MatchRecorder.MAGIC)
+			throw new IllegalStateException("The record is not a recorded match");
+		
+		short version = matchRecord.getShort();
+		if (version != MatchRecorder.VERSION)
+			throw new IllegalStateException("Unsupported match record version " + version);
+		
+		int gameMode = matchRecord.get();
+		MatchContext matchContext = new MatchContext(matchRecord.getLong());
+		int startingTurn = matchRecord.getInt();
+		matchContext.setTotalEnemyCount(matchRecord.getInt());
+		matchContext.setRandomEnemiesFought(matchRecord.getInt());
+		
+		ReplayCharacter characterOne = readSpawn(matchContext, 1);
+		ReplayCharacter characterTwo = readSpawn(matchContext, 2);
+		
+		TurnTracker turnTracker = new TurnTracker(characterOne, characterTwo, gameMode, matchContext);
+		turnTracker.setEventListener(eventListener);
+		
+		// A match restored from a checkpoint did not start on turn 0, and the TurnTracker starts every match there
+		matchContext.setTurn(startingTurn);
+		
+		// In game mode 1 the replacement enemies are read from the record instead of being created
+		turnTracker.setEnemySpawner(() -> {
+			matchContext.setTotalEnemyCount(matchContext.getTotalEnemyCount() + 1);
+			matchContext.setRandomEnemiesFought(matchContext.getRandomEnemiesFought() + 1);
+			return readSpawn(matchContext, 2);
+		});
+		
+		// Turns are played while there are records left, a match that never ended runs out of them after a turn
+		while (matchRecord.hasRemaining() && turnTracker.playTurn());
+		
+		if (!turnTracker.isGameOver() && !matchRecord.hasRemaining())
+			return turnTracker;
+		
+		if (!matchRecord.hasRemaining() || matchRecord.get() != MatchRecorder.RECORD_GAME_OVER 
+				|| matchRecord.getInt() != turnTracker.getTurn())
+			throw new IllegalStateException("The replay ended on turn " + turnTracker.getTurn() + 
+					", which does not match the recording");
+		
+		return turnTracker;
+	}
+	
+	/**
+	 * Reads the next action from the record.
+	 * The start of each turn is read before its first action.
+	 */
+	@Override
+	public void readNextAction() {
+		if (actionsLeftInTurn == 0) {
+			if (matchRecord.get() != MatchRecorder.RECORD_TURN)
+				throw new IllegalStateException("Expected the record of a turn");
+			
+			matchRecord.getInt();
+			actionsLeftInTurn = ACTIONS_PER_TURN;
+		}
+		
+		int packed = matchRecord.get() & 0xFF;
+		opcode = packed >>> 4;
+		outcomeCode = packed & 0x0F;
+		amount = matchRecord.getInt();
+		actionsLeftInTurn--;
+	}
+	
+	/**
+	 * Reads a spawn record and rebuilds the character.
+	 * @param matchContext the context of the replayed match
+	 * @param slot the slot the character is expected in
+	 * @return the rebuilt character
+	 */
+	private ReplayCharacter readSpawn(MatchContext matchContext, int slot) {
+		if (matchRecord.get() != MatchRecorder.RECORD_SPAWN || matchRecord.get() != slot)
+			throw new IllegalStateException("Expected the record of character " + slot);
+		
+		int level = matchRecord.getInt();
+		int baseHealth = matchRecord.getInt();
+		int currentHealth = matchRecord.getInt();
+		int attack = matchRecord.getInt();
+		int defense = matchRecord.getInt();
+		int search = matchRecord.getInt();
+		int toughness = matchRecord.getInt();
+		int weakenModifier = matchRecord.getInt();
+		int increaseDefenseAmount = matchRecord.getInt();
+		
+		byte[] name = new byte[matchRecord.getShort()];
+		matchRecord.get(name);
+		
+		return new ReplayCharacter(matchContext, this, new String(name, StandardCharsets.UTF_8), level, 
+				baseHealth, currentHealth, attack, defense, search, toughness, weakenModifier, increaseDefenseAmount);
+	}
+	
+	/**
+	 * Puts the chunks of a log back together into the records of each match.
+	 * A match that was appended in one chunk is a slice of the log, the chunks of a longer match are copied together.
+	 * A chunk cut short at the end of the log, by a run killed while it was appending, is left out.
+	 * @param log the contents of a MatchLog
+	 * @return the records of each match in the log, in the order the matches started, including unfinished ones
+	 * @throws IllegalStateException if the log is not made of chunks of matches
+	 */
+	public static List<ByteBuffer> splitMatches(ByteBuffer log) {
+		List<List<ByteBuffer>> matchChunks = new ArrayList<>();
+		Map<Integer, List<ByteBuffer>> unfinished = new HashMap<>();
+		ByteBuffer reader = log.duplicate();
+		
+		while (reader.remaining() >= MatchLog.CHUNK_HEADER_SIZE) {
+			int start = reader.position();
+			int matchNumber = reader.getInt();
+			int flags = reader.get();
+			int length = reader.getInt();
+			
+			List<ByteBuffer> chunks = ((flags & MatchLog.CHUNK_FIRST) != 0) ? new ArrayList<>() : unfinished.get(matchNumber);
+			if (chunks == null || length < 0 || (flags & ~(MatchLog.CHUNK_FIRST | MatchLog.CHUNK_LAST)) != 0)
+				throw new IllegalStateException("The log is corrupted at byte " + start);
+			
+			if (length > reader.remaining())
+				break;
+			
+			if ((flags & MatchLog.CHUNK_FIRST) != 0) {
+				matchChunks.add(chunks);
+				unfinished.put(matchNumber, chunks);
+			}
+			if ((flags & MatchLog.CHUNK_LAST) != 0)
+				unfinished.remove(matchNumber);
+			
+			chunks.add(log.duplicate().position(reader.position()).limit(reader.position() + length).slice());
+			reader.position(reader.position() + length);
+		}
+		
+		List<ByteBuffer> matches = new ArrayList<>(matchChunks.size());
+		for (List<ByteBuffer> chunks : matchChunks)
+			matches.add(join(chunks));
+		
+		return matches;
+	}
+	
+	/**
+	 * @param chunks the chunks of one match, in order
+	 * @return the records of the match
+	 */
+	private static ByteBuffer join(List<ByteBuffer> chunks) {
+		if (chunks.size() == 1)
+			return chunks.get(0);
+		
+		int length = 0;
+		for (ByteBuffer chunk : chunks)
+			length += chunk.remaining();
+		
+		ByteBuffer joined = ByteBuffer.allocate(length);
+		for (ByteBuffer chunk : chunks)
+			joined.put(chunk.duplicate());
+		
+		return joined.flip();
+	}
+	
+	/**
+	 * Replays every match in a log into the console.
+	 * @param args the path of the log
+	 * @throws IOException if the log can not be read
+	 */
+	public static void main(String[] args) throws IOException {
+		for (ByteBuffer matchRecord : splitMatches(MatchLog.read(Path.of(args[0]))))
+			new MatchReplayer(matchRecord).replay(new ConsoleEventListener());
+	}
+	
+	//====== [GETTER METHODS] ======
+	
+	/**
+	 * @return the opcode of the current action
+	 */
+	@Override
+	public int getOpcode() {
+		return opcode;
+	}
+	
+	/**
+	 * @return the code of the outcome of the current action
+	 */
+	@Override
+	public int getOutcomeCode() {
+		return outcomeCode;
+	}
+	
+	/**
+	 * @return the amount of the current action
+	 */
+	@Override
+	public int getAmount() {
+		return amount;
+	}
+}
@@ -0,0 +1,219 @@
+package application;
+
+import java.util.Objects;
+
+import model.Character;
+import model.EnemyCharacter;
+
+/**
+ * An immutable copy of the state of a match between two turns, for threads watching the match.
+ * Everything in a snapshot was copied on the thread running the match at the same moment,
+ * so a snapshot is always consistent, and it never changes after it is published.
+ * @author Jason Osmond
+ */
+public final class MatchSnapshot {
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final long sequence;
+	private final int turn;
+	private final int gameMode;
+	private final int totalEnemyCount;
+	private final boolean gameOver;
+	private final CharacterSnapshot characterOne;
+	private final CharacterSnapshot characterTwo;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * Copies the state of a match, must be called on the thread running it.
+	 * @param sequence the number of the snapshot, each snapshot of a match has a higher number than the one before
+	 * @param turnTracker the match
+	 * @param characterOne the snapshot of character one, or null to copy it
+	 * @param characterTwo the snapshot of character two, or null to copy it
+	 */
+	MatchSnapshot(long sequence, TurnTracker turnTracker, CharacterSnapshot characterOne, CharacterSnapshot characterTwo) {
+		this.sequence = sequence;
+		this.turn = turnTracker.getTurn();
+		this.gameMode = turnTracker.getGameMode();
+		this.totalEnemyCount = turnTracker.getMatchContext().getTotalEnemyCount();
+		this.gameOver = turnTracker.isGameOver();
+		this.characterOne = (characterOne != null) ? characterOne : new CharacterSnapshot(turnTracker.getCharacterOne());
+		this.characterTwo = (characterTwo != null) ? characterTwo : new CharacterSnapshot(turnTracker.getCharacterTwo());
+	}
+	
+	//====== [METHODS] ======
+	
+	@Override
+	public String toString() {
+		return "Turn " + turn + (gameOver ? " (game over)" : "") + ": " + characterOne + " vs " + characterTwo;
+	}
+	
+	//====== [GETTER METHODS] ======
+	
+	/**
+	 * @return the sequence, higher for each newer snapshot of the match
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+	
+	/**
+	 * @return the last turn played
+	 */
+	public int getTurn() {
+		return turn;
+	}
+	
+	/**
+	 * @return the gameMode
+	 */
+	public int getGameMode() {
+		return gameMode;
+	}
+	
+	/**
+	 * @return the totalEnemyCount of the match
+	 */
+	public int getTotalEnemyCount() {
+		return totalEnemyCount;
+	}
+	
+	/**
+	 * @return true if the game is over
+	 */
+	public boolean isGameOver() {
+		return gameOver;
+	}
+	
+	/**
+	 * @return the characterOne
+	 */
+	public CharacterSnapshot getCharacterOne() {
+		return characterOne;
+	}
+	
+	/**
+	 * @return the characterTwo
+	 */
+	public CharacterSnapshot getCharacterTwo() {
+		return characterTwo;
+	}
+	
+	/**
+	 * An immutable copy of the stats of a character.
+	 */
+	public static final class CharacterSnapshot {
+		
+		private final String name;
+		private final int level;
+		private final int baseHealth;
+		private final int currentHealth;
+		private final int attack;
+		private final int defense;
+		private final int search;
+		private final int toughness;
+		private final int weakenModifier;
+		
+		/**
+		 * Copies the stats of a character.
+		 * @param character
+		 */
+		CharacterSnapshot(Character character) {
+			name = character.getName();
+			level = (character instanceof EnemyCharacter) ? ((EnemyCharacter) character).getLevel() : 0;
+			baseHealth = character.getBaseHealth();
+			currentHealth = character.getCurrentHealth();
+			attack = character.getAttack();
+			defense = character.getDefense();
+			search = character.getSearch();
+			toughness = character.getToughness();
+			weakenModifier = character.getWeakenModifier();
+		}
+		
+		/**
+		 * Checks if this snapshot still matches a character, so it can be reused instead of copying the character again.
+		 * @param character
+		 * @return true if the character has the stats of this snapshot
+		 */
+		boolean matches(Character character) {
+			return Objects.equals(name, character.getName())
+					&& currentHealth == character.getCurrentHealth()
+					&& attack == character.getAttack()
+					&& defense == character.getDefense()
+					&& search == character.getSearch()
+					&& weakenModifier == character.getWeakenModifier()
+					&& baseHealth == character.getBaseHealth()
+					&& toughness == character.getToughness()
+					&& level == ((character instanceof EnemyCharacter) ? ((EnemyCharacter) character).getLevel() : 0);
+		}
+		
+		@Override
+		public String toString() {
+			return name + " (Health: " + currentHealth + " | Attack: " + attack + " | Defense: " + defense + " | Search: " + search + ")";
+		}
+		
+		/**
+		 * @return the name
+		 */
+		public String getName() {
+			return name;
+		}
+		
+		/**
+		 * @return the level of an enemy, 0 for a player
+		 */
+		public int getLevel() {
+			return level;
+		}
+		
+		/**
+		 * @return the baseHealth
+		 */
+		public int getBaseHealth() {
+			return baseHealth;
+		}
+		
+		/**
+		 * @return the currentHealth
+		 */
+		public int getCurrentHealth() {
+			return currentHealth;
+		}
+		
+		/**
+		 * @return the attack
+		 */
+		public int getAttack() {
+			return attack;
+		}
+		
+		/**
+		 * @return the defense
+		 */
+		public int getDefense() {
+			return defense;
+		}
+		
+		/**
+		 * @return the search
+		 */
+		public int getSearch() {
+			return search;
+		}
+		
+		/**
+		 * @return the toughness
+		 */
+		public int getToughness() {
+			return toughness;
+		}
+		
+		/**
+		 * @return the weakenModifier
+		 */
+		public int getWeakenModifier() {
+			return weakenModifier;
+		}
+	}
+}
@@ -0,0 +1,186 @@
+package application;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import model.Action;
+import model.ActionOutcome;
+import model.ActionResult;
+import model.Character;
+import model.EnemyCharacter;
+
+/**
+ * A GameEventListener that records gameplay metrics into a MetricsRegistry.
+ * 
+ * The metrics recorded are:
+ * <ul>
+ * <li>attack.damage: the damage dealt by each attack, after block</li>
+ * <li>actions.[character type].[action]: how often each kind of character takes each action</li>
+ * <li>search.[outcome]: how often each search outcome is found</li>
+ * <li>turnsToKill.level_[from]-[to]: the turns each enemy survived, grouped by level</li>
+ * <li>run.enemiesSlain and run.turns: the enemies slain and turns played in each game</li>
+ * <li>games: the number of games played</li>
+ * </ul>
+ * 
+ * A listener keeps track of the game it is listening to, so each game needs its own listener,
+ * but any number of listeners can share a registry. The metrics a listener updates are looked up 
+ * once and kept, so a turn only costs a few LongAdder updates.
+ * @author Jason Osmond
+ */
+public class MetricsListener implements GameEventListener {
+	
+	//====== [CONSTANTS] =======
+	
+	private static final long[] DAMAGE_BUCKETS = {1, 2, 3, 4, 5, 6, 8, 10, 12, 16, 20, 25, 32, 50, 64, 100, 128, 256, 512, 1024};
+	private static final long[] TURN_BUCKETS = {1, 2, 3, 4, 5, 6, 8, 10, 12, 16, 20, 25, 32, 50, 64, 100, 128, 256, 512, 1024, 4096};
+	private static final long[] COUNT_BUCKETS = {0, 1, 2, 3, 4, 5, 10, 20, 50, 100, 200, 500, 1000, 10000};
+	
+	/** Levels are grouped by powers of 2, group g holds the levels 2^(g-1) to 2^g - 1. */
+	private static final int LEVEL_GROUPS = 32;
+	
+	private static final Action[] ACTIONS = Action.values();
+	private static final ActionOutcome[] OUTCOMES = ActionOutcome.values();
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final MetricsRegistry registry;
+	private final Histogram attackDamage;
+	private final Histogram enemiesSlainPerRun;
+	private final Histogram turnsPerRun;
+	private final LongAdder games;
+	private final LongAdder[] searchOutcomes = new LongAdder[OUTCOMES.length];
+	private final Histogram[] turnsToKill = new Histogram[LEVEL_GROUPS];
+	
+	// The action counters of the last two character types seen, one for each side
+	private Class<?> typeOne;
+	private LongAdder[] actionsOne;
+	private Class<?> typeTwo;
+	private LongAdder[] actionsTwo;
+	
+	// The game being listened to
+	private Character characterOne;
+	private int spawnTurnOne;
+	private int spawnTurnTwo;
+	private int enemiesSlain;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * @param registry the registry the metrics are recorded into
+	 */
+	public MetricsListener(MetricsRegistry registry) {
+		this.registry = registry;
+		attackDamage = registry.histogram("attack.damage", DAMAGE_BUCKETS);
+		enemiesSlainPerRun = registry.histogram("run.enemiesSlain", COUNT_BUCKETS);
+		turnsPerRun = registry.histogram("run.turns", TURN_BUCKETS);
+		games = registry.counter("games");
+	}
+	
+	//====== [METHODS] ======
+	
+	@Override
+	public void gameStarted(TurnTracker turnTracker) {
+		characterOne = turnTracker.getCharacterOne();
+		spawnTurnOne = turnTracker.getTurn();
+		spawnTurnTwo = turnTracker.getTurn();
+		enemiesSlain = 0;
+	}
+	
+	@Override
+	public void actionResolved(int turn, ActionResult actionResult) {
+		actionCounters(actionResult.getActor())[actionResult.getAction().ordinal()].increment();
+		
+		ActionOutcome outcome = actionResult.getOutcome();
+		if (outcome == ActionOutcome.DAMAGE)
+			attackDamage.record(actionResult.getAmount());
+		else if (actionResult.getAction() == Action.SEARCH)
+			searchOutcome(outcome).increment();
+	}
+	
+	@Override
+	public void characterSlain(int turn, Character slain, Character slayer, boolean gameOver) {
+		if (!(slain instanceof EnemyCharacter))
+			return;
+		
+		enemiesSlain++;
+		
+		int spawnTurn = (slain == characterOne) ? spawnTurnOne : spawnTurnTwo;
+		turnsToKill(((EnemyCharacter) slain).getLevel()).record(turn - spawnTurn);
+	}
+	
+	@Override
+	public void enemySpawned(int turn, Character enemy) {
+		spawnTurnTwo = turn;
+	}
+	
+	@Override
+	public void gameOver(TurnTracker turnTracker) {
+		enemiesSlainPerRun.record(enemiesSlain);
+		turnsPerRun.record(turnTracker.getTurn());
+		games.increment();
+	}
+	
+	/**
+	 * Gets the action counters of a kind of character.
+	 * The counters of the last type seen on each side are kept, 
+	 * so they are only looked up in the registry when a new kind of character acts.
+	 * @param actor the character that acted
+	 * @return a counter for each action, indexed by opcode
+	 */
+	private LongAdder[] actionCounters(Character actor) {
+		Class<?> type = actor.getClass();
+		boolean sideOne = (actor == characterOne);
+		
+		if (sideOne && type == typeOne)
+			return actionsOne;
+		if (!sideOne && type == typeTwo)
+			return actionsTwo;
+		
+		LongAdder[] counters = new LongAdder[ACTIONS.length];
+		for (Action action : ACTIONS)
+			counters[action.ordinal()] = registry.counter("actions." + type.getSimpleName() + "." + action.getCommand());
+		
+		if (sideOne) {
+			typeOne = type;
+			actionsOne = counters;
+		}
+		else {
+			typeTwo = type;
+			actionsTwo = counters;
+		}
+		
+		return counters;
+	}
+	
+	/**
+	 * @param outcome
+	 * @return the counter of a search outcome
+	 */
+	private LongAdder searchOutcome(ActionOutcome outcome) {
+		LongAdder counter = searchOutcomes[outcome.ordinal()];
+		
+		if (counter == null) {
+			counter = registry.counter("search." + outcome.name().toLowerCase());
+			searchOutcomes[outcome.ordinal()] = counter;
+		}
+		
+		return counter;
+	}
+	
+	/**
+	 * @param level the level of the slain enemy
+	 * @return the turns to kill histogram of the level's group
+	 */
+	private Histogram turnsToKill(int level) {
+		int group = 32 - Integer.numberOfLeadingZeros(Math.max(level, 1));
+		Histogram histogram = turnsToKill[group];
+		
+		if (histogram == null) {
+			long from = 1L << (group - 1);
+			long to = (1L << group) - 1;
+			histogram = registry.histogram("turnsToKill.level_" + from + "-" + to, TURN_BUCKETS);
+			turnsToKill[group] = histogram;
+		}
+		
+		return histogram;
+	}
+}
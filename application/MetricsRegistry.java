@@ -0,0 +1,67 @@
+package application;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds named counters and histograms that games update while they run.
+ * Counters are LongAdders and histograms have fixed buckets of LongAdders,
+ * so many games running in parallel can share one registry without slowing each other down.
+ * A metric is created the first time it is asked for, callers on a hot path should
+ * keep the returned counter or histogram instead of looking it up by name every time.
+ * @author Jason Osmond
+ */
+public class MetricsRegistry {
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Gets a counter, creating it if it does not exist.
+	 * @param name the name of the counter
+	 * @return the counter
+	 */
+	public LongAdder counter(String name) {
+		return counters.computeIfAbsent(name, key -> new LongAdder());
+	}
+	
+	/**
+	 * Gets a histogram, creating it with the given buckets if it does not exist.
+	 * If the histogram already exists, its buckets are not changed.
+	 * @param name the name of the histogram
+	 * @param upperBounds the upper bounds of the buckets, used if the histogram is created
+	 * @return the histogram
+	 */
+	public Histogram histogram(String name, long... upperBounds) {
+		return histograms.computeIfAbsent(name, key -> new Histogram(upperBounds));
+	}
+	
+	/**
+	 * Takes a copy of every metric, sorted by name.
+	 * Games can keep running while the copy is taken.
+	 * @return the copy
+	 */
+	public MetricsSnapshot snapshot() {
+		Map<String, Long> counterValues = new TreeMap<>();
+		counters.forEach((name, counter) -> counterValues.put(name, counter.sum()));
+		
+		Map<String, Histogram.Snapshot> histogramValues = new TreeMap<>();
+		histograms.forEach((name, histogram) -> histogramValues.put(name, histogram.snapshot()));
+		
+		return new MetricsSnapshot(System.currentTimeMillis(), counterValues, histogramValues);
+	}
+	
+	/**
+	 * Sets every metric back to 0, keeping the metrics themselves.
+	 */
+	public void reset() {
+		counters.values().forEach(LongAdder::reset);
+		histograms.values().forEach(Histogram::reset);
+	}
+}
@@ -0,0 +1,145 @@
+package application;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A copy of every metric of a MetricsRegistry at one point in time,
+ * which can be exported as JSON or CSV.
+ * @author Jason Osmond
+ */
+public class MetricsSnapshot {
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final long timestampMillis;
+	private final Map<String, Long> counters;
+	private final Map<String, Histogram.Snapshot> histograms;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * @param timestampMillis when the snapshot was taken
+	 * @param counters the value of each counter, by name
+	 * @param histograms the copy of each histogram, by name
+	 */
+	public MetricsSnapshot(long timestampMillis, Map<String, Long> counters, Map<String, Histogram.Snapshot> histograms) {
+		this.timestampMillis = timestampMillis;
+		this.counters = Collections.unmodifiableMap(counters);
+		this.histograms = Collections.unmodifiableMap(histograms);
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Exports the metrics as a JSON object.
+	 * Each histogram has its buckets as a list of upper bounds ("le", null for the last bucket) and counts.
+	 * The count of a bucket only holds the values above the upper bound of the bucket before it, the counts are not cumulative.
+	 * @return the JSON text
+	 */
+	public String toJson() {
+		StringBuilder json = new StringBuilder();
+		json.append("{\n  \"timestamp\": ").append(timestampMillis).append(",\n  \"counters\": {");
+		
+		String separator = "\n";
+		for (Map.Entry<String, Long> counter : counters.entrySet()) {
+			json.append(separator).append("    ").append(quote(counter.getKey())).append(": ").append(counter.getValue());
+			separator = ",\n";
+		}
+		
+		json.append("\n  },\n  \"histograms\": {");
+		
+		separator = "\n";
+		for (Map.Entry<String, Histogram.Snapshot> entry : histograms.entrySet()) {
+			Histogram.Snapshot histogram = entry.getValue();
+			
+			json.append(separator).append("    ").append(quote(entry.getKey())).append(": {")
+				.append("\"count\": ").append(histogram.getCount())
+				.append(", \"sum\": ").append(histogram.getSum())
+				.append(", \"min\": ").append(histogram.getMin())
+				.append(", \"max\": ").append(histogram.getMax())
+				.append(", \"mean\": ").append(histogram.getMean())
+				.append(", \"buckets\": [");
+			
+			long[] upperBounds = histogram.getUpperBounds();
+			long[] counts = histogram.getCounts();
+			for (int bucket = 0; bucket < counts.length; bucket++) {
+				if (bucket > 0)
+					json.append(", ");
+				json.append("{\"le\": ").append(bucket < upperBounds.length ? String.valueOf(upperBounds[bucket]) : "null")
+					.append(", \"count\": ").append(counts[bucket]).append("}");
+			}
+			
+			json.append("]}");
+			separator = ",\n";
+		}
+		
+		json.append("\n  }\n}\n");
+		return json.toString();
+	}
+	
+	/**
+	 * Exports the metrics as CSV, one value per row.
+	 * The columns are: type, name, field, value. 
+	 * Counters have a single "value" row, histograms have a row for count, sum, min, max, mean
+	 * and one "le_[upper bound]" row for each bucket, "le_inf" for the last bucket.
+	 * @return the CSV text
+	 */
+	public String toCsv() {
+		StringBuilder csv = new StringBuilder("type,name,field,value\n");
+		
+		for (Map.Entry<String, Long> counter : counters.entrySet())
+			csv.append("counter,").append(counter.getKey()).append(",value,").append(counter.getValue()).append("\n");
+		
+		for (Map.Entry<String, Histogram.Snapshot> entry : histograms.entrySet()) {
+			Histogram.Snapshot histogram = entry.getValue();
+			String prefix = "histogram," + entry.getKey() + ",";
+			
+			csv.append(prefix).append("count,").append(histogram.getCount()).append("\n");
+			csv.append(prefix).append("sum,").append(histogram.getSum()).append("\n");
+			csv.append(prefix).append("min,").append(histogram.getMin()).append("\n");
+			csv.append(prefix).append("max,").append(histogram.getMax()).append("\n");
+			csv.append(prefix).append("mean,").append(histogram.getMean()).append("\n");
+			
+			long[] upperBounds = histogram.getUpperBounds();
+			long[] counts = histogram.getCounts();
+			for (int bucket = 0; bucket < counts.length; bucket++)
+				csv.append(prefix).append("le_").append(bucket < upperBounds.length ? String.valueOf(upperBounds[bucket]) : "inf")
+					.append(",").append(counts[bucket]).append("\n");
+		}
+		
+		return csv.toString();
+	}
+	
+	/**
+	 * Puts a name in quotes for JSON, escaping quotes and backslashes.
+	 * @param name
+	 * @return the quoted name
+	 */
+	private static String quote(String name) {
+		return "\"" + name.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+	
+	//====== [GETTER METHODS] ======
+	
+	/**
+	 * @return when the snapshot was taken, in milliseconds since the epoch
+	 */
+	public long getTimestampMillis() {
+		return timestampMillis;
+	}
+	
+	/**
+	 * @return the value of each counter, by name
+	 */
+	public Map<String, Long> getCounters() {
+		return counters;
+	}
+	
+	/**
+	 * @return the copy of each histogram, by name
+	 */
+	public Map<String, Histogram.Snapshot> getHistograms() {
+		return histograms;
+	}
+}
@@ -0,0 +1,14 @@
+package application;
+
+/**
+ * A GameEventListener that ignores every event.
+ * Used by headless games, so nothing is formatted or printed.
+ * @author Jason Osmond
+ */
+public class NoOpEventListener implements GameEventListener {
+	
+	//====== [CONSTANTS] =======
+	
+	/** The listener has no state, so one instance can be shared by every game. */
+	public static final NoOpEventListener INSTANCE = new NoOpEventListener();
+}
@@ -0,0 +1,124 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.AutoPlayerCharacter;
+import model.CombatRules;
+import model.MatchContext;
+import model.PlayerCharacter;
+
+/**
+ * One way a player can spend their stat points when creating a character.
+ * Points in attack and defense are worth 3, points in search and toughness are worth 1,
+ * the same as in the character creation of the TextApplication.
+ * @author Jason Osmond
+ */
+public class PlayerBuild {
+	
+	//====== [CONSTANTS] =======
+	
+	public static final int ATTACK_PER_POINT = 3;
+	public static final int DEFENSE_PER_POINT = 3;
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final int[] points;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * @param attackPoints
+	 * @param defensePoints
+	 * @param searchPoints
+	 * @param toughnessPoints
+	 */
+	public PlayerBuild(int attackPoints, int defensePoints, int searchPoints, int toughnessPoints) {
+		points = new int[CombatRules.POINT_TYPES];
+		points[CombatRules.POINT_ATTACK] = attackPoints;
+		points[CombatRules.POINT_DEFENSE] = defensePoints;
+		points[CombatRules.POINT_SEARCH] = searchPoints;
+		points[CombatRules.POINT_TOUGHNESS] = toughnessPoints;
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Lists every way to spend exactly the given number of points.
+	 * For the 12 points of a PlayerCharacter there are 455 builds.
+	 * @param pointsAvailable the points to spend
+	 * @return every build
+	 */
+	public static List<PlayerBuild> allBuilds(int pointsAvailable) {
+		List<PlayerBuild> builds = new ArrayList<>();
+		
+		for (int attack = 0; attack <= pointsAvailable; attack++)
+			for (int defense = 0; defense <= pointsAvailable - attack; defense++)
+				for (int search = 0; search <= pointsAvailable - attack - defense; search++)
+					builds.add(new PlayerBuild(attack, defense, search, pointsAvailable - attack - defense - search));
+		
+		return builds;
+	}
+	
+	/**
+	 * Lists every way to spend the points of a PlayerCharacter.
+	 * @return every build
+	 */
+	public static List<PlayerBuild> allBuilds() {
+		return allBuilds(PlayerCharacter.DEFAULT_POINTS_AVAILABLE);
+	}
+	
+	/**
+	 * Creates a character with this build that takes its own actions.
+	 * @param matchContext the context of the match the character is in
+	 * @return the character
+	 */
+	public AutoPlayerCharacter createCharacter(MatchContext matchContext) {
+		AutoPlayerCharacter character = new AutoPlayerCharacter(matchContext,
+				getAttackPoints() * ATTACK_PER_POINT,
+				getDefensePoints() * DEFENSE_PER_POINT,
+				getSearchPoints(),
+				getToughnessPoints());
+		character.setName("Build " + this);
+		
+		return character;
+	}
+	
+	/**
+	 * @return the points as attack/defense/search/toughness
+	 */
+	@Override
+	public String toString() {
+		return getAttackPoints() + "/" + getDefensePoints() + "/" + getSearchPoints() + "/" + getToughnessPoints();
+	}
+	
+	//====== [GETTER METHODS] ======
+	
+	/**
+	 * @return the attackPoints
+	 */
+	public int getAttackPoints() {
+		return points[CombatRules.POINT_ATTACK];
+	}
+	
+	/**
+	 * @return the defensePoints
+	 */
+	public int getDefensePoints() {
+		return points[CombatRules.POINT_DEFENSE];
+	}
+	
+	/**
+	 * @return the searchPoints
+	 */
+	public int getSearchPoints() {
+		return points[CombatRules.POINT_SEARCH];
+	}
+	
+	/**
+	 * @return the toughnessPoints
+	 */
+	public int getToughnessPoints() {
+		return points[CombatRules.POINT_TOUGHNESS];
+	}
+}
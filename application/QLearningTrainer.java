@@ -0,0 +1,284 @@
+package application;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import model.Character;
+import model.MatchContext;
+import model.MatchRandom;
+import model.QLearnedEnemy;
+import model.QTable;
+import model.RandomEnemy;
+
+/**
+ * The QLearningTrainer teaches a QTable by self-play: two QLearnedEnemies that share the table
+ * fight headless AI versus AI matches (game mode 3), and each learns from its own actions.
+ * The episodes are split into tasks on a fork/join pool, the same way the BatchSimulator splits its matches, 
+ * and every thread updates the one table without locks.
+ * The seed of each episode is derived from the seed of the training and the index of the episode.
+ * @author Jason Osmond
+ */
+public class QLearningTrainer {
+	
+	//====== [CONSTANTS] =======
+	
+	/**
+	 * The number of episodes a task runs on its own before it is split no further.
+	 */
+	public static final int EPISODES_PER_TASK = 256;
+	
+	public static final float DEFAULT_LEARNING_RATE = 0.05f;
+	public static final float DEFAULT_DISCOUNT = 0.95f;
+	public static final float DEFAULT_EXPLORATION = 0.1f;
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final QTable table;
+	private final ForkJoinPool pool;
+	private float learningRate = DEFAULT_LEARNING_RATE;
+	private float discount = DEFAULT_DISCOUNT;
+	private float exploration = DEFAULT_EXPLORATION;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * Creates a trainer that runs its episodes on the common fork/join pool,
+	 * which has one thread for every core.
+	 * @param table the table to teach
+	 */
+	public QLearningTrainer(QTable table) {
+		this(table, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Creates a trainer that runs its episodes on the given pool.
+	 * @param table the table to teach
+	 * @param pool the pool that runs the episodes
+	 */
+	public QLearningTrainer(QTable table, ForkJoinPool pool) {
+		this.table = table;
+		this.pool = pool;
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Runs self-play episodes, learning from every one of them.
+	 * Blocks until all the episodes are over.
+	 * @param episodeCount the number of episodes to run
+	 * @param seed the seed of the training
+	 * @return the combined result of the episodes
+	 */
+	public BatchResult train(int episodeCount, long seed) {
+		long startTime = System.nanoTime();
+		
+		BatchResult result = pool.invoke(new EpisodeTask(this, seed, 0, episodeCount, true, true));
+		
+		return result.withElapsedNanos(System.nanoTime() - startTime);
+	}
+	
+	/**
+	 * Runs matches of a QLearnedEnemy that does not learn against a RandomEnemy.
+	 * Blocks until all the matches are over.
+	 * @param matchCount the number of matches to run
+	 * @param seed the seed of the matches
+	 * @param learnerFirst true if the QLearnedEnemy is character one, false if it is character two
+	 * @return the combined result of the matches
+	 */
+	public BatchResult evaluate(int matchCount, long seed, boolean learnerFirst) {
+		long startTime = System.nanoTime();
+		
+		BatchResult result = pool.invoke(new EpisodeTask(this, seed, 0, matchCount, false, learnerFirst));
+		
+		return result.withElapsedNanos(System.nanoTime() - startTime);
+	}
+	
+	/**
+	 * A task that runs a range of episodes.
+	 * If the range is bigger than EPISODES_PER_TASK, the range is split in half 
+	 * and each half is ran as its own task.
+	 */
+	private static class EpisodeTask extends RecursiveTask<BatchResult> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final QLearningTrainer trainer;
+		private final long seed;
+		private final int from;
+		private final int to;
+		private final boolean training;
+		private final boolean learnerFirst;
+		
+		/**
+		 * @param trainer the trainer, holding the table and how it learns
+		 * @param seed the seed of the training
+		 * @param from the first episode of the range
+		 * @param to the episode after the last episode of the range
+		 * @param training true for self-play that learns, false to play a RandomEnemy without learning
+		 * @param learnerFirst true if the QLearnedEnemy is character one when playing a RandomEnemy
+		 */
+		EpisodeTask(QLearningTrainer trainer, long seed, int from, int to, boolean training, boolean learnerFirst) {
+			this.trainer = trainer;
+			this.seed = seed;
+			this.from = from;
+			this.to = to;
+			this.training = training;
+			this.learnerFirst = learnerFirst;
+		}
+		
+		@Override
+		protected BatchResult compute() {
+			if (to - from <= EPISODES_PER_TASK)
+				return runEpisodes();
+			
+			int middle = (from + to) >>> 1;
+			EpisodeTask firstHalf = new EpisodeTask(trainer, seed, from, middle, training, learnerFirst);
+			EpisodeTask secondHalf = new EpisodeTask(trainer, seed, middle, to, training, learnerFirst);
+			
+			firstHalf.fork();
+			BatchResult secondResult = secondHalf.compute();
+			
+			return firstHalf.join().combine(secondResult);
+		}
+		
+		/**
+		 * Runs the episodes of the range one after the other, counting the results.
+		 * @return the combined result of the episodes
+		 */
+		private BatchResult runEpisodes() {
+			int characterOneWins = 0;
+			int characterTwoWins = 0;
+			int draws = 0;
+			long totalTurns = 0;
+			int minTurns = Integer.MAX_VALUE;
+			int maxTurns = 0;
+			
+			for (int index = from; index < to; index++) {
+				MatchContext matchContext = new MatchContext(MatchRandom.deriveSeed(seed, index));
+				Character characterOne;
+				Character characterTwo;
+				
+				if (training) {
+					characterOne = trainer.createLearner(matchContext);
+					characterTwo = trainer.createLearner(matchContext);
+				}
+				else if (learnerFirst) {
+					characterOne = new QLearnedEnemy(matchContext, trainer.table);
+					characterTwo = new RandomEnemy(matchContext);
+				}
+				else {
+					characterOne = new RandomEnemy(matchContext);
+					characterTwo = new QLearnedEnemy(matchContext, trainer.table);
+				}
+				
+				TurnTracker turnTracker = new TurnTracker(characterOne, characterTwo, 3, matchContext);
+				turnTracker.setEventListener(NoOpEventListener.INSTANCE);
+				turnTracker.nextTurn();
+				
+				boolean characterOneAlive = characterOne.getCurrentHealth() > 0;
+				boolean characterTwoAlive = characterTwo.getCurrentHealth() > 0;
+				
+				if (characterOneAlive)
+					characterOneWins++;
+				else if (characterTwoAlive)
+					characterTwoWins++;
+				else
+					draws++;
+				
+				if (training) {
+					((QLearnedEnemy) characterOne).endEpisode(reward(characterOneAlive, characterTwoAlive));
+					((QLearnedEnemy) characterTwo).endEpisode(reward(characterTwoAlive, characterOneAlive));
+				}
+				
+				int turns = turnTracker.getTurn();
+				totalTurns += turns;
+				minTurns = Math.min(minTurns, turns);
+				maxTurns = Math.max(maxTurns, turns);
+			}
+			
+			return new BatchResult(to - from, characterOneWins, characterTwoWins, draws,
+					totalTurns, minTurns, maxTurns, 0);
+		}
+		
+		/**
+		 * @param alive true if the character is alive at the end of the episode
+		 * @param opponentAlive true if its opponent is alive
+		 * @return 1 for a win, -1 for a loss and 0 for a draw
+		 */
+		private static float reward(boolean alive, boolean opponentAlive) {
+			if (alive == opponentAlive)
+				return 0;
+			
+			return alive ? 1 : -1;
+		}
+	}
+	
+	/**
+	 * @param matchContext the context of the episode
+	 * @return a QLearnedEnemy that learns into the table of this trainer
+	 */
+	private QLearnedEnemy createLearner(MatchContext matchContext) {
+		QLearnedEnemy learner = new QLearnedEnemy(matchContext, table);
+		learner.startLearning(learningRate, discount, exploration);
+		return learner;
+	}
+	
+	//====== [GETTER AND SETTER METHODS] ======
+	
+	/**
+	 * @return the table taught by this trainer
+	 */
+	public QTable getTable() {
+		return table;
+	}
+	
+	/**
+	 * @param learningRate how far a value moves towards its target each update, from 0 to 1
+	 */
+	public void setLearningRate(float learningRate) {
+		this.learningRate = learningRate;
+	}
+	
+	/**
+	 * @param discount how much the value of the next state counts, from 0 to 1
+	 */
+	public void setDiscount(float discount) {
+		this.discount = discount;
+	}
+	
+	/**
+	 * @param exploration the chance a learner takes a random action, from 0 to 1
+	 */
+	public void setExploration(float exploration) {
+		this.exploration = exploration;
+	}
+	
+	/**
+	 * Trains a table by self-play, saves it and prints how well it does against a RandomEnemy.
+	 * @param args the number of episodes, 1000000 if not given, the file to save the table into, 
+	 * "policy.qtable" if not given, and the seed, random if not given
+	 * @throws IOException if the table could not be saved
+	 */
+	public static void main(String[] args) throws IOException {
+		int episodeCount = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+		Path path = Paths.get((args.length > 1) ? args[1] : "policy.qtable");
+		long seed = (args.length > 2) ? Long.parseLong(args[2]) : MatchRandom.newSeed();
+		
+		QLearningTrainer trainer = new QLearningTrainer(new QTable());
+		
+		BatchResult training = trainer.train(episodeCount, seed);
+		System.out.println("Self-play:\n" + training);
+		System.out.println("Values learned: " + trainer.getTable().getVisitedCount() 
+				+ " of " + (QTable.STATE_COUNT * QTable.ACTION_COUNT));
+		
+		trainer.getTable().save(path);
+		System.out.println("Saved to " + path);
+		
+		long evaluationSeed = MatchRandom.deriveSeed(seed, -1);
+		System.out.println("As character one against a RandomEnemy:\n" + trainer.evaluate(100_000, evaluationSeed, true));
+		System.out.println("As character two against a RandomEnemy:\n" + trainer.evaluate(100_000, evaluationSeed, false));
+	}
+}
@@ -0,0 +1,80 @@
+package application;
+
+import model.Character;
+
+/**
+ * A GameEventListener that publishes a MatchSnapshot of its match after every turn, for other threads to watch.
+ * 
+ * The latest snapshot is kept in a volatile field. The thread running the match only replaces the reference,
+ * and a watching thread only reads it, so neither ever waits for the other and no one sees half a turn.
+ * A character whose stats did not change during the turn keeps its snapshot from the turn before, 
+ * so a turn usually costs one or two small objects.
+ * Any number of threads can watch the same feed, dashboards, spectators or a win probability display, 
+ * each reading getLatest as often as it wants.
+ * @author Jason Osmond
+ */
+public class SpectatorFeed implements GameEventListener {
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private volatile MatchSnapshot latest;
+	private TurnTracker turnTracker;
+	private long sequence;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * Creates a feed for a match that has not started yet, the first snapshot is published when it starts.
+	 */
+	public SpectatorFeed() {
+	}
+	
+	/**
+	 * Creates a feed for a match that is already running, such as one restored from a checkpoint,
+	 * and publishes its current state.
+	 * @param turnTracker the match
+	 */
+	public SpectatorFeed(TurnTracker turnTracker) {
+		gameStarted(turnTracker);
+	}
+	
+	//====== [METHODS] ======
+	
+	@Override
+	public void gameStarted(TurnTracker turnTracker) {
+		this.turnTracker = turnTracker;
+		publish(null, null);
+	}
+	
+	@Override
+	public void turnEnded(int turn, Character characterOne, Character characterTwo) {
+		MatchSnapshot previous = latest;
+		
+		// Attached to a match that was already running without being given it
+		if (previous == null)
+			return;
+		
+		publish(
+				previous.getCharacterOne().matches(characterOne) ? previous.getCharacterOne() : null,
+				previous.getCharacterTwo().matches(characterTwo) ? previous.getCharacterTwo() : null);
+	}
+	
+	/**
+	 * Publishes a snapshot of the match.
+	 * @param characterOne the snapshot of character one, or null to copy it
+	 * @param characterTwo the snapshot of character two, or null to copy it
+	 */
+	private void publish(MatchSnapshot.CharacterSnapshot characterOne, MatchSnapshot.CharacterSnapshot characterTwo) {
+		latest = new MatchSnapshot(sequence++, turnTracker, characterOne, characterTwo);
+	}
+	
+	//====== [GETTER METHODS] ======
+	
+	/**
+	 * Gets the state of the match after the last turn played, from any thread.
+	 * @return the latest snapshot, or null if the match has not started
+	 */
+	public MatchSnapshot getLatest() {
+		return latest;
+	}
+}
@@ -0,0 +1,54 @@
+package application;
+
+import model.Character;
+
+/**
+ * How the members of an arena team pick which opponent to act on.
+ * Each policy turns a character into a key, and the opponent with the smallest key is picked,
+ * so the opponents can be kept in an IndexedHeap instead of being searched every action.
+ * @author Jason Osmond
+ */
+public enum TargetPolicy {
+	
+	//====== [POLICIES] =======
+	
+	/** Finish off the weakest opponent first. */
+	LOWEST_HEALTH {
+		@Override
+		public int keyOf(Character character) {
+			return character.getCurrentHealth();
+		}
+	},
+	
+	/** Wear down the strongest opponent first. */
+	HIGHEST_HEALTH {
+		@Override
+		public int keyOf(Character character) {
+			return -character.getCurrentHealth();
+		}
+	},
+	
+	/** Take out the opponent that hits the hardest first. */
+	HIGHEST_ATTACK {
+		@Override
+		public int keyOf(Character character) {
+			return -character.getAttack();
+		}
+	},
+	
+	/** Hit the opponent that blocks the least first. */
+	LOWEST_DEFENSE {
+		@Override
+		public int keyOf(Character character) {
+			return character.getDefense();
+		}
+	};
+	
+	//====== [METHODS] =======
+	
+	/**
+	 * @param character an opponent
+	 * @return the key of the opponent, the opponent with the smallest key is picked
+	 */
+	public abstract int keyOf(Character character);
+}
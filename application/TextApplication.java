@@ -1,67 +1,144 @@
 package application;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.InputMismatchException;
-import java.util.Scanner;
 
 import model.PlayerCharacter;
+import model.PlayerInput;
 /**
  * When ran the text application class launches the game.
  * The class asks user for the game mode 
  * and lets the user create the player characters. 
  * Then calls the TurnTracker class to run the turns.
+ * Everything the users type is read from one PlayerInput, and everything the game prints goes to its stream,
+ * so the game can also be played from a file, a pipe or an in-memory stream.
+ * If a checkpoint interval is given, a Player vs AI game is saved to a checkpoint file every few turns, 
+ * so it can be stopped at any time and carried on later by choosing to resume it.
  * @author Jason Osmond
  */
 public class TextApplication {
 	
+	//====== [CONSTANTS] =======
+	
+	/** The file Player vs AI games are saved to, unless another file is given. */
+	public static final Path DEFAULT_CHECKPOINT_PATH = Paths.get("battlebots.ckpt");
+	
+	/** The number of turns between the saves of a Player vs AI game, unless another number is given. Games are not saved by default. */
+	public static final int DEFAULT_CHECKPOINT_INTERVAL = 0;
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final PlayerInput input;
+	private final Path checkpointPath;
+	private final int checkpointInterval;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * Creates a game played in the console.
+	 */
+	public TextApplication() {
+		this(PlayerInput.system());
+	}
+	
+	/**
+	 * Creates a game played with the given input, that is not saved.
+	 * @param input where the users type and the game prints
+	 */
+	public TextApplication(PlayerInput input) {
+		this(input, DEFAULT_CHECKPOINT_PATH, DEFAULT_CHECKPOINT_INTERVAL);
+	}
+	
+	/**
+	 * Creates a game played with the given input, that saves Player vs AI games to the given file.
+	 * @param input where the users type and the game prints
+	 * @param checkpointPath the file Player vs AI games are saved to and resumed from
+	 * @param checkpointInterval the number of turns between saves, 0 to never save
+	 */
+	public TextApplication(PlayerInput input, Path checkpointPath, int checkpointInterval) {
+		if (checkpointInterval < 0)
+			throw new IllegalArgumentException("The checkpoint interval can not be negative");
+		
+		this.input = input;
+		this.checkpointPath = checkpointPath;
+		this.checkpointInterval = checkpointInterval;
+	}
+	
 	//====== [METHODS] ======
 	
 	/**
 	 * The start program starts the setup for the game.
 	 * The user chooses the game mode, depending on the game mode
-	 * the method createPlayerCharacter may be called. 
+	 * the method createPlayerCharacter may be called, or the saved game is resumed if games are saved. 
 	 * An instance of TurnTracker is also created and 
-	 * at the end of this method it calls the nextTurn() method from TurnTracker
+	 * at the end of this method it calls the nextTurn() method from TurnTracker,
+	 * which runs the turns until the game is over
 	 */
 	public void start() {
-		TurnTracker turnTracker;
-		Scanner scan = new Scanner(System.in);
+		TurnTracker turnTracker = null;
 		
-		System.out.println("Welcome to the game!");
-		System.out.println();
+		input.println("Welcome to the game!");
+		input.println();
 		
 		int gameMode = -1;
 		
+		// A saved game can only be resumed when games are saved
+		boolean saving = checkpointInterval > 0;
+		int lastGameMode = saving ? 4 : 3;
+		
 		/* The while loop asks the user what game mode the game will run.
-		 * This will loop until the game mode is set to 1,2, or 3. 
-		 * If non-integer are inputed or integers no equal to 1,2 or 3 are inputed
+		 * This will loop until the game mode is set to 1,2, or 3, or the saved game is resumed with 4. 
+		 * If non-integer are inputed or integers no equal to 1,2,3 (or 4) are inputed
 		 * the user will be told their input was invalid and will need a new input.
 		*/
-		while (gameMode != 1 && gameMode != 2 && gameMode != 3) {		
+		while (gameMode < 1 || gameMode > lastGameMode) {		
 			
-			System.out.println("What game mode do you want to play? \n" + 
+			input.println("What game mode do you want to play? \n" + 
 				"Player vs AI: 1 \n" +
 				"Player vs Player: 2 \n" + 
-				"AI vs AI: 3 \n");
+				"AI vs AI: 3 \n" +
+				(saving ? "Resume the saved Player vs AI game: 4 \n" : ""));
 			
-			System.out.print("Type '1', '2' or '3' to choose your gamemode: ");
+			input.print(saving ? "Type '1', '2', '3' or '4' to choose your gamemode: " : "Type '1', '2' or '3' to choose your gamemode: ");
 			
 			try {				
-				gameMode = scan.nextInt();
+				gameMode = input.nextInt();
+				
+				if (gameMode < 1 || gameMode > lastGameMode)
+					input.println("\n" + "INVALID INPUT! Game mode '" + gameMode + "' not recognized. Try again" + "\n");
 				
-				if ((gameMode != 1 && gameMode != 2 && gameMode != 3))
-					System.out.println("\n" + "INVALID INPUT! Game mode '" + gameMode + "' not recognized. Try again" + "\n");
+				// The game mode is asked again if there is no saved game
+				else if (gameMode == 4) {
+					turnTracker = resumeGame();
+					if (turnTracker == null)
+						gameMode = -1;
+				}
 			}
 			
 			catch (InputMismatchException ime){
-				scan.nextLine(); // clears remaining  text in scanner, removal causes infinite loop
+				input.nextLine(); // clears remaining  text in scanner, removal causes infinite loop
 				
-				System.out.println("\n" + "INVALID INPUT! User input was not an integer. Try again." + "\n");
+				input.println("\n" + "INVALID INPUT! User input was not an integer. Try again." + "\n");
 			}
 		}
 		
-		System.out.println();
+		// nextInt leaves the rest of the line, which would otherwise be read as the name of the first character
+		// or the first action of a resumed game. AI vs AI reads nothing more, so piped input may end right after the game mode
+		if (gameMode != 3)
+			input.nextLine();
+		input.println();
+		
+		// The saved game already has its characters
+		if (gameMode == 4) {
+			input.println("====== [Resuming " + turnTracker.getCharacterOne().getName() + " vs " 
+					+ turnTracker.getCharacterTwo().getName() + " after turn " + turnTracker.getTurn() + "] ====== \n");
+		}
 		
 		// For Player vs AI only one PlayerCharacter is made
-		if (gameMode == 1) {
+		else if (gameMode == 1) {
 			PlayerCharacter characterOne = createPlayerCharacter();
 			
 			turnTracker = new TurnTracker(characterOne);
@@ -69,10 +146,10 @@ public class TextApplication {
 		
 		// For Player vs Player two PlayerCharacters are made
 		else if (gameMode == 2) {
-			System.out.println("====== [Player One Character Creation] ====== \n");
+			input.println("====== [Player One Character Creation] ====== \n");
 				PlayerCharacter characterOne = createPlayerCharacter();
 			
-			System.out.println("====== [Player Two Character Creation] ====== \n");
+			input.println("====== [Player Two Character Creation] ====== \n");
 				PlayerCharacter characterTwo = createPlayerCharacter();
 				
 			turnTracker = new TurnTracker(characterOne,characterTwo);
@@ -83,8 +160,63 @@ public class TextApplication {
 			turnTracker = new TurnTracker();
 		}
 		
-		// Runs the first turn
+		// Player vs AI games are saved every few turns while they are played
+		GameEventListener consoleListener = new ConsoleEventListener(input.getOut());
+		boolean saved = turnTracker.getGameMode() == 1 && saving;
+		
+		if (saved) {
+			turnTracker.setEventListener(new CompositeEventListener(consoleListener, 
+					new CheckpointListener(turnTracker, checkpointPath, checkpointInterval)));
+			input.println("The game is saved every " + checkpointInterval + " turns. If it is stopped, "
+					+ "choose game mode 4 to carry on from the last save. \n");
+		}
+		else {
+			turnTracker.setEventListener(consoleListener);
+		}
+		
+		// Runs the turns until the game is over
 		turnTracker.nextTurn();
+		
+		// A game that is over can not be carried on
+		if (saved)
+			removeSavedGame();
+	}
+	
+	/**
+	 * Loads the saved game from the checkpoint file, and gives its players the input of this application.
+	 * @return the saved game, or null if there is none or it could not be loaded
+	 */
+	private TurnTracker resumeGame() {
+		try {
+			TurnTracker turnTracker = MatchCheckpoint.load(checkpointPath);
+			
+			if (turnTracker.getCharacterOne() instanceof PlayerCharacter)
+				((PlayerCharacter) turnTracker.getCharacterOne()).setInput(input);
+			if (turnTracker.getCharacterTwo() instanceof PlayerCharacter)
+				((PlayerCharacter) turnTracker.getCharacterTwo()).setInput(input);
+			
+			return turnTracker;
+		}
+		catch (NoSuchFileException nsfe) {
+			input.println("\n" + "There is no saved game in '" + checkpointPath + "'. Choose another game mode." + "\n");
+		}
+		catch (IOException | IllegalArgumentException e) {
+			input.println("\n" + "The saved game in '" + checkpointPath + "' could not be loaded: " + e.getMessage() + "\n");
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Deletes the checkpoint file of a game that is over.
+	 */
+	private void removeSavedGame() {
+		try {
+			Files.deleteIfExists(checkpointPath);
+		}
+		catch (IOException ioe) {
+			input.println("The saved game in '" + checkpointPath + "' could not be removed: " + ioe.getMessage());
+		}
 	}
 	
 	/**
@@ -94,19 +226,18 @@ public class TextApplication {
 	 * @return a PlayerCharacter
 	 */
 	private PlayerCharacter createPlayerCharacter() {
-		Scanner scan = new Scanner(System.in);
 		PlayerCharacter playerCharacter = null;
 		String finalizeCharacter = "no";
 		
 		// Prompt user for character name
-		System.out.println("What is the name of your character? ");
-			String playerCharacterName = scan.nextLine(); 
+		input.println("What is the name of your character? ");
+			String playerCharacterName = input.nextLine(); 
 			
 		while (finalizeCharacter.equals("yes") != true) {
 			
 			// Ask user if they want to select their stats
-			System.out.println("Would you like to choose " + playerCharacterName + "'s stats? (yes/no)" );
-				String chooseStatsSelection = scan.nextLine();
+			input.println("Would you like to choose " + playerCharacterName + "'s stats? (yes/no)" );
+				String chooseStatsSelection = input.nextLine();
 				chooseStatsSelection = chooseStatsSelection.toLowerCase();
 			
 			//If the user chose to input stats.
@@ -114,14 +245,14 @@ public class TextApplication {
 				int maxPoints = PlayerCharacter.DEFAULT_POINTS_AVAILABLE;
 				int statValue = -1;
 				
-				System.out.println("\nYou have " + maxPoints + " points to use.");
-				System.out.println("Available Stats: Attack /  Defense / Search / Toughness \n");
+				input.println("\nYou have " + maxPoints + " points to use.");
+				input.println("Available Stats: Attack /  Defense / Search / Toughness \n");
 				
 				// Creates an array of strings called stats
 				String [] stats = {"Attack (+3/point)" , "Defense (+3/point)" , "Search (+1/point)" , "Toughness (+5% health/point)"};
 				int [] playerStatsSelection = new int[stats.length];
 				
-				System.out.println("Enter the values for " + playerCharacterName + "'s stats:");
+				input.println("Enter the values for " + playerCharacterName + "'s stats:");
 				
 				// Goes through each element in stats and record the user's input for each stat
 				for (int index = 0; index < stats.length; index++) {
@@ -129,22 +260,22 @@ public class TextApplication {
 					
 					// Loops user prompt until user's input is acceptable
 					while  (statValue < 0 || statValue > maxPoints) {
-						System.out.print(stats[index] + ": ");
+						input.print(stats[index] + ": ");
 						try {				
-							statValue = scan.nextInt();
+							statValue = input.nextInt();
 							
 							if (statValue < 0 )
-								System.out.println("\n" + "INVALID INPUT! User input was negative. Try again");
+								input.println("\n" + "INVALID INPUT! User input was negative. Try again");
 							
 							else if (statValue > maxPoints)
-								System.out.println("\n" + "INVALID INPUT! " + statValue + " is greater than remaining points." + "\n" +
+								input.println("\n" + "INVALID INPUT! " + statValue + " is greater than remaining points." + "\n" +
 										"Points remaining: " + maxPoints + "\n");
 							
 						}
 						
 						catch (InputMismatchException ime){
-							scan.nextLine(); //clears the text in scanner, removal causes infinite loop
-							System.out.println("\n" + "INVALID INPUT! User input was not an integer. Try again." + "\n");
+							input.nextLine(); //clears the text in scanner, removal causes infinite loop
+							input.println("\n" + "INVALID INPUT! User input was not an integer. Try again." + "\n");
 						}
 					}
 					// Reduces the remaining points left and records the stat value in a integer array called playerStatsSelection.
@@ -162,9 +293,9 @@ public class TextApplication {
 				
 				playerCharacter.setName(playerCharacterName);
 				
-				// scan.nextInt leaves a "\n" left over so if i were to run scan.nextLine, it would scan only that "\n" and not the user input
+				// input.nextInt leaves a "\n" left over so if i were to run input.nextLine, it would scan only that "\n" and not the user input
 				// (https://stackoverflow.com/questions/13102045/scanner-is-skipping-nextline-after-using-next-or-nextfoo)
-				scan.nextLine();
+				input.nextLine();
 			}
 			
 			// If the player chose no to input the character's stats, PlayerCharacter is made with default stats
@@ -173,15 +304,17 @@ public class TextApplication {
 				playerCharacter.setName(playerCharacterName);
 			}
 			
+			playerCharacter.setInput(input);
+			
 			// displays stats into terminal, and asks the user if the stats are acceptable
-			System.out.println("\n" + playerCharacter.displayStats());
-			System.out.println("Are " + playerCharacter.getName() + "'s stats acceptable? (yes/no)");
+			input.println("\n" + playerCharacter.displayStats());
+			input.println("Are " + playerCharacter.getName() + "'s stats acceptable? (yes/no)");
 			
 			// If the user does not type "yes", the loop will restart
-			finalizeCharacter = scan.nextLine().toLowerCase();
+			finalizeCharacter = input.nextLine().toLowerCase();
 		}
 		
-		System.out.println();
+		input.println();
 		
 		return playerCharacter;
 	}
@@ -189,10 +322,19 @@ public class TextApplication {
 	/**
 	 * This method launches the game.
 	 * Creates a textApplication object and calls the start method.
-	 * @param args
+	 * @param args optionally the number of turns between the saves of a Player vs AI game, 0 or none to never save,
+	 * and optionally the file the game is saved to
 	 */
 	public static void main(String[] args) {
-		TextApplication game = new TextApplication();
+		int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+		if (args.length > 0)
+			checkpointInterval = Integer.parseInt(args[0]);
+		
+		Path checkpointPath = DEFAULT_CHECKPOINT_PATH;
+		if (args.length > 1)
+			checkpointPath = Paths.get(args[1]);
+		
+		TextApplication game = new TextApplication(PlayerInput.system(), checkpointPath, checkpointInterval);
 		game.start();
 	}
 }
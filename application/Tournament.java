@@ -0,0 +1,388 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.MatchContext;
+import model.MatchRandom;
+
+/**
+ * A tournament between many bots, each playing a PlayerBuild with an AutoPlayerCharacter.
+ * Every game is a duel ran by a TurnTracker, the same as Player versus Player (game mode 2).
+ * 
+ * The games are ran on a fork/join pool. The games of a round are split into small tasks, 
+ * and idle threads steal tasks from busy ones, so all cores stay busy even when 
+ * some games take many more turns than others. Results go straight into EloRatings,
+ * which does not lock, and the ratings can be read while the tournament is running.
+ * 
+ * In a round robin every bot plays every other bot in a single round.
+ * In a Swiss tournament the bots are paired each round with bots that have the same points,
+ * so the pairings of a round are only made once the round before it is over.
+ * @author Jason Osmond
+ */
+public class Tournament {
+	
+	//====== [CONSTANTS] =======
+	
+	/**
+	 * The ways bots can be paired.
+	 */
+	public enum Format {
+		ROUND_ROBIN,
+		SWISS
+	}
+	
+	/**
+	 * The number of games a task plays on its own before it is split no further.
+	 * Kept small, so long games are spread across the threads.
+	 */
+	public static final int GAMES_PER_TASK = 4;
+	
+	public static final int DEFAULT_GAMES_PER_PAIRING = 2;
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final List<PlayerBuild> entrants;
+	private final Format format;
+	private final int rounds;
+	private final int gamesPerPairing;
+	private final long seed;
+	private final ForkJoinPool pool;
+	private final EloRatings ratings;
+	private final AtomicInteger gamesPlayed = new AtomicInteger();
+	private final BitSet[] previousOpponents;
+	private volatile int roundsPlayed;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * Creates a tournament that runs on the common fork/join pool.
+	 * @param entrants the builds of the bots
+	 * @param format how the bots are paired
+	 * @param rounds the number of Swiss rounds, ignored by a round robin
+	 * @param seed the seed of the tournament
+	 */
+	public Tournament(List<PlayerBuild> entrants, Format format, int rounds, long seed) {
+		this(entrants, format, rounds, DEFAULT_GAMES_PER_PAIRING, seed, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * @param entrants the builds of the bots
+	 * @param format how the bots are paired
+	 * @param rounds the number of Swiss rounds, ignored by a round robin
+	 * @param gamesPerPairing the games two paired bots play, each bot acts first in half of them
+	 * @param seed the seed of the tournament
+	 * @param pool the pool that runs the games
+	 */
+	public Tournament(List<PlayerBuild> entrants, Format format, int rounds, int gamesPerPairing, long seed, ForkJoinPool pool) {
+		this.entrants = new ArrayList<>(entrants);
+		this.format = format;
+		this.rounds = (format == Format.ROUND_ROBIN) ? 1 : rounds;
+		this.gamesPerPairing = gamesPerPairing;
+		this.seed = seed;
+		this.pool = pool;
+		this.ratings = new EloRatings(entrants.size());
+		this.previousOpponents = new BitSet[entrants.size()];
+		
+		for (int entrant = 0; entrant < entrants.size(); entrant++)
+			previousOpponents[entrant] = new BitSet(entrants.size());
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Runs the tournament and blocks until it is over.
+	 * @return the final ratings
+	 */
+	public EloRatings run() {
+		for (int round = 0; round < rounds; round++) {
+			Pairings pairings = (format == Format.ROUND_ROBIN) ? roundRobinPairings() : swissPairings(round);
+			
+			pool.invoke(new GameTask(pairings, round, 0, pairings.size() * gamesPerPairing));
+			roundsPlayed = round + 1;
+		}
+		
+		return ratings;
+	}
+	
+	/**
+	 * Starts the tournament on the pool without waiting for it.
+	 * The ratings can be read while it is running.
+	 * @return the running tournament, joined to wait for the final ratings
+	 */
+	public ForkJoinTask<EloRatings> start() {
+		return pool.submit(this::run);
+	}
+	
+	/**
+	 * Pairs every bot with every other bot once.
+	 * @return the pairings
+	 */
+	private Pairings roundRobinPairings() {
+		Pairings pairings = new Pairings(entrants.size() * (entrants.size() - 1) / 2);
+		
+		for (int entrantOne = 0; entrantOne < entrants.size(); entrantOne++)
+			for (int entrantTwo = entrantOne + 1; entrantTwo < entrants.size(); entrantTwo++)
+				pairings.add(entrantOne, entrantTwo);
+		
+		return pairings;
+	}
+	
+	/**
+	 * Pairs the bots by their points, then by their rating.
+	 * Each bot is paired with the next bot in the standings it has not played yet.
+	 * If the number of bots is odd, the last unpaired bot gets a bye.
+	 * @param round the round being paired
+	 * @return the pairings
+	 */
+	private Pairings swissPairings(int round) {
+		int[] standings = ratings.rankByPoints();
+		boolean[] paired = new boolean[standings.length];
+		Pairings pairings = new Pairings(standings.length / 2);
+		
+		for (int first = 0; first < standings.length; first++) {
+			if (paired[standings[first]])
+				continue;
+			
+			int opponent = -1;
+			for (int second = first + 1; second < standings.length && opponent == -1; second++)
+				if (!paired[standings[second]] && !hasPlayed(standings[first], standings[second]))
+					opponent = standings[second];
+			
+			// Everyone left was already played, the closest unpaired bot is played again
+			for (int second = first + 1; second < standings.length && opponent == -1; second++)
+				if (!paired[standings[second]])
+					opponent = standings[second];
+			
+			paired[standings[first]] = true;
+			
+			if (opponent == -1) {
+				ratings.recordBye(standings[first], gamesPerPairing);
+				continue;
+			}
+			
+			paired[opponent] = true;
+			pairings.add(standings[first], opponent);
+			previousOpponents[standings[first]].set(opponent);
+			previousOpponents[opponent].set(standings[first]);
+		}
+		
+		return pairings;
+	}
+	
+	/**
+	 * Plays one game and records the result.
+	 * The bots take turns acting first.
+	 * @param entrantOne
+	 * @param entrantTwo
+	 * @param game the index of the game between the two bots
+	 * @param gameSeed the seed of the game
+	 */
+	private void playGame(int entrantOne, int entrantTwo, int game, long gameSeed) {
+		boolean swapped = (game % 2) == 1;
+		int first = swapped ? entrantTwo : entrantOne;
+		int second = swapped ? entrantOne : entrantTwo;
+		
+		MatchContext matchContext = new MatchContext(gameSeed);
+		TurnTracker turnTracker = new TurnTracker(
+				entrants.get(first).createCharacter(matchContext), 
+				entrants.get(second).createCharacter(matchContext), 2, matchContext);
+		turnTracker.setEventListener(NoOpEventListener.INSTANCE);
+		turnTracker.nextTurn();
+		
+		boolean firstAlive = turnTracker.getCharacterOne().getCurrentHealth() > 0;
+		boolean secondAlive = turnTracker.getCharacterTwo().getCurrentHealth() > 0;
+		double scoreFirst = firstAlive ? 1 : (secondAlive ? 0 : 0.5);
+		
+		ratings.recordGame(first, second, scoreFirst);
+		gamesPlayed.incrementAndGet();
+	}
+	
+	/**
+	 * @param entrantOne
+	 * @param entrantTwo
+	 * @return true if the bots were paired in an earlier round
+	 */
+	private boolean hasPlayed(int entrantOne, int entrantTwo) {
+		return previousOpponents[entrantOne].get(entrantTwo);
+	}
+	
+	/**
+	 * Creates an output string containing the best bots so far.
+	 * Can be called while the tournament is running.
+	 * @param shown the number of bots to show
+	 * @return a String containing the standings
+	 */
+	public String getStandings(int shown) {
+		int[] standings = (format == Format.ROUND_ROBIN) ? ratings.rankByRating() : ratings.rankByPoints();
+		StringBuilder outputString = new StringBuilder();
+		
+		outputString.append("Round " + Math.min(roundsPlayed + 1, rounds) + " of " + rounds + 
+				", " + gamesPlayed.get() + " games played\n");
+		
+		for (int rank = 0; rank < Math.min(shown, standings.length); rank++) {
+			int entrant = standings[rank];
+			outputString.append(String.format("%3d. %-11s %7.1f rating %6.1f points %5d games%n", 
+					rank + 1, entrants.get(entrant), ratings.getRating(entrant), 
+					ratings.getPoints(entrant), ratings.getGames(entrant)));
+		}
+		
+		return outputString.toString();
+	}
+	
+	/**
+	 * A task that plays a range of the games of a round.
+	 * Game g is game (g % gamesPerPairing) of pairing (g / gamesPerPairing).
+	 * If the range is bigger than GAMES_PER_TASK, the range is split in half 
+	 * and each half is ran as its own task.
+	 */
+	private class GameTask extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final Pairings pairings;
+		private final int round;
+		private final int from;
+		private final int to;
+		
+		/**
+		 * @param pairings the pairings of the round
+		 * @param round the round
+		 * @param from the first game of the range
+		 * @param to the game after the last game of the range
+		 */
+		GameTask(Pairings pairings, int round, int from, int to) {
+			this.pairings = pairings;
+			this.round = round;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if (to - from <= GAMES_PER_TASK) {
+				for (int index = from; index < to; index++) {
+					int pairing = index / gamesPerPairing;
+					long gameSeed = MatchRandom.deriveSeed(MatchRandom.deriveSeed(seed, round), index);
+					
+					playGame(pairings.entrantOne(pairing), pairings.entrantTwo(pairing), index % gamesPerPairing, gameSeed);
+				}
+				return;
+			}
+			
+			int middle = (from + to) >>> 1;
+			invokeAll(new GameTask(pairings, round, from, middle), new GameTask(pairings, round, middle, to));
+		}
+	}
+	
+	/**
+	 * The pairings of a round, kept in two int arrays.
+	 */
+	private static class Pairings {
+		
+		private final int[] entrantsOne;
+		private final int[] entrantsTwo;
+		private int size;
+		
+		/**
+		 * @param capacity the most pairings
+		 */
+		Pairings(int capacity) {
+			entrantsOne = new int[capacity];
+			entrantsTwo = new int[capacity];
+		}
+		
+		void add(int entrantOne, int entrantTwo) {
+			entrantsOne[size] = entrantOne;
+			entrantsTwo[size] = entrantTwo;
+			size++;
+		}
+		
+		int entrantOne(int pairing) {
+			return entrantsOne[pairing];
+		}
+		
+		int entrantTwo(int pairing) {
+			return entrantsTwo[pairing];
+		}
+		
+		int size() {
+			return size;
+		}
+	}
+	
+	//====== [GETTER METHODS] ======
+	
+	/**
+	 * @return the ratings, which change while the tournament is running
+	 */
+	public EloRatings getRatings() {
+		return ratings;
+	}
+	
+	/**
+	 * @return the games played so far
+	 */
+	public int getGamesPlayed() {
+		return gamesPlayed.get();
+	}
+	
+	/**
+	 * @return the rounds that are over
+	 */
+	public int getRoundsPlayed() {
+		return roundsPlayed;
+	}
+	
+	/**
+	 * Runs a tournament between every build, printing the standings every second while it runs.
+	 * @param args "swiss" or "roundrobin", swiss if not given, the number of Swiss rounds, 
+	 * 9 if not given, and optionally the seed
+	 * @throws InterruptedException if interrupted while waiting for the tournament
+	 * @throws ExecutionException if a game failed
+	 */
+	public static void main(String[] args) throws InterruptedException, ExecutionException {
+		Format format = Format.SWISS;
+		if (args.length > 0 && args[0].equalsIgnoreCase("roundrobin"))
+			format = Format.ROUND_ROBIN;
+		
+		int rounds = 9;
+		if (args.length > 1)
+			rounds = Integer.parseInt(args[1]);
+		
+		long seed = MatchRandom.newSeed();
+		if (args.length > 2)
+			seed = Long.parseLong(args[2]);
+		
+		System.out.println("Seed: " + seed);
+		
+		Tournament tournament = new Tournament(PlayerBuild.allBuilds(), format, rounds, seed);
+		long startTime = System.nanoTime();
+		ForkJoinTask<EloRatings> running = tournament.start();
+		
+		boolean over = false;
+		while (!over) {
+			try {
+				running.get(1, TimeUnit.SECONDS);
+				over = true;
+			}
+			catch (TimeoutException te) {
+				System.out.println(tournament.getStandings(5));
+			}
+		}
+		
+		long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+		
+		System.out.println("===================== [FINAL STANDINGS] =====================");
+		System.out.println(tournament.getStandings(10));
+		System.out.println(tournament.getGamesPlayed() + " games in " + elapsedMillis + " ms");
+	}
+}
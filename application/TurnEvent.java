@@ -0,0 +1,46 @@
+package application;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Java Flight Recorder event for a turn of a match, from the start of the turn 
+ * until both characters have acted and the listener has been told. Recorded by the TurnTracker.
+ * 
+ * Only turns that take longer than the threshold, 1 ms by default, are recorded,
+ * so the event can be left enabled in long runs. 
+ * The threshold can be changed in the recording settings, for example "battlebots.Turn#threshold=0 ms".
+ * The seed and turn of a recorded turn are enough to play the match again up to that turn.
+ * @author Jason Osmond
+ */
+@Name("battlebots.Turn")
+@Label("Turn")
+@Category("Battle Bots")
+@Description("A turn of a match")
+@StackTrace(false)
+@Threshold("1 ms")
+public class TurnEvent extends jdk.jfr.Event {
+	
+	//====== [FIELDS] =======
+	
+	@Label("Turn")
+	int turn;
+	
+	@Label("Game Mode")
+	int gameMode;
+	
+	@Label("Seed")
+	long seed;
+	
+	@Label("Character One Health")
+	@Description("The health of character one after the turn")
+	int characterOneHealth;
+	
+	@Label("Character Two Health")
+	@Description("The health of character two after the turn")
+	int characterTwoHealth;
+}
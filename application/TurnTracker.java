@@ -1,26 +1,40 @@
 package application;
 
+import java.util.function.Supplier;
+
+import jdk.jfr.EventType;
+
 import model.Character;
 import model.EnemyCharacter;
+import model.MatchContext;
 import model.PlayerCharacter;
 import model.RandomEnemy;
 
 /**
  * The TurnTracker handles the turns for the text application.
- * It has methods to display the turns as a text 
- * and methods to check and handle character death.
- * Once the game is over this class also prints 
- * a report of the game into the console. 
+ * It tells a GameEventListener what happens each turn, 
+ * which displays the turns as a text by default,
+ * and has methods to check and handle character death.
+ * Once the game is over this class also creates 
+ * a report of the game for the listener. 
  * @author Jason Osmond
  */
 public class TurnTracker {
 	
+	//====== [CONSTANTS] =======
+	
+	private static final EventType TURN_EVENT = EventType.getEventType(TurnEvent.class);
+	
 	//====== [INSTANCE VARIABLES] =======
 	
 	private Character characterOne;
 	private Character characterTwo; 
-	private static int turn;
+	private MatchContext matchContext;
 	private int gameMode;
+	private GameEventListener eventListener = new ConsoleEventListener();
+	private Supplier<Character> enemySpawner = this::respawnEnemy;
+	private boolean gameOver;
+	private boolean started;
 	
 	//====== [CONSTRUCTORS] ======
 	
@@ -31,10 +45,12 @@ public class TurnTracker {
 	 * @param playerCharacter
 	 */
 	public TurnTracker(PlayerCharacter playerCharacter) {
+		setMatchContext(new MatchContext());
+		playerCharacter.setMatchContext(matchContext);
 		setCharacterOne(playerCharacter);
 		setGameMode(1);
 		setTurn(0);
-		characterTwo = new RandomEnemy();
+		characterTwo = new RandomEnemy(matchContext);
 	}
 	
 	/**
@@ -45,6 +61,9 @@ public class TurnTracker {
 	 * @param playerCharacterTwo
 	 */
 	public TurnTracker(PlayerCharacter playerCharacterOne, PlayerCharacter playerCharacterTwo) {
+		setMatchContext(new MatchContext());
+		playerCharacterOne.setMatchContext(matchContext);
+		playerCharacterTwo.setMatchContext(matchContext);
 		setCharacterOne(playerCharacterOne);
 		setCharacterTwo(playerCharacterTwo);
 		setGameMode(2);
@@ -58,61 +77,131 @@ public class TurnTracker {
 	 * Once the class is constructed using this constructor, the entire combat will be printed into the console.
 	 */
 	public TurnTracker() {
-		setCharacterOne(new RandomEnemy());
-		setCharacterTwo(new RandomEnemy());
+		this(new MatchContext());
+	}
+	
+	/**
+	 * AI versus AI
+	 * This Constructor is for game mode 3, where the two AI characters fight another
+	 * Adds two EnemyCharacter objects to the class, both created in the given match context.
+	 * Each match that runs at the same time as another needs its own MatchContext.
+	 * @param matchContext the context of the match
+	 */
+	public TurnTracker(MatchContext matchContext) {
+		setMatchContext(matchContext);
+		setCharacterOne(new RandomEnemy(matchContext));
+		setCharacterTwo(new RandomEnemy(matchContext));
 		setGameMode(3);
 		setTurn(0);
 	}
 	
+	/**
+	 * Any two characters
+	 * This Constructor can be used for any game mode with characters that were already created,
+	 * such as characters rebuilt from a recording.
+	 * Both characters join the given match context.
+	 * @param characterOne the character that acts first
+	 * @param characterTwo the character that acts second
+	 * @param gameMode the game mode, 1, 2 or 3
+	 * @param matchContext the context of the match
+	 */
+	public TurnTracker(Character characterOne, Character characterTwo, int gameMode, MatchContext matchContext) {
+		setMatchContext(matchContext);
+		characterOne.setMatchContext(matchContext);
+		characterTwo.setMatchContext(matchContext);
+		setCharacterOne(characterOne);
+		setCharacterTwo(characterTwo);
+		setGameMode(gameMode);
+		setTurn(0);
+	}
+	
 	//====== [METHODS] ======
 	
 	/**
 	 * Runs a turn.
-	 * Each turn each character's statistics are printed.
+	 * Each turn the listener is told the turn has started, so it can show each character's statistics.
 	 * Then the characters take their actions simultaneously.
-	 * Then calls the nextTurn method.
+	 * The turn is recorded as a TurnEvent for the Java Flight Recorder,
+	 * no event is created unless the event is enabled in a recording.
+	 * Does not start the next turn, that is left to the loop in nextTurn.
 	 */
 	private void runTurn() {
-		System.out.println("===================== [" + "Turn: " + getTurn() + "] =====================");
-		
-		System.out.println(characterOne.getName() + ":");
-		System.out.println(
-				"(Health: " + characterOne.getCurrentHealth() + " | " +
-				"Attack: " + characterOne.getAttack() + " | " +
-				"Defense: " + characterOne.getDefense() + " | " + 
-				"Search: " + characterOne.getSearch() + ")");
+		TurnEvent event = null;
+		if (TURN_EVENT.isEnabled()) {
+			event = new TurnEvent();
+			event.begin();
+		}
 		
-		System.out.println("---------------------------------------------");
+		int turn = getTurn();
 		
-		System.out.println(characterTwo.getName() + ":");
-		System.out.println(
-				"(Health: " + characterTwo.getCurrentHealth() + " | " +
-				"Attack: " + characterTwo.getAttack() + " | " +
-				"Defense: " + characterTwo.getDefense() + " | " + 
-				"Search: " + characterTwo.getSearch() + ")\n");
+		eventListener.turnStarted(turn, characterOne, characterTwo);
 		
 		// Prompt for character for action
 		// Character One does have an advantage as their turns are made first. 
-		System.out.println("\n    [" + characterOne.takeAction(characterTwo) + "]\n");
+		eventListener.actionResolved(turn, characterOne.resolveAction(characterTwo));
 		
-		System.out.println("    [" + characterTwo.takeAction(characterOne) + "]\n\n");
+		eventListener.actionResolved(turn, characterTwo.resolveAction(characterOne));
 		
-		nextTurn();
+		if (event != null && event.shouldCommit()) {
+			event.turn = turn;
+			event.gameMode = getGameMode();
+			event.seed = matchContext.getSeed();
+			event.characterOneHealth = characterOne.getCurrentHealth();
+			event.characterTwoHealth = characterTwo.getCurrentHealth();
+			event.commit();
+		}
 	}
 	
 	/**
-	 * Checks if both players are alive, if so, then runs another turn.
+	 * Runs turns until the game is over.
+	 * The turns are driven by a loop instead of runTurn and nextTurn calling each other,
+	 * so the stack depth stays the same no matter how many turns are played.
+	 */
+	public void nextTurn() {
+		while (playTurn());
+	}
+	
+	/**
+	 * Runs a single turn, then checks the characters the same way nextTurn does.
+	 * Lets a caller that gets the actions from somewhere else, such as a server waiting on its players, 
+	 * run the game one turn at a time.
+	 * @return true if another turn should be ran, false if the game is over
+	 */
+	public boolean playTurn() {
+		if (gameOver)
+			return false;
+		
+		// Also announced for a match restored from a checkpoint, which does not start at turn 0
+		if (!started) {
+			started = true;
+			eventListener.gameStarted(this);
+			
+			if (!checkCharacters())
+				return false;
+		}
+		
+		setTurn(getTurn() + 1);
+		runTurn();
+		
+		boolean nextTurn = checkCharacters();
+		eventListener.turnEnded(getTurn(), characterOne, characterTwo);
+		
+		return nextTurn;
+	}
+	
+	/**
+	 * Checks if both players are alive, if so, then another turn should be ran.
 	 * If a character died, then it checks the game mode to determine if the game ends
 	 * Game mode 1 ends when the player character dies. If the AI dies in this game mode,
-	 * a new enemy is spawned and another turn is ran.
+	 * a new enemy is spawned and another turn should be ran.
 	 * Game mode 2 and 3 ends when either character dies.
+	 * @return true if another turn should be ran, false if the game is over
 	 */
-	public void nextTurn() {
+	private boolean checkCharacters() {
 		
 		// Both Character's are still alive, runs next turn
 		if ((characterOne.getCurrentHealth() > 0) && (characterTwo.getCurrentHealth() > 0)) {
-			setTurn(turn + 1);
-			runTurn();
+			return true;
 		}
 		
 		// A character has died, and the game mode is in Player versus AI
@@ -121,43 +210,85 @@ public class TurnTracker {
 			
 			// Player is slain, game over
 			if (characterOne.getCurrentHealth() <= 0){
-				System.out.println("===================== [GAME OVER] =====================" + "\n" + 
-						characterOne.getName() + " was slain by " + characterTwo.getName() +"!\n"+ 
-						gameModeOneReview());
+				gameOver = true;
+				eventListener.characterSlain(getTurn(), characterOne, characterTwo, true);
+				eventListener.gameOver(this);
+				return false;
 			}
 			
 			// Enemy is slain, create a new enemy, runs next turn
 			else {
-				System.out.println( characterOne.getName() + " has slain " + characterTwo.getName() + "!");
+				eventListener.characterSlain(getTurn(), characterTwo, characterOne, false);
 				
-				characterTwo = new RandomEnemy();
+				characterTwo = enemySpawner.get();
+				eventListener.enemySpawned(getTurn(), characterTwo);
 				
-				setTurn(turn + 1);
-				runTurn();
+				return true;
 			}
 		}
 		// A character has died, and the game mode is either in player vs player or AI vs AI
 		// Ends the game
 		else {
-			// Character one is alive
-			if (characterOne.getCurrentHealth() > 0)
-				System.out.println("===================== [GAME OVER] =====================" + "\n" + 
-					characterTwo.getName() + " was slain by " + characterOne.getName() +"!\n"+ 
-					characterOne.getName() + " WINS!\n" + 
-					gameModeTwoReview());
-			// Character two is alive
-			else if (characterTwo.getCurrentHealth() > 0)
-				System.out.println("===================== [GAME OVER] =====================" + "\n" + 
-					characterOne.getName() + " was slain by " + characterTwo.getName() +"!\n"+ 
-					characterTwo.getName() + " WINS!\n" + 
-					gameModeTwoReview());
-			// Both characters are dead
-			else
-				System.out.println("===================== [GAME OVER] =====================" + "\n" + 
-					characterOne.getName() + " and " + characterTwo.getName() + " have both fallen!\n"+ 
-					characterOne.getName() + " and " + characterTwo.getName() + "DRAW!\n" + 
-					gameModeTwoReview());
+			gameOver = true;
+			
+			if (characterOne.getCurrentHealth() <= 0)
+				eventListener.characterSlain(getTurn(), characterOne, characterTwo, true);
+			if (characterTwo.getCurrentHealth() <= 0)
+				eventListener.characterSlain(getTurn(), characterTwo, characterOne, true);
+			
+			eventListener.gameOver(this);
+			return false;
+		}
+	}
+	
+	/**
+	 * The default enemy spawner of game mode 1.
+	 * The slain enemy is respawned in place as a new enemy of the same kind,
+	 * so no objects are created for each enemy. Listeners that keep the slain character 
+	 * or its ActionResults after characterSlain should copy what they need from them first.
+	 * If the slain character is not an EnemyCharacter, a new RandomEnemy is created instead.
+	 * @return the enemy that replaces the slain enemy
+	 */
+	private Character respawnEnemy() {
+		if (characterTwo instanceof EnemyCharacter) {
+			((EnemyCharacter) characterTwo).respawn();
+			return characterTwo;
 		}
+		
+		return new RandomEnemy(matchContext);
+	}
+	
+	/**
+	 * Creates the text shown when the game is over.
+	 * Says who was slain and who won, followed by the review of the game mode.
+	 * @return A string containing the game over text
+	 */
+	public String getGameOverReport() {
+		String header = "===================== [GAME OVER] =====================" + "\n";
+		
+		if (getGameMode() == 1)
+			return header + 
+					characterOne.getName() + " was slain by " + characterTwo.getName() +"!\n"+ 
+					gameModeOneReview();
+		
+		// Character one is alive
+		else if (characterOne.getCurrentHealth() > 0)
+			return header + 
+				characterTwo.getName() + " was slain by " + characterOne.getName() +"!\n"+ 
+				characterOne.getName() + " WINS!\n" + 
+				gameModeTwoReview();
+		// Character two is alive
+		else if (characterTwo.getCurrentHealth() > 0)
+			return header + 
+				characterOne.getName() + " was slain by " + characterTwo.getName() +"!\n"+ 
+				characterTwo.getName() + " WINS!\n" + 
+				gameModeTwoReview();
+		// Both characters are dead
+		else
+			return header + 
+				characterOne.getName() + " and " + characterTwo.getName() + " have both fallen!\n"+ 
+				characterOne.getName() + " and " + characterTwo.getName() + "DRAW!\n" + 
+				gameModeTwoReview();
 	}
 	
 	/**
@@ -169,7 +300,7 @@ public class TurnTracker {
 	private String gameModeOneReview() {
 		String outputString = 
 				"Total turns: " + getTurn() + "\n" +
-				"Enemies encountered: " + EnemyCharacter.getTotalEnemyCount() + "\n\n" + 
+				"Enemies encountered: " + matchContext.getTotalEnemyCount() + "\n\n" + 
 				characterOne.displayStats() + "\n" + 
 				"Thanks for playing!";
 		
@@ -191,15 +322,15 @@ public class TurnTracker {
 		return outputString;
 	}
 	
-	
+
 	//====== [GETTER AND SETTER METHODS] ======
 	
 	/**
 	 * Gets the turn number
 	 * @return the turn
 	 */
-	public static int getTurn() {
-		return turn;
+	public int getTurn() {
+		return matchContext.getTurn();
 	}
 
 	/**
@@ -208,7 +339,21 @@ public class TurnTracker {
 	 * @param turn the turn to set
 	 */
 	private void setTurn(int turn) {
-		if (turn >= 0) this.turn = turn;
+		matchContext.setTurn(turn);
+	}
+	
+	/**
+	 * @return true once the game is over
+	 */
+	public boolean isGameOver() {
+		return gameOver;
+	}
+	
+	/**
+	 * @return the characterOne
+	 */
+	public Character getCharacterOne() {
+		return characterOne;
 	}
 
 	/**
@@ -218,6 +363,13 @@ public class TurnTracker {
 		this.characterOne = characterOne;
 	}
 
+	/**
+	 * @return the characterTwo
+	 */
+	public Character getCharacterTwo() {
+		return characterTwo;
+	}
+
 	/**
 	 * @param characterTwo the characterTwo to set
 	 */
@@ -237,5 +389,45 @@ public class TurnTracker {
 	 */
 	public void setGameMode(int gameMode) {
 		this.gameMode = gameMode;
-	}	
+	}
+	
+	/**
+	 * Sets what creates the enemy that replaces a slain enemy in game mode 1.
+	 * By default the slain enemy is respawned in place.
+	 * @param enemySpawner the enemySpawner to set
+	 */
+	public void setEnemySpawner(Supplier<Character> enemySpawner) {
+		this.enemySpawner = enemySpawner;
+	}
+	
+	/**
+	 * @return the matchContext
+	 */
+	public MatchContext getMatchContext() {
+		return matchContext;
+	}
+	
+	/**
+	 * @param matchContext the matchContext to set
+	 */
+	private void setMatchContext(MatchContext matchContext) {
+		this.matchContext = matchContext;
+	}
+	
+	/**
+	 * @return the eventListener
+	 */
+	public GameEventListener getEventListener() {
+		return eventListener;
+	}
+	
+	/**
+	 * Sets the listener that is told what happens in the game.
+	 * By default the game is printed into the console,
+	 * headless matches, such as the ones ran by the BatchSimulator, use a NoOpEventListener.
+	 * @param eventListener the eventListener to set
+	 */
+	public void setEventListener(GameEventListener eventListener) {
+		this.eventListener = eventListener;
+	}
 }
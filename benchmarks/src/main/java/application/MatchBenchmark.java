@@ -0,0 +1,58 @@
+package application;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.MatchContext;
+
+/**
+ * Benchmarks of full AI versus AI matches.
+ * Each match gets the next seed, so the same series of matches is played on every run.
+ * @author Jason Osmond
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MatchBenchmark {
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private long seed;
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Plays one headless match through the TurnTracker.
+	 * @return the number of turns the match took
+	 */
+	@Benchmark
+	public int aiVersusAiMatch() {
+		TurnTracker turnTracker = new TurnTracker(new MatchContext(seed++));
+		turnTracker.setEventListener(NoOpEventListener.INSTANCE);
+		turnTracker.nextTurn();
+		return turnTracker.getTurn();
+	}
+	
+	/**
+	 * Plays a block of duels through the BulkDuelEngine, for comparison with the TurnTracker.
+	 * @return the number of duels won by character one
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BulkDuelEngine.DUELS_PER_BLOCK)
+	public int bulkDuels() {
+		return BulkDuelEngine.simulateRandomEnemyDuels(BulkDuelEngine.DUELS_PER_BLOCK, seed++).getCharacterOneWins();
+	}
+}
@@ -0,0 +1,78 @@
+package model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the actions of characters.
+ * This class is in the model package so it can call the protected combat methods directly.
+ * Run with "-prof gc" to see the allocation rate of each benchmark.
+ * @author Jason Osmond
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CharacterBenchmark {
+	
+	//====== [INSTANCE VARIABLES] =======	
+	
+	private RandomEnemy attacker;
+	private RandomEnemy defender;
+	private int attackerAttack;
+	private int attackerDefense;
+	private int attackerSearch;
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Creates the characters used by the benchmarks from a fixed seed.
+	 */
+	@Setup
+	public void setUp() {
+		MatchContext matchContext = new MatchContext(42);
+		attacker = new RandomEnemy(matchContext);
+		defender = new RandomEnemy(matchContext);
+		attackerAttack = attacker.getAttack();
+		attackerDefense = attacker.getDefense();
+		attackerSearch = attacker.getSearch();
+	}
+	
+	/**
+	 * The defender takes a hit, then its health is put back so it never runs out.
+	 * @return the damage taken
+	 */
+	@Benchmark
+	public int takeDamage() {
+		int damageTaken = defender.takeDamage(attacker.getAttack());
+		defender.setCurrentHealth(defender.getBaseHealth());
+		return damageTaken;
+	}
+	
+	/**
+	 * The attacker searches, then its stats are put back so they do not keep growing.
+	 * @return the result of the search
+	 */
+	@Benchmark
+	public ActionResult executeActionSearch() {
+		ActionResult actionResult = attacker.executeActionSearch();
+		attacker.setAttack(attackerAttack);
+		attacker.setDefense(attackerDefense);
+		attacker.setSearch(attackerSearch);
+		attacker.setWeakenModifier(1);
+		attacker.setCurrentHealth(attacker.getBaseHealth());
+		return actionResult;
+	}
+}
@@ -0,0 +1,71 @@
+package model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the creation of a RandomEnemy, including setDefaultStats, at different levels,
+ * and respawning an existing RandomEnemy in place.
+ * The number of stat points grows with the level, so this shows how spawning scales in long games.
+ * @author Jason Osmond
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RandomEnemyBenchmark {
+	
+	//====== [INSTANCE VARIABLES] =======	
+	
+	/** The level of the enemies created. */
+	@Param({"1", "100", "10000", "1000000"})
+	private int level;
+	
+	private MatchContext matchContext;
+	private RandomEnemy enemy;
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Sets the turn of the match so new enemies are of the benchmark's level.
+	 */
+	@Setup
+	public void setUp() {
+		matchContext = new MatchContext(42);
+		matchContext.setTurn(level - 1);
+		enemy = new RandomEnemy(matchContext);
+	}
+	
+	/**
+	 * Creates a RandomEnemy.
+	 * @return the enemy
+	 */
+	@Benchmark
+	public RandomEnemy createRandomEnemy() {
+		return new RandomEnemy(matchContext);
+	}
+	
+	/**
+	 * Respawns the same RandomEnemy, the way game mode 1 replaces a slain enemy.
+	 * Run with -prof gc to see that no memory is allocated.
+	 * @return the enemy
+	 */
+	@Benchmark
+	public RandomEnemy respawnRandomEnemy() {
+		enemy.respawn();
+		return enemy;
+	}
+}
@@ -0,0 +1,113 @@
+package model;
+
+/**
+ * The actions a character can take on its turn.
+ * The AI picks an Action directly, so only actions typed in by a user are parsed from text.
+ * The ordinal of an action is used as its opcode.
+ * @author Jason Osmond
+ */
+public enum Action {
+	
+	//====== [ACTIONS] =======	
+	
+	ATTACK("a", "attack"),
+	DEFEND("d", "defend"),
+	SEARCH("s", "search"),
+	WEAKEN("w", "weaken"),
+	
+	// Cheat codes, only available to PlayerCharacters
+	HIGHGROUND(null, "highground"),
+	DEATH(null, "death");
+	
+	//====== [CONSTANTS] =======	
+	
+	private static final Action[] OPCODES = values();
+	
+	//====== [INSTANCE VARIABLES] =======	
+	
+	private final String shortCommand;
+	private final String command;
+	
+	//====== [CONSTRUCTORS] =======	
+	
+	/**
+	 * @param shortCommand the one letter command, null if the action has none
+	 * @param command the full command
+	 */
+	private Action(String shortCommand, String command) {
+		this.shortCommand = shortCommand;
+		this.command = command;
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Finds the action a user typed in.
+	 * The text should already be in lower case.
+	 * @param input the text typed in by the user
+	 * @return the action, or null if the text is not an action
+	 */
+	public static Action parse(String input) {
+		switch (input) {
+			case "a":
+			case "attack":
+				return ATTACK;
+			case "d":
+			case "defend":
+				return DEFEND;
+			case "s":
+			case "search":
+				return SEARCH;
+			case "w":
+			case "weaken":
+				return WEAKEN;
+			case "highground":
+				return HIGHGROUND;
+			case "death":
+				return DEATH;
+			default:
+				return null;
+		}
+	}
+	
+	/**
+	 * Finds the action with the given opcode.
+	 * @param opcode the opcode of the action
+	 * @return the action
+	 */
+	public static Action fromOpcode(int opcode) {
+		return OPCODES[opcode];
+	}
+	
+	/**
+	 * Gets the opcode of this action, a small number that can be stored instead of the action.
+	 * @return the opcode
+	 */
+	public int getOpcode() {
+		return ordinal();
+	}
+	
+	/**
+	 * Checks if this action is a cheat code.
+	 * @return true if only PlayerCharacters can take this action
+	 */
+	public boolean isCheat() {
+		return shortCommand == null;
+	}
+	
+	//====== [GETTER METHODS] =======	
+	
+	/**
+	 * @return the shortCommand, null if the action has none
+	 */
+	public String getShortCommand() {
+		return shortCommand;
+	}
+	
+	/**
+	 * @return the command
+	 */
+	public String getCommand() {
+		return command;
+	}
+}
@@ -0,0 +1,56 @@
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Java Flight Recorder event for an action taken by a character, from the choice of the action
+ * to its result. Recorded by Character.resolveAction.
+ * 
+ * An action of an AI character takes less time than timing it does, 
+ * so this event is disabled unless a recording enables it, for example with "battlebots.Action#enabled=true".
+ * When enabled, only actions that take longer than the threshold, 1 ms by default, are recorded.
+ * The fields are only filled in for events that are recorded.
+ * @author Jason Osmond
+ */
+@Name("battlebots.Action")
+@Label("Action")
+@Category("Battle Bots")
+@Description("An action taken by a character")
+@StackTrace(false)
+@Enabled(false)
+@Threshold("1 ms")
+public class ActionEvent extends jdk.jfr.Event {
+	
+	//====== [FIELDS] =======
+	
+	@Label("Turn")
+	int turn;
+	
+	@Label("Actor")
+	String actor;
+	
+	@Label("Actor Type")
+	Class<?> actorType;
+	
+	@Label("Action")
+	String action;
+	
+	@Label("Outcome")
+	String outcome;
+	
+	@Label("Amount")
+	int amount;
+	
+	@Label("Actor Health")
+	int actorHealth;
+	
+	@Label("Target Health")
+	@Description("The health of the target after the action, -1 for actions without a target")
+	int targetHealth;
+}
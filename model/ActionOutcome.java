@@ -0,0 +1,67 @@
+package model;
+
+/**
+ * What happened when a character took an action.
+ * Each search outcome has its own kind, so it is known what was found without reading the report.
+ * @author Jason Osmond
+ */
+public enum ActionOutcome {
+	
+	//====== [OUTCOMES] =======	
+	
+	/** Attack, the amount is the damage dealt. */
+	DAMAGE,
+	
+	/** Defend, the amount is the defense gained. */
+	DEFENSE,
+	
+	/** Weaken, the amount is the weaken modifier used. */
+	WEAKEN,
+	
+	/** Search found the jackpot, the amount is added to all stats and three times the amount to health. */
+	JACKPOT,
+	
+	/** Search found a better magnifying glass, the amount is the search gained. */
+	MAGNIFYING_GLASS,
+	
+	/** Search found poison, the amount is the weaken modifier gained. */
+	POISON,
+	
+	/** Search found a healing potion, the amount is the health gained. */
+	HEALING_POTION,
+	
+	/** Search found a new weapon, the amount is the attack gained. */
+	WEAPON,
+	
+	/** The highground cheat code, the amount is added to health, attack, defense and search. */
+	HIGHGROUND,
+	
+	/** The death cheat code, the character's health was set to 0. */
+	FALLEN,
+	
+	/** The action is not available to the character, nothing happened. */
+	INVALID;
+	
+	//====== [CONSTANTS] =======	
+	
+	private static final ActionOutcome[] CODES = values();
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Finds the outcome with the given code.
+	 * @param code the code of the outcome
+	 * @return the outcome
+	 */
+	public static ActionOutcome fromCode(int code) {
+		return CODES[code];
+	}
+	
+	/**
+	 * Gets the code of this outcome, a small number that can be stored instead of the outcome.
+	 * @return the code
+	 */
+	public int getCode() {
+		return ordinal();
+	}
+}
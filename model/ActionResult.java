@@ -0,0 +1,116 @@
+package model;
+
+/**
+ * The result of an action taken by a character.
+ * Holds who acted, on whom, which action, what happened and by how much.
+ * The text describing the action is only created when getDescription or toString is called,
+ * so games that are not shown to anyone never build the text.
+ * The names are read from the characters when the text is created,
+ * so the text should be created before a character is renamed or reused.
+ * @author Jason Osmond
+ */
+public class ActionResult {
+	
+	//====== [INSTANCE VARIABLES] =======	
+	
+	private final Character actor;
+	private final Character target;
+	private final Action action;
+	private final ActionOutcome outcome;
+	private final int amount;
+	
+	//====== [CONSTRUCTORS] =======	
+	
+	/**
+	 * @param actor the character that took the action
+	 * @param target the opponent of the actor, null for actions that only affect the actor
+	 * @param action the action that was taken
+	 * @param outcome what happened
+	 * @param amount by how much, see ActionOutcome for what the amount means for each outcome
+	 */
+	public ActionResult(Character actor, Character target, Action action, ActionOutcome outcome, int amount) {
+		this.actor = actor;
+		this.target = target;
+		this.action = action;
+		this.outcome = outcome;
+		this.amount = amount;
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Creates the text describing this action.
+	 * @return A String describing the outcome of the action
+	 */
+	public String getDescription() {
+		switch (outcome) {
+			case DAMAGE:
+				return actor.getName() + " attacks! (" + amount + " damage dealt)";
+			case DEFENSE:
+				return actor.getName() + " defends! (+" + amount + " defense)";
+			case WEAKEN:
+				return actor.getName() + " Weakens " + target.getName() + " (-" + amount + " to enemy Defense, Search, and Health)";
+			case JACKPOT:
+				return actor.getName() + " found the jackpot!" + "(+" + amount + " to all stats, +" + amount * CombatRules.HEALTH_PER_SEARCH_POINT + " health)";
+			case MAGNIFYING_GLASS:
+				return actor.getName() + " found a better magnifying glass! " + "(+" + amount + " search)";
+			case POISON:
+				return actor.getName() + " found some poison! " + "(+" + amount + " to weakens)";
+			case HEALING_POTION:
+				return actor.getName() + " found a healing potion! " + "(+" + amount + " health)";
+			case WEAPON:
+				return actor.getName() + " found new weapon! " + "(+" + amount + " attack)";
+			case HIGHGROUND:
+				return actor.getName() + " has the highground! All Stats +" + amount;
+			case FALLEN:
+				return actor.getName() + " has fallen!";
+			default:
+				return "Invalid Action";
+		}
+	}
+	
+	/**
+	 * @return the description of this action
+	 */
+	@Override
+	public String toString() {
+		return getDescription();
+	}
+	
+	//====== [GETTER METHODS] =======	
+	
+	/**
+	 * @return the actor
+	 */
+	public Character getActor() {
+		return actor;
+	}
+	
+	/**
+	 * @return the target, null for actions that only affect the actor
+	 */
+	public Character getTarget() {
+		return target;
+	}
+	
+	/**
+	 * @return the action
+	 */
+	public Action getAction() {
+		return action;
+	}
+	
+	/**
+	 * @return the outcome
+	 */
+	public ActionOutcome getOutcome() {
+		return outcome;
+	}
+	
+	/**
+	 * @return the amount
+	 */
+	public int getAmount() {
+		return amount;
+	}
+}
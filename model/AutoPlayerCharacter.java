@@ -0,0 +1,47 @@
+package model;
+
+/**
+ * A PlayerCharacter that takes its own actions instead of asking the user.
+ * Each turn it picks attack, defend, search or weaken with the same chance,
+ * the same way a RandomEnemy does, so a build can be tested without anyone playing it.
+ * @author Jason Osmond
+ */
+public class AutoPlayerCharacter extends PlayerCharacter {
+	
+	//====== [CONSTANTS] =======	
+	
+	/**
+	 * The number of actions it picks from, the opcodes of attack, defend, search and weaken.
+	 */
+	private static final int ACTION_CHOICES = 4;
+	
+	//====== [CONSTRUCTORS] =======	
+	
+	/**
+	 * Creates a character with the given stats, in the given match.
+	 * The health of the character uses the constant DEFAULT_BASEHEALTH.
+	 * @param matchContext the context of the match this character is in
+	 * @param attackStat
+	 * @param defenseStat
+	 * @param searchStat
+	 * @param toughnessStat
+	 */
+	public AutoPlayerCharacter(MatchContext matchContext, int attackStat, int defenseStat, int searchStat, int toughnessStat) {
+		super(attackStat, defenseStat, searchStat, toughnessStat);
+		setMatchContext(matchContext);
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Randomly picks attack, defend, search or weaken, each with a 25% chance.
+	 * @param opponent 
+	 * @return the result of the action
+	 */
+	@Override
+	public ActionResult takeAction(Character opponent) {
+		Action action = Action.fromOpcode(getMatchContext().getRandom().nextInt(ACTION_CHOICES));
+		
+		return executeAction(opponent, action);
+	}
+}
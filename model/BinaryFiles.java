@@ -0,0 +1,64 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Writes and checks the binary files of the game, such as Q tables and match checkpoints.
+ * A file is either replaced whole or left as it was, even if the game crashes while it is written,
+ * and ends with a CRC32C checksum so a damaged file is found when it is read.
+ * @author Jason Osmond
+ */
+public final class BinaryFiles {
+	
+	//====== [CONSTRUCTORS] =======	
+	
+	/**
+	 * Only has static methods, can not be created.
+	 */
+	private BinaryFiles() {
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Saves bytes into a file, crash safe.
+	 * The bytes are written into a temporary file next to the file, forced to the disk,
+	 * and then renamed over the file in one atomic step.
+	 * @param bytes the bytes, from their position to their limit
+	 * @param path the file, replaced if it exists
+	 * @throws IOException if the bytes could not be written
+	 */
+	public static void save(ByteBuffer bytes, Path path) throws IOException {
+		Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+		
+		try (FileChannel channel = FileChannel.open(temporary, 
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (bytes.hasRemaining())
+				channel.write(bytes);
+			
+			channel.force(true);
+		}
+		
+		Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+	}
+	
+	/**
+	 * The position and the limit of the buffer are not changed.
+	 * @param buffer
+	 * @param from the first byte
+	 * @param to the byte after the last byte
+	 * @return the CRC32C of the bytes
+	 */
+	public static int checksum(ByteBuffer buffer, int from, int to) {
+		CRC32C crc = new CRC32C();
+		crc.update(buffer.duplicate().limit(to).position(from));
+		return (int) crc.getValue();
+	}
+}
@@ -0,0 +1,215 @@
+package model;
+
+/**
+ * Draws random numbers from a binomial distribution, 
+ * the number of successes in a number of trials that each succeed with the same chance.
+ * The time a draw takes does not grow with the number of trials:
+ * small distributions are drawn by inversion, which takes at most about 30 steps,
+ * larger ones use the BTPE algorithm (Kachitvichyanukul and Schmeiser, 1988),
+ * which accepts a draw after a small constant number of tries on average.
+ * Both methods are exact, the numbers follow the binomial distribution.
+ * @author Jason Osmond
+ */
+public final class BinomialDistribution {
+	
+	//====== [CONSTANTS] =======	
+	
+	/** Distributions with a mean below this are drawn by inversion. */
+	private static final double INVERSION_LIMIT = 30;
+	
+	//====== [CONSTRUCTORS] =======	
+	
+	/**
+	 * Only has static methods, can not be created.
+	 */
+	private BinomialDistribution() {
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Draws the number of successes in a number of trials.
+	 * @param random the random number generator of the match
+	 * @param trials the number of trials, at least 0
+	 * @param probability the chance of each trial to succeed, between 0 and 1
+	 * @return a number between 0 and trials
+	 */
+	public static int sample(MatchRandom random, int trials, double probability) {
+		if (trials <= 0 || probability <= 0)
+			return 0;
+		if (probability >= 1)
+			return trials;
+		
+		// Draws are made for the less likely outcome, then flipped if needed
+		double smallerProbability = Math.min(probability, 1 - probability);
+		int successes;
+		
+		if (trials * smallerProbability < INVERSION_LIMIT)
+			successes = sampleInversion(random, trials, smallerProbability);
+		else
+			successes = sampleBtpe(random, trials, smallerProbability);
+		
+		if (probability > 0.5)
+			return trials - successes;
+		return successes;
+	}
+	
+	/**
+	 * Draws by inversion, walking up the cumulative distribution until it passes a uniform random number.
+	 * The number of steps is about the mean of the distribution.
+	 * @param random
+	 * @param trials
+	 * @param probability at most 0.5
+	 * @return the number of successes
+	 */
+	private static int sampleInversion(MatchRandom random, int trials, double probability) {
+		double failure = 1 - probability;
+		double chanceOfNone = Math.exp(trials * Math.log(failure));
+		double mean = trials * probability;
+		double bound = Math.min(trials, mean + 10 * Math.sqrt(mean * failure + 1));
+		
+		int successes = 0;
+		double chance = chanceOfNone;
+		double uniform = random.nextDouble();
+		
+		while (uniform > chance) {
+			successes++;
+			
+			// Rounding errors pushed the walk too far, start again
+			if (successes > bound) {
+				successes = 0;
+				chance = chanceOfNone;
+				uniform = random.nextDouble();
+			}
+			else {
+				uniform -= chance;
+				chance = ((trials - successes + 1) * probability * chance) / (successes * failure);
+			}
+		}
+		
+		return successes;
+	}
+	
+	/**
+	 * Draws using BTPE (Binomial, Triangle, Parallelogram, Exponential).
+	 * A draw is made from a simple shape that covers the distribution 
+	 * and is accepted or rejected by comparing it with the real chance.
+	 * @param random
+	 * @param trials
+	 * @param probability at most 0.5
+	 * @return the number of successes
+	 */
+	private static int sampleBtpe(MatchRandom random, int trials, double probability) {
+		double r = probability;
+		double q = 1 - r;
+		double fm = trials * r + r;
+		int m = (int) Math.floor(fm);
+		double nrq = trials * r * q;
+		
+		// Set up the regions of the covering shape
+		double p1 = Math.floor(2.195 * Math.sqrt(nrq) - 4.6 * q) + 0.5;
+		double xm = m + 0.5;
+		double xl = xm - p1;
+		double xr = xm + p1;
+		double c = 0.134 + 20.5 / (15.3 + m);
+		double a = (fm - xl) / (fm - xl * r);
+		double laml = a * (1 + a / 2);
+		a = (xr - fm) / (xr * q);
+		double lamr = a * (1 + a / 2);
+		double p2 = p1 * (1 + 2 * c);
+		double p3 = p2 + c / laml;
+		double p4 = p3 + c / lamr;
+		
+		while (true) {
+			double u = random.nextDouble() * p4;
+			double v = random.nextDouble();
+			int y;
+			
+			// Triangular region, always accepted
+			if (u <= p1) {
+				return (int) Math.floor(xm - p1 * v + u);
+			}
+			
+			// Parallelogram region
+			else if (u <= p2) {
+				double x = xl + (u - p1) / c;
+				v = v * c + 1 - Math.abs(m - x + 0.5) / p1;
+				if (v > 1)
+					continue;
+				y = (int) Math.floor(x);
+			}
+			
+			// Left exponential tail
+			else if (u <= p3) {
+				y = (int) Math.floor(xl + Math.log(v) / laml);
+				if (y < 0 || v == 0)
+					continue;
+				v = v * (u - p2) * laml;
+			}
+			
+			// Right exponential tail
+			else {
+				y = (int) Math.floor(xr - Math.log(v) / lamr);
+				if (y > trials || v == 0)
+					continue;
+				v = v * (u - p3) * lamr;
+			}
+			
+			int k = Math.abs(y - m);
+			
+			// Close to the mode, compare with the exact ratio of the chances
+			if (k <= 20 || k >= nrq / 2 - 1) {
+				double s = r / q;
+				double ratioBase = s * (trials + 1);
+				double f = 1.0;
+				
+				if (m < y) {
+					for (int i = m + 1; i <= y; i++)
+						f *= (ratioBase / i - s);
+				}
+				else if (m > y) {
+					for (int i = y + 1; i <= m; i++)
+						f /= (ratioBase / i - s);
+				}
+				
+				if (v <= f)
+					return y;
+				continue;
+			}
+			
+			// Far from the mode, use a squeeze and then Stirling's approximation
+			double rho = (k / nrq) * ((k * (k / 3.0 + 0.625) + 0.16666666666666666) / nrq + 0.5);
+			double t = -k * (double) k / (2 * nrq);
+			double logV = Math.log(v);
+			
+			if (logV < t - rho)
+				return y;
+			if (logV > t + rho)
+				continue;
+			
+			double x1 = y + 1;
+			double f1 = m + 1;
+			double z = trials + 1 - m;
+			double w = trials - y + 1;
+			
+			double bound = xm * Math.log(f1 / x1)
+					+ (trials - m + 0.5) * Math.log(z / w)
+					+ (y - m) * Math.log(w * r / (x1 * q))
+					+ stirlingCorrection(f1) + stirlingCorrection(z)
+					+ stirlingCorrection(x1) + stirlingCorrection(w);
+			
+			if (logV <= bound)
+				return y;
+		}
+	}
+	
+	/**
+	 * The correction term of Stirling's approximation used by BTPE.
+	 * @param value
+	 * @return the correction
+	 */
+	private static double stirlingCorrection(double value) {
+		double square = value * value;
+		return (13680. - (462. - (132. - (99. - 140. / square) / square) / square) / square) / value / 166320.;
+	}
+}
@@ -1,5 +1,9 @@
 package model;
-import java.util.Random;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import jdk.jfr.EventType;
 
 /**
  * Creates an abstract character. 
@@ -11,6 +15,10 @@ import java.util.Random;
  */
 public abstract class Character {
 	
+	//====== [CONSTANTS] =======	
+	
+	private static final EventType ACTION_EVENT = EventType.getEventType(ActionEvent.class);
+	
 	//====== [INSTANCE VARIABLES] =======	
 
 	private String name;
@@ -21,6 +29,8 @@ public abstract class Character {
 	private int toughness; 
 	private int currentHealth;
 	private int weakenModifier = 1;
+	private MatchContext matchContext;
+	private StatJournal statJournal;
 	
 	//====== [CONSTRUCTORS] =======	
 	
@@ -28,8 +38,21 @@ public abstract class Character {
 	 * This constructor calls the abstract method setDefaultStats()
 	 * to set the characters stats the to the default of the child classes
 	 * After setting all the stats, the constructors initializes the current health.
+	 * The character uses the shared MatchContext until it joins a match.
 	 */
 	public Character() {
+		this(MatchContext.getSharedContext());
+	}
+	
+	/**
+	 * This constructor sets the match context, then calls the abstract method setDefaultStats()
+	 * to set the characters stats the to the default of the child classes.
+	 * The context is set first since the default stats of some characters depend on it.
+	 * After setting all the stats, the constructors initializes the current health.
+	 * @param matchContext the context of the match this character is in
+	 */
+	public Character(MatchContext matchContext) {
+		this.setMatchContext(matchContext);
 		this.setDefaultStats();
 		this.initializeCurrentHealth();
 	}
@@ -45,6 +68,7 @@ public abstract class Character {
 	 * @param toughnessStat
 	 */
 	public Character(int baseHealth, int attackStat, int defenseStat, int searchStat, int toughnessStat) {
+		this.setMatchContext(MatchContext.getSharedContext());
 		this.setBaseHealth(baseHealth);
 		this.setAttack(attackStat);
 		this.setDefense(defenseStat);
@@ -69,9 +93,9 @@ public abstract class Character {
 	 * Abstract call for the takeAction method
 	 * This method will decide what the character will take 
 	 * @param aCharacter
-	 * @return A String describing the outcome of the action
+	 * @return the result of the action
 	 */
-	public abstract String takeAction(Character aCharacter);
+	public abstract ActionResult takeAction(Character aCharacter);
 	
 	/**
 	 * Abstract call for the getIncreaseDefenseAmount
@@ -83,15 +107,45 @@ public abstract class Character {
 	public abstract int getIncreaseDefenseAmount();
 	
 	//====== [METHODS] =======	
+	
+	/**
+	 * Takes this character's action against the opponent, see takeAction.
+	 * The action is recorded as an ActionEvent for the Java Flight Recorder.
+	 * No event is created unless the event is enabled in a recording, 
+	 * and its fields are only filled in if it is going to be recorded.
+	 * @param opponent the opponent of this character
+	 * @return the result of the action
+	 */
+	public final ActionResult resolveAction(Character opponent) {
+		if (!ACTION_EVENT.isEnabled())
+			return takeAction(opponent);
+		
+		ActionEvent event = new ActionEvent();
+		event.begin();
+		
+		ActionResult actionResult = takeAction(opponent);
+		
+		if (event.shouldCommit()) {
+			event.turn = matchContext.getTurn();
+			event.actor = getName();
+			event.actorType = getClass();
+			event.action = actionResult.getAction().name();
+			event.outcome = actionResult.getOutcome().name();
+			event.amount = actionResult.getAmount();
+			event.actorHealth = getCurrentHealth();
+			event.targetHealth = (actionResult.getTarget() == null) ? -1 : actionResult.getTarget().getCurrentHealth();
+			event.commit();
+		}
+		
+		return actionResult;
+	}
 
 	/**
 	 * This method initializes the current health by taking
 	 * the base health combining it with the character's toughness
 	 */
 	protected void initializeCurrentHealth() {
-		float toughnessModifier = 0.05f * toughness;
-		
-		setBaseHealth(Math.round(baseHealth * (toughnessModifier + 1)));
+		setBaseHealth(CombatRules.startingHealth(baseHealth, toughness));
 		
 		this.setCurrentHealth(getBaseHealth());
 	}
@@ -105,11 +159,9 @@ public abstract class Character {
 	 * @return
 	 */
 	protected int takeDamage(int damage) {
-		int damageAfterBlock = damage - getDefense();
-		
-		if (damageAfterBlock < 1) damageAfterBlock = 1;
+		int damageAfterBlock = CombatRules.damageAfterBlock(damage, getDefense());
 		
-		this.currentHealth = currentHealth - damageAfterBlock;
+		this.setCurrentHealth(currentHealth - damageAfterBlock);
 		
 		return damageAfterBlock;
 	}
@@ -123,16 +175,8 @@ public abstract class Character {
 	 */
 	protected void weakened(int weakenModifier) {
 		setCurrentHealth(getCurrentHealth() - weakenModifier);
-		
-		if ((getDefense() - weakenModifier) > 0)
-			setDefense(getDefense() - weakenModifier);
-		else
-			setDefense(0);
-		
-		if ((getSearch() - weakenModifier) > 0)
-			setSearch(getSearch() - weakenModifier);
-		else
-			setSearch(0);
+		setDefense(CombatRules.weakenedStat(getDefense(), weakenModifier));
+		setSearch(CombatRules.weakenedStat(getSearch(), weakenModifier));
 	}
 	
 	/**
@@ -177,31 +221,64 @@ public abstract class Character {
 		setWeakenModifier(getWeakenModifier() + amount);
 	}
 	
+	/**
+	 * Contains a list of possible actions that can be taken by the Character.
+	 * Finds the chosen action within the list of actions 
+	 * available to this character and executes that action.
+	 * Child classes can override this to add actions of their own.
+	 * @param opponent the opponent of this character
+	 * @param action the action to be executed
+	 * @return the result of the action
+	 */
+	protected ActionResult executeAction(Character opponent, Action action) {
+		ActionResult actionResult;
+		
+		switch (action) {
+			case ATTACK:
+				actionResult = executeActionAttack(opponent);
+				break;
+			case DEFEND:
+				actionResult = executeActionDefend();
+				break;
+			case SEARCH:
+				actionResult = executeActionSearch();
+				break;
+			case WEAKEN:
+				actionResult = executeActionWeaken(opponent);
+				break;
+			// The action is not available to this character, no action is made.
+			default:
+				actionResult = new ActionResult(this, opponent, action, ActionOutcome.INVALID, 0);
+		}
+		
+		return actionResult;
+	}
+	
 	/**
 	 * This method executes an action made by this character.
 	 * Calls the take damage method. 
 	 * Has a variable that allows for the attack power to be modified
 	 * @param Opponent
-	 * @return A String describing the Attack action
+	 * @return the result of the Attack action, with the damage dealt
 	 */
-	protected String executeActionAttack(Character Opponent) {
+	protected ActionResult executeActionAttack(Character Opponent) {
 		int attackPower = getAttack(); //added this to have critical strikes to be made later
 		
 		int damageAfterBlock = Opponent.takeDamage(attackPower);
 		
-		return getName() + " attacks! (" + damageAfterBlock + " damage dealt)";
+		return new ActionResult(this, Opponent, Action.ATTACK, ActionOutcome.DAMAGE, damageAfterBlock);
 	}
 	
 	/**
 	 * This method executes an action made by this character.
 	 * Increases the defense value by an amount equal to the character's IncreaseDefenseAmount. 
 	 * @param Opponent
-	 * @return A String describing the Defend action
+	 * @return the result of the Defend action, with the defense gained
 	 */
-	protected String executeActionDefend() {
+	protected ActionResult executeActionDefend() {
 		this.increaseDefense(this.getIncreaseDefenseAmount()); // Use getter, or make final, or neither
 		
-		return getName() + " defends! (+" + getIncreaseDefenseAmount() + " defense)";
+		return new ActionResult(this, null, Action.DEFEND, ActionOutcome.DEFENSE, getIncreaseDefenseAmount());
 	}
 
 	/**
@@ -210,70 +287,129 @@ public abstract class Character {
 	 * The value of the buff is also random, with the range of this random value 
 	 * equal to the character's search power.
 	 * @param Opponent
-	 * @return A String describing what buff was gained through the Search action
+	 * @return the result of the Search action, with what buff was gained
 	 */
-	protected String executeActionSearch() {
+	protected ActionResult executeActionSearch() {
 
-		Random randomActionSearch = new Random();
+		MatchRandom randomActionSearch = getMatchContext().getRandom();
 		
 		// Random number from 0 to 99
-		int randomValue = randomActionSearch.nextInt(100);
-
-		int searchModifier = 1;
-		
-		int searchModifierRange = getSearch();
+		int randomValue = randomActionSearch.nextInt(CombatRules.SEARCH_ROLL_RANGE);
 		
 		// Search modifier is a random number between 1 and the character's search stat
-		if (searchModifierRange > 0) 
-			searchModifier += randomActionSearch.nextInt(searchModifierRange);
-		
-		// 2% chance to increase all statistics and current health
-		if (randomValue < 2) {
-			increaseCurrentHealth(searchModifier * 3);
-			increaseAttack(searchModifier);
-			increaseDefense(searchModifier);
-			increaseSearch(searchModifier);
-			return getName() + " found the jackpot!" + "(+" + searchModifier + " to all stats, +" + searchModifier * 3 + " health)";
-			
-		}
-		
-		// 10% chance to increase Search
-		else if (randomValue < 12) {
-			increaseSearch(searchModifier);
-			return getName() + " found a better magnifying glass! " + "(+" + searchModifier + " search)";
-		}
+		int searchModifier = CombatRules.rollSearchModifier(randomActionSearch, getSearch());
 		
-		// 10% chance to increase weaken modifier
-		else if (randomValue < 22) {
-			increaseWeakenModifier(1);
-			return getName() + " found some poison! " + "(+" + 1 + " to weakens)";
-		}
-		
-		// 28% chance to increase current health
-		else if (randomValue < 50) {
-			increaseCurrentHealth(searchModifier * 3);
-			return getName() + " found a healing potion! " + "(+" + searchModifier * 3 + " health)";
-		}
+		return applySearchOutcome(CombatRules.searchOutcome(randomValue), searchModifier);
+	}
+	
+	/**
+	 * Gives this character the buff found by a search.
+	 * Kept apart from the random rolls so a recorded search can be applied again.
+	 * @param searchOutcome what was found, one of the SEARCH_ constants of CombatRules
+	 * @param searchModifier the value of the buff
+	 * @return the result of the Search action, with what buff was gained
+	 */
+	protected ActionResult applySearchOutcome(int searchOutcome, int searchModifier) {
+		int healthGained = searchModifier * CombatRules.HEALTH_PER_SEARCH_POINT;
 		
-		// 50% chance to increase attack
-		else if (randomValue < 100) {
-			increaseAttack(searchModifier);
-			return getName() + " found new weapon! " + "(+" + searchModifier + " attack)";
+		switch (searchOutcome) {
+			// 2% chance to increase all statistics and current health
+			case CombatRules.SEARCH_JACKPOT:
+				increaseCurrentHealth(healthGained);
+				increaseAttack(searchModifier);
+				increaseDefense(searchModifier);
+				increaseSearch(searchModifier);
+				return new ActionResult(this, null, Action.SEARCH, ActionOutcome.JACKPOT, searchModifier);
+			
+			// 10% chance to increase Search
+			case CombatRules.SEARCH_MAGNIFYING_GLASS:
+				increaseSearch(searchModifier);
+				return new ActionResult(this, null, Action.SEARCH, ActionOutcome.MAGNIFYING_GLASS, searchModifier);
+			
+			// 10% chance to increase weaken modifier
+			case CombatRules.SEARCH_POISON:
+				increaseWeakenModifier(CombatRules.POISON_WEAKEN_INCREASE);
+				return new ActionResult(this, null, Action.SEARCH, ActionOutcome.POISON, CombatRules.POISON_WEAKEN_INCREASE);
+			
+			// 28% chance to increase current health
+			case CombatRules.SEARCH_HEALING_POTION:
+				increaseCurrentHealth(healthGained);
+				return new ActionResult(this, null, Action.SEARCH, ActionOutcome.HEALING_POTION, healthGained);
+			
+			// 50% chance to increase attack
+			case CombatRules.SEARCH_WEAPON:
+				increaseAttack(searchModifier);
+				return new ActionResult(this, null, Action.SEARCH, ActionOutcome.WEAPON, searchModifier);
+			
+			default:
+				return new ActionResult(this, null, Action.SEARCH, ActionOutcome.INVALID, 0);
 		}
-		
-		else
-			return "Random value out of range! ";
 	}
 	
 	/**
 	 * This method executes an action made by this character.
 	 * Calls the weakened method on the opponent using this character's weakenModifier
 	 * @param Opponent
-	 * @return A String describing which of the opponents stats were reduced and by how much
+	 * @return the result of the Weaken action, with the amount the opponent's stats were reduced by
 	 */
-	protected String executeActionWeaken(Character Opponent) {
+	protected ActionResult executeActionWeaken(Character Opponent) {
 		Opponent.weakened(getWeakenModifier());
-		return getName() + " Weakens " + Opponent.getName() + " (-" + getWeakenModifier() + " to enemy Defense, Search, and Health)";
+		return new ActionResult(this, Opponent, Action.WEAKEN, ActionOutcome.WEAKEN, getWeakenModifier());
+	}
+	
+	/**
+	 * Writes everything needed to restore this character into a checkpoint.
+	 * Child classes that keep more state write it after the state of their parent.
+	 * The name is written as its length in bytes followed by its UTF-8 bytes, with a length of -1 for no name.
+	 * @param buffer the buffer to write into
+	 */
+	public void saveState(ByteBuffer buffer) {
+		if (name == null) {
+			buffer.putShort((short) -1);
+		}
+		else {
+			byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+			buffer.putShort((short) nameBytes.length);
+			buffer.put(nameBytes);
+		}
+		
+		buffer.putInt(baseHealth);
+		buffer.putInt(attack);
+		buffer.putInt(defense);
+		buffer.putInt(search);
+		buffer.putInt(toughness);
+		buffer.putInt(currentHealth);
+		buffer.putInt(weakenModifier);
+	}
+	
+	/**
+	 * Restores this character from a checkpoint written by saveState.
+	 * The stats are set as they were saved, without the checks of the setters,
+	 * since a weakened character can be in a state no setter would allow.
+	 * @param buffer the buffer to read from
+	 */
+	public void loadState(ByteBuffer buffer) {
+		int nameLength = buffer.getShort();
+		
+		if (nameLength < 0) {
+			name = null;
+		}
+		else {
+			byte[] nameBytes = new byte[nameLength];
+			buffer.get(nameBytes);
+			name = new String(nameBytes, StandardCharsets.UTF_8);
+		}
+		
+		baseHealth = buffer.getInt();
+		attack = buffer.getInt();
+		defense = buffer.getInt();
+		search = buffer.getInt();
+		toughness = buffer.getInt();
+		currentHealth = buffer.getInt();
+		weakenModifier = buffer.getInt();
+		
+		if (statJournal != null)
+			statJournal.snapshot();
 	}
 	
 	/**
@@ -306,6 +442,9 @@ public abstract class Character {
 	 * @param currentHealth the currentHealth to set
 	 */
 	protected void setCurrentHealth(int currentHealth) {
+		if (statJournal != null)
+			statJournal.record(StatJournal.STAT_CURRENT_HEALTH, currentHealth - this.currentHealth);
+		
 		this.currentHealth = currentHealth;
 	}
 	
@@ -339,8 +478,12 @@ public abstract class Character {
 	 * @param health the health to set
 	 */
 	protected void setBaseHealth(int health) {
-		if (health > 0)
+		if (health > 0) {
+			if (statJournal != null)
+				statJournal.record(StatJournal.STAT_BASE_HEALTH, health - this.baseHealth);
+			
 			this.baseHealth = health;
+		}
 	}
 	
 	/**
@@ -357,8 +500,12 @@ public abstract class Character {
 	 * @param attack the attack to set
 	 */
 	protected void setAttack(int attack) {
-		if (attack >=  0)
+		if (attack >=  0) {
+			if (statJournal != null)
+				statJournal.record(StatJournal.STAT_ATTACK, attack - this.attack);
+			
 			this.attack = attack;
+		}
 	}
 
 	/**
@@ -375,8 +522,12 @@ public abstract class Character {
 	 * @param defense the defense to set
 	 */
 	protected void setDefense(int defense) {
-		if (defense >=  0)
+		if (defense >=  0) {
+			if (statJournal != null)
+				statJournal.record(StatJournal.STAT_DEFENSE, defense - this.defense);
+			
 			this.defense = defense;
+		}
 	}
 	
 	/**
@@ -393,8 +544,12 @@ public abstract class Character {
 	 * @param search the search to set
 	 */
 	protected void setSearch(int search) {
-		if (search >= 0)
+		if (search >= 0) {
+			if (statJournal != null)
+				statJournal.record(StatJournal.STAT_SEARCH, search - this.search);
+			
 			this.search = search;
+		}
 	}
 	
 	/**
@@ -411,8 +566,12 @@ public abstract class Character {
 	 * @param toughness the toughness to set
 	 */
 	protected void setToughness(int toughness) {
-		if (toughness >=  0)
+		if (toughness >=  0) {
+			if (statJournal != null)
+				statJournal.record(StatJournal.STAT_TOUGHNESS, toughness - this.toughness);
+			
 			this.toughness = toughness;
+		}
 	}
 	
 	/**
@@ -427,8 +586,50 @@ public abstract class Character {
 	 * @param weakenModifier
 	 */
 	protected void setWeakenModifier(int weakenModifier) {
-		if (weakenModifier >=  0)
+		if (weakenModifier >=  0) {
+			if (statJournal != null)
+				statJournal.record(StatJournal.STAT_WEAKEN_MODIFIER, weakenModifier - this.weakenModifier);
+			
 			this.weakenModifier = weakenModifier;
+		}
+	}
+	
+	/**
+	 * @return the statJournal, null if the changes of this character are not recorded
+	 */
+	public StatJournal getStatJournal() {
+		return statJournal;
+	}
+	
+	/**
+	 * Records every change to the stats of this character into a journal, starting with a snapshot of the stats as they are.
+	 * Should be set between turns. A journal can only record one character.
+	 * @param statJournal the statJournal to set, or null to stop recording
+	 */
+	public void setStatJournal(StatJournal statJournal) {
+		if (statJournal != null)
+			statJournal.attach(this);
+		
+		this.statJournal = statJournal;
+	}
+	
+	/**
+	 * Gets the context of the match this character is in.
+	 * @return the matchContext
+	 */
+	public MatchContext getMatchContext() {
+		return matchContext;
+	}
+	
+	/**
+	 * Sets the context of the match this character is in.
+	 * Called when a character that was created outside of a match joins one.
+	 * Can not be null.
+	 * @param matchContext the matchContext to set
+	 */
+	public void setMatchContext(MatchContext matchContext) {
+		if (matchContext != null)
+			this.matchContext = matchContext;
 	}
 	
 
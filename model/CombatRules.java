@@ -0,0 +1,229 @@
+package model;
+
+/**
+ * Contains the rules of combat as static methods that only work on numbers.
+ * The Character class uses these rules on its own statistics, 
+ * and the bulk simulators use the same rules on arrays of statistics,
+ * so both always follow the same rules.
+ * @author Jason Osmond
+ */
+public final class CombatRules {
+	
+	//====== [CONSTANTS] =======	
+	
+	/** The range of the roll made when searching, rolls are from 0 to 99. */
+	public static final int SEARCH_ROLL_RANGE = 100;
+	
+	/** The amount of health gained for every search modifier point of a healing potion or jackpot. */
+	public static final int HEALTH_PER_SEARCH_POINT = 3;
+	
+	/** The amount the weaken modifier increases by when finding poison. */
+	public static final int POISON_WEAKEN_INCREASE = 1;
+	
+	// Search outcomes, in order of their roll ranges
+	public static final int SEARCH_JACKPOT = 0;
+	public static final int SEARCH_MAGNIFYING_GLASS = 1;
+	public static final int SEARCH_POISON = 2;
+	public static final int SEARCH_HEALING_POTION = 3;
+	public static final int SEARCH_WEAPON = 4;
+	public static final int SEARCH_OUTCOME_COUNT = 5;
+	
+	/** The roll below which each search outcome happens, indexed by outcome. */
+	private static final int[] SEARCH_ROLL_LIMITS = {2, 12, 22, 50, 100};
+	
+	// Enemy stat points, in the order returned by allocateEnemyPoints
+	public static final int POINT_ATTACK = 0;
+	public static final int POINT_DEFENSE = 1;
+	public static final int POINT_SEARCH = 2;
+	public static final int POINT_TOUGHNESS = 3;
+	public static final int POINT_TYPES = 4;
+	
+	/** The amount attack and defense increase by for each enemy stat point. */
+	public static final int ENEMY_POINT_VALUE = 2;
+	
+	/** Up to this many enemy stat points are rolled 32 at a time, more are drawn from binomial distributions. */
+	private static final int PACKED_POINT_LIMIT = 1024;
+	private static final int POINTS_PER_LONG = 32;
+	private static final long LOW_BITS = 0x5555555555555555L;
+	
+	//====== [CONSTRUCTORS] =======	
+	
+	/**
+	 * Only has static methods, can not be created.
+	 */
+	private CombatRules() {
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Gets the health a character starts with.
+	 * Each point of toughness adds 5% to the base health.
+	 * @param baseHealth
+	 * @param toughness
+	 * @return the starting health
+	 */
+	public static int startingHealth(int baseHealth, int toughness) {
+		float toughnessModifier = 0.05f * toughness;
+		
+		return Math.round(baseHealth * (toughnessModifier + 1));
+	}
+	
+	/**
+	 * Gets the damage taken from an attack.
+	 * The damage is reduced by the defense, but is always at least 1.
+	 * @param damage the attack power
+	 * @param defense the defense of the character being attacked
+	 * @return the damage after block
+	 */
+	public static int damageAfterBlock(int damage, int defense) {
+		int damageAfterBlock = damage - defense;
+		
+		if (damageAfterBlock < 1) damageAfterBlock = 1;
+		
+		return damageAfterBlock;
+	}
+	
+	/**
+	 * Gets the value of a defense or search stat after being weakened.
+	 * The stat can not be reduced past 0.
+	 * @param stat the current value of the stat
+	 * @param weakenModifier the weaken modifier of the opponent
+	 * @return the weakened value of the stat
+	 */
+	public static int weakenedStat(int stat, int weakenModifier) {
+		if ((stat - weakenModifier) > 0)
+			return stat - weakenModifier;
+		else
+			return 0;
+	}
+	
+	/**
+	 * Finds what was found by a search roll.
+	 * 2% jackpot, 10% magnifying glass, 10% poison, 28% healing potion and 50% weapon.
+	 * @param roll a roll from 0 to 99
+	 * @return one of the SEARCH_ constants
+	 */
+	public static int searchOutcome(int roll) {
+		int outcome = SEARCH_JACKPOT;
+		
+		while (roll >= SEARCH_ROLL_LIMITS[outcome])
+			outcome++;
+		
+		return outcome;
+	}
+	
+	/**
+	 * Gets the chance of a search outcome.
+	 * @param outcome one of the SEARCH_ constants
+	 * @return the chance, between 0 and 1
+	 */
+	public static double searchOutcomeChance(int outcome) {
+		int lowerLimit = (outcome == 0) ? 0 : SEARCH_ROLL_LIMITS[outcome - 1];
+		
+		return (SEARCH_ROLL_LIMITS[outcome] - lowerLimit) / (double) SEARCH_ROLL_RANGE;
+	}
+	
+	/**
+	 * Rolls the search modifier, a random number between 1 and the search stat.
+	 * If the search stat is 0 the modifier is 1.
+	 * @param random the random number generator of the match
+	 * @param search the search stat of the character
+	 * @return the search modifier
+	 */
+	public static int rollSearchModifier(MatchRandom random, int search) {
+		int searchModifier = 1;
+		
+		if (search > 0)
+			searchModifier += random.nextInt(search);
+		
+		return searchModifier;
+	}
+	
+	/**
+	 * Gets the number of stat points an enemy of a level can spend.
+	 * @param level the level of the enemy
+	 * @return the points to spend
+	 */
+	public static int enemyPointBuy(int level) {
+		return (int) (EnemyCharacter.BASE_TOTAL_STAT_VALUE + (Math.ceil(level/3)));
+	}
+	
+	/**
+	 * Randomly spends an enemy's stat points.
+	 * Each point has the same chance to go into attack, defense, search or toughness.
+	 * Both ways of spending the points give exactly the same distribution as rolling for every point,
+	 * but the time they take grows very slowly or not at all with the number of points.
+	 * @param random the random number generator of the match
+	 * @param pointBuy the number of points to spend
+	 * @param points the array the points are counted in, indexed by the POINT_ constants
+	 */
+	public static void allocateEnemyPoints(MatchRandom random, int pointBuy, int[] points) {
+		if (pointBuy <= PACKED_POINT_LIMIT)
+			allocatePackedPoints(random, pointBuy, points);
+		else
+			allocateBinomialPoints(random, pointBuy, points);
+	}
+	
+	/**
+	 * Rolls the points 32 at a time.
+	 * Every 2 bits of a random long are one roll of 0 to 3, 
+	 * and the rolls of each value are counted with bit counts instead of one by one.
+	 * @param random
+	 * @param pointBuy
+	 * @param points
+	 */
+	private static void allocatePackedPoints(MatchRandom random, int pointBuy, int[] points) {
+		int attack = 0;
+		int defense = 0;
+		int search = 0;
+		int toughness = 0;
+		
+		for (int remaining = pointBuy; remaining > 0; remaining -= POINTS_PER_LONG) {
+			long rolls = random.nextLong();
+			
+			// Mask of the low bit of every roll that is used
+			long lanes = LOW_BITS;
+			if (remaining < POINTS_PER_LONG)
+				lanes &= (1L << (2 * remaining)) - 1;
+			
+			long low = rolls & lanes;
+			long high = (rolls >>> 1) & lanes;
+			
+			int threes = Long.bitCount(high & low);
+			int twos = Long.bitCount(high & ~low);
+			int ones = Long.bitCount(~high & low);
+			
+			toughness += threes;
+			search += twos;
+			defense += ones;
+			attack += Long.bitCount(lanes) - threes - twos - ones;
+		}
+		
+		points[POINT_ATTACK] = attack;
+		points[POINT_DEFENSE] = defense;
+		points[POINT_SEARCH] = search;
+		points[POINT_TOUGHNESS] = toughness;
+	}
+	
+	/**
+	 * Draws the number of points in each stat at once:
+	 * attack gets a binomial share of all the points with a 1 in 4 chance,
+	 * defense a share of the rest with a 1 in 3 chance, search half of what is left 
+	 * and toughness the remainder. Takes about the same time for any number of points.
+	 * @param random
+	 * @param pointBuy
+	 * @param points
+	 */
+	private static void allocateBinomialPoints(MatchRandom random, int pointBuy, int[] points) {
+		int remaining = pointBuy;
+		
+		for (int type = 0; type < POINT_TYPES - 1; type++) {
+			int typesLeft = POINT_TYPES - type;
+			points[type] = BinomialDistribution.sample(random, remaining, 1.0 / typesLeft);
+			remaining -= points[type];
+		}
+		
+		points[POINT_TYPES - 1] = remaining;
+	}
+}
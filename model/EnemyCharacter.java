@@ -1,7 +1,8 @@
 package model;
-import java.util.Random;
 
-import application.TurnTracker;
+import java.nio.ByteBuffer;
+
+import jdk.jfr.EventType;
 
 /**
  * An abstract class that is also the child of Character
@@ -15,13 +16,20 @@ public abstract class EnemyCharacter extends Character {
 	//====== [CONSTANTS] =======	
 	public static final int BASE_TOTAL_STAT_VALUE = 8;
 	public static final int DEFAULT_BASEHEALTH = 30;
+	public static final int DEFAULT_INCREASE_DEFENSE_AMOUNT = 2;
+	
+	private static final EventType SPAWN_EVENT = EventType.getEventType(SpawnEvent.class);
 
 	
 	//====== [INSTANCE VARIABLES] =======	
 	
-	private static int totalEnemyCount = 0;
-	private int increaseDefenseAmount = 2; 
+	private int increaseDefenseAmount = DEFAULT_INCREASE_DEFENSE_AMOUNT; 
 	private int level;
+	private int robotNumber;
+	
+	// Reused by every spawn, created by the first call to setDefaultStats 
+	// since that call is made by the Character constructor, before the fields of this class are initialized
+	private int[] points;
 	
 	//====== [CONSTRUCTORS] =======	
 	
@@ -29,11 +37,26 @@ public abstract class EnemyCharacter extends Character {
 	 * Calls constructor in parent class
 	 * This will eventually call the setDefaultStats() method from this class
 	 * which will set the stats to random values based on the turn number.
-	 * Increases the totalEnemyCount by 1.
+	 * Uses the shared MatchContext.
 	 */
 	public EnemyCharacter() {
-		super();		
-		setTotalEnemyCount(getTotalEnemyCount() + 1);
+		this(MatchContext.getSharedContext());
+	}
+	
+	/**
+	 * Calls constructor in parent class
+	 * This will eventually call the setDefaultStats() method from this class
+	 * which will set the stats to random values based on the turn number of the match.
+	 * Increases the totalEnemyCount of the match by 1 and numbers the robot.
+	 * @param matchContext the context of the match this enemy is in
+	 */
+	public EnemyCharacter(MatchContext matchContext) {
+		super(matchContext);		
+		matchContext.setTotalEnemyCount(matchContext.getTotalEnemyCount() + 1);
+		countRobot();
+		
+		if (SPAWN_EVENT.isEnabled())
+			commitSpawnEvent(new SpawnEvent(), false);
 	}
 	
 	//====== [ABSTRACT METHODS] =======	
@@ -42,109 +65,150 @@ public abstract class EnemyCharacter extends Character {
 	 * Abstract call for the takeAction method
 	 * Determines which of the actions will be executed
 	 */
-	public abstract String takeAction(Character playerCharacter);
+	public abstract ActionResult takeAction(Character playerCharacter);
+	
+	/**
+	 * Abstract call for the start of the robot's name, such as "Random Robot"
+	 * @return the name of this type of enemy
+	 */
+	protected abstract String getNamePrefix();
 	
 	//====== [METHODS] =======	
 	
 	/**
-	 * The default way to assign the stats of EnemyCharacters
-	 * The amount of points a EnenmtyCharacter can assign to its stats
-	 * scales with its level (in this iteration, level = turnCount).
-	 * The allocation of stats is randomly determined
+	 * Turns this enemy into a new enemy, as if it had just been created in its match.
+	 * The stats are rolled again for the current turn of the match, 
+	 * the same way the constructor rolls them, the totalEnemyCount of the match is increased by 1
+	 * and the robot gets a new number.
+	 * Reusing a slain enemy this way does not create any objects, 
+	 * so endless games do not create garbage for every enemy.
 	 */
-	protected void setDefaultStats() {
-		setLevel(TurnTracker.getTurn() + 1);
-		Random randomStat = new Random();
-		int pointBuy = (int) (BASE_TOTAL_STAT_VALUE + (Math.ceil(getLevel()/3)));	
+	public void respawn() {
+		SpawnEvent event = null;
+		if (SPAWN_EVENT.isEnabled()) {
+			event = new SpawnEvent();
+			event.begin();
+		}
 		
-		// Initialize statistics
-		setBaseHealth(EnemyCharacter.DEFAULT_BASEHEALTH);
-		setAttack(0);
-		setDefense(0);
-		setSearch(0);	
-		setToughness(0);
-				
-		int randomValue;
+		setWeakenModifier(1);
+		setIncreaseDefenseAmount(DEFAULT_INCREASE_DEFENSE_AMOUNT);
+		setDefaultStats();
+		initializeCurrentHealth();
 		
-		// This loop will get slower the more enemies are killed,
-		// Find a better way of finding random values without having skewed results
-		for (int count = 0; count < pointBuy; count++ ) {
-			randomValue = randomStat.nextInt(4);
-			
-			// Points in attack and defense increase stats by 2
-			if (randomValue == 0) {
-				increaseAttack(2);
-			}
-			else if (randomValue == 1) {
-				increaseDefense(2);
-			}
-			else if (randomValue == 2) {
-				increaseSearch(1);
-			}
-			else {
-				setToughness(getToughness() + 1);
-			}
-		}		
+		getMatchContext().setTotalEnemyCount(getMatchContext().getTotalEnemyCount() + 1);
+		countRobot();
+		
+		if (event != null)
+			commitSpawnEvent(event, true);
 	}
 	
 	/**
-	 * Contains a list of possible actions that can be taken by the EnemyCharacter.
-	 * Finds the chosen action within the list of actions 
-	 * available to this character and executes that action.
-	 * If the action is not present in the list, the takeAction method 
-	 * is called again, so the AI can choose another action. 
-	 * @param opponent the opponent of this character
-	 * @param action the action to be executed
-	 * @return A String describing the outcome of the action
-	 */
-	protected String executeAction(Character opponent, String action) {
-		String actionReport = "No action was made";
-		// Attack
-		if (action.equals("a") || action.equals("attack")) {
-			actionReport = executeActionAttack(opponent);
-		}
-		
-		// Defend
-		else if (action.equals("d") || action.equals("defend")) {
-			actionReport = executeActionDefend();
-		}
-		
-		// Search
-		else if (action.equals("s") || action.equals("search")) {
-			actionReport = executeActionSearch();		
-		}
-		
-		//Weaken
-		else if (action.equals("w") || action.equals("weaken")) {
-			actionReport = executeActionWeaken(opponent);	
-
-		}
-		
-		// The action was invalid, no action is made.
-		else {
-			System.out.println("Invalid Action");
-		}
-		
-		return actionReport;
+	 * Gives this robot its number, and clears the name, it is only made again when it is asked for.
+	 */
+	private void countRobot() {
+		robotNumber = nextRobotNumber();
+		setName(null);
 	}
 	
-	//====== [GETTER AND SETTER METHODS] =======	
+	/**
+	 * Gets the number of a robot that was just created or respawned.
+	 * Robots are numbered by the totalEnemyCount of the match, unless a child class counts them itself.
+	 * @return the number of the robot
+	 */
+	protected int nextRobotNumber() {
+		return getMatchContext().getTotalEnemyCount();
+	}
+	
+	/**
+	 * Writes the stats of this enemy, followed by its level, the amount its defense is increased by
+	 * and the number of the robot.
+	 * @param buffer the buffer to write into
+	 */
+	@Override
+	public void saveState(ByteBuffer buffer) {
+		super.saveState(buffer);
+		buffer.putInt(level);
+		buffer.putInt(increaseDefenseAmount);
+		buffer.putInt(robotNumber);
+	}
 	
 	/**
-	 * Sets the totalEnemyCount
-	 * @param enemyCount
+	 * Restores this enemy from a checkpoint written by saveState.
+	 * @param buffer the buffer to read from
 	 */
-	public static void setTotalEnemyCount( int enemyCount) {
-		if (enemyCount >= 0)
-			totalEnemyCount = enemyCount;
+	@Override
+	public void loadState(ByteBuffer buffer) {
+		super.loadState(buffer);
+		level = buffer.getInt();
+		increaseDefenseAmount = buffer.getInt();
+		robotNumber = buffer.getInt();
 	}
 	
 	/**
-	 * Gets the total number of enemies created.
-	 * @return the enemyCount
+	 * Records the spawn of this enemy for the Java Flight Recorder.
+	 * Only called when the event is enabled in a recording, 
+	 * the fields of the event are only filled in if it is going to be recorded.
+	 * @param event the event of the spawn
+	 * @param respawned true if this enemy was respawned, false if it was just created
 	 */
-	public static int getTotalEnemyCount() {
-		return totalEnemyCount;
+	private void commitSpawnEvent(SpawnEvent event, boolean respawned) {
+		if (!event.shouldCommit())
+			return;
+		
+		MatchContext matchContext = getMatchContext();
+		event.turn = matchContext.getTurn();
+		event.enemyType = getClass();
+		event.level = getLevel();
+		event.respawned = respawned;
+		event.enemyNumber = matchContext.getTotalEnemyCount();
+		event.attack = getAttack();
+		event.defense = getDefense();
+		event.search = getSearch();
+		event.toughness = getToughness();
+		event.commit();
+	}
+	
+	/**
+	 * The default way to assign the stats of EnemyCharacters
+	 * The amount of points a EnenmtyCharacter can assign to its stats
+	 * scales with its level (in this iteration, level = turnCount).
+	 * The allocation of stats is randomly determined
+	 */
+	protected void setDefaultStats() {
+		setLevel(getMatchContext().getTurn() + 1);
+		MatchRandom randomStat = getMatchContext().getRandom();
+		int pointBuy = CombatRules.enemyPointBuy(getLevel());	
+		if (points == null)
+			points = new int[CombatRules.POINT_TYPES];
+		
+		CombatRules.allocateEnemyPoints(randomStat, pointBuy, points);
+		
+		// Points in attack and defense increase stats by 2
+		setBaseHealth(EnemyCharacter.DEFAULT_BASEHEALTH);
+		setAttack(points[CombatRules.POINT_ATTACK] * CombatRules.ENEMY_POINT_VALUE);
+		setDefense(points[CombatRules.POINT_DEFENSE] * CombatRules.ENEMY_POINT_VALUE);
+		setSearch(points[CombatRules.POINT_SEARCH]);	
+		setToughness(points[CombatRules.POINT_TOUGHNESS]);
+	}
+	
+	//====== [GETTER AND SETTER METHODS] =======	
+	
+	/**
+	 * Gets the name of the robot, "[name prefix] [number] [Lvl [level]]" unless it was renamed.
+	 * The name is only built the first time it is asked for, 
+	 * so headless games never build the names of their enemies.
+	 * @return the name
+	 */
+	@Override
+	public String getName() {
+		String name = super.getName();
+		
+		if (name == null) {
+			name = getNamePrefix() + " " + robotNumber + " [Lvl " + getLevel()  + "]";
+			setName(name);
+		}
+		
+		return name;
 	}
 	
 	/**
@@ -0,0 +1,285 @@
+package model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A child class of EnemyCharacter.
+ * This enemy searches the actions ahead with an expectimax search before picking attack, defend, search or weaken,
+ * expecting its opponent to act randomly the way a RandomEnemy does.
+ * 
+ * The search goes deeper two actions at a time until the time budget of the move is used up,
+ * and the action of the deepest search that finished is taken. The four actions are searched on the common
+ * ForkJoinPool at the same time, unless the enemy already runs in a ForkJoinPool, such as in a BatchSimulator, 
+ * where the other threads are busy with other matches.
+ * 
+ * A budget of 0 searches to the full depth every move, which takes longer but makes the same choices in every run
+ * of a seeded match. A shared table would not: it holds positions stored by earlier matches and other threads,
+ * and a deeper value found there changes the value of the move. So without a budget the enemy uses its own table,
+ * cleared before every move, and searches the four actions one after the other.
+ * A checkpoint keeps the enemy's stats and number, but not its search settings.
+ * @author Jason Osmond
+ */
+public class ExpectimaxEnemy extends EnemyCharacter {
+	
+	//====== [CONSTANTS] =======	
+	
+	/** Half a millisecond, so a move with the cost of starting the search still takes less than a millisecond. */
+	public static final long DEFAULT_TIME_BUDGET_NANOS = 500_000;
+	
+	/** The deepest the search goes, in actions of both characters. */
+	public static final int DEFAULT_MAX_DEPTH = 8;
+	
+	/** The next search is expected to take about this many times longer than the last one. */
+	private static final int DEPTH_GROWTH = 8;
+	
+	/** The size of the own table of an enemy without a budget, 1 MB. */
+	private static final int OWN_TABLE_SIZE_BITS = 16;
+	
+	//====== [INSTANCE VARIABLES] =======	
+	
+	private long timeBudgetNanos = DEFAULT_TIME_BUDGET_NANOS;
+	private int maxDepth = DEFAULT_MAX_DEPTH;
+	private boolean parallel = true;
+	
+	// Created by the first move, one search for each action so they can run at the same time
+	private RootSearch[] rootSearches;
+	private int[] root;
+	private int lastDepth;
+	
+	// Only used without a budget, cleared before every move
+	private TranspositionTable ownTable;
+	
+	//====== [CONSTRUCTORS] =======
+	
+	/**
+	 * Calls constructor in parent class
+	 * This will call the setDefaultStats() method from the EnemyCharacter class
+	 * which will set the stats to random values based on the turn number.
+	 * Uses the shared MatchContext and the shared TranspositionTable.
+	 */
+	public ExpectimaxEnemy() {
+		this(MatchContext.getSharedContext());
+	}
+	
+	/**
+	 * Calls constructor in parent class
+	 * This will call the setDefaultStats() method from the EnemyCharacter class
+	 * which will set the stats to random values based on the turn number of the match.
+	 * Searches for half a millisecond each move, using the shared TranspositionTable.
+	 * @param matchContext the context of the match this enemy is in
+	 */
+	public ExpectimaxEnemy(MatchContext matchContext) {
+		super(matchContext);
+	}
+	
+	/**
+	 * Creates an enemy with its own search settings.
+	 * @param matchContext the context of the match this enemy is in
+	 * @param timeBudgetNanos the most time to search each move, 0 to always search to the full depth
+	 * @param maxDepth the deepest the search goes, in actions of both characters, rounded up to an even number
+	 * @param parallel true to search the four actions at the same time when the enemy is not already in a ForkJoinPool
+	 * @param table the table of searched positions, can be shared with other enemies, not used when the budget is 0
+	 */
+	public ExpectimaxEnemy(MatchContext matchContext, long timeBudgetNanos, int maxDepth, boolean parallel, TranspositionTable table) {
+		this(matchContext);
+		
+		if (maxDepth < 1)
+			throw new IllegalArgumentException("The depth must be at least 1");
+		
+		this.timeBudgetNanos = timeBudgetNanos;
+		this.maxDepth = (maxDepth + 1) & ~1;
+		this.parallel = parallel;
+		createSearches(table);
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Searches for the best action against the opponent, then calls the executeAction method passing it as a parameter.
+	 * @param opponent 
+	 * @return the result of the action
+	 */
+	@Override
+	public ActionResult takeAction(Character opponent) {
+		return executeAction(opponent, chooseAction(opponent));
+	}
+	
+	/**
+	 * Searches deeper and deeper until the time budget is used up, or the next search would not finish in time.
+	 * The first search is two actions deep and always finishes, so there always is an action to take.
+	 * @param opponent
+	 * @return the best action found by the deepest search that finished
+	 */
+	public Action chooseAction(Character opponent) {
+		if (rootSearches == null)
+			createSearches(TranspositionTable.shared());
+		if (ownTable != null)
+			ownTable.clear();
+		
+		loadBlock(ExpectimaxSearch.SELF, this);
+		loadBlock(ExpectimaxSearch.OPPONENT, opponent);
+		
+		long startTime = System.nanoTime();
+		long deadline = (timeBudgetNanos > 0) ? startTime + timeBudgetNanos : 0;
+		boolean forked = ownTable == null && parallel && !ForkJoinTask.inForkJoinPool() && ForkJoinPool.getCommonPoolParallelism() > 1;
+		
+		int bestOpcode = Action.ATTACK.getOpcode();
+		lastDepth = 0;
+		
+		for (int depth = 2; depth <= maxDepth; depth += 2) {
+			long iterationStart = System.nanoTime();
+			
+			// The first search has no deadline, so it always finishes
+			searchRoot(depth, (depth == 2) ? 0 : deadline, forked);
+			
+			int iterationBest = -1;
+			double bestValue = Double.NEGATIVE_INFINITY;
+			for (RootSearch rootSearch : rootSearches) {
+				if (rootSearch.search.isAborted()) {
+					iterationBest = -1;
+					break;
+				}
+				if (rootSearch.value > bestValue) {
+					bestValue = rootSearch.value;
+					iterationBest = rootSearch.opcode;
+				}
+			}
+			
+			if (iterationBest < 0)
+				break;
+			
+			bestOpcode = iterationBest;
+			lastDepth = depth;
+			
+			long now = System.nanoTime();
+			if (deadline != 0 && now + (now - iterationStart) * DEPTH_GROWTH - deadline > 0)
+				break;
+		}
+		
+		return Action.fromOpcode(bestOpcode);
+	}
+	
+	/**
+	 * Searches each of the four actions to a depth, at the same time if forked.
+	 * @param depth
+	 * @param deadline the System.nanoTime after which the searches are aborted, 0 for no limit
+	 * @param forked true to search the actions on the common ForkJoinPool
+	 */
+	private void searchRoot(int depth, long deadline, boolean forked) {
+		for (RootSearch rootSearch : rootSearches) {
+			rootSearch.reinitialize();
+			rootSearch.depth = depth;
+			rootSearch.deadline = deadline;
+		}
+		
+		if (forked) {
+			ForkJoinTask.invokeAll(rootSearches);
+		}
+		else {
+			for (RootSearch rootSearch : rootSearches)
+				rootSearch.compute();
+		}
+	}
+	
+	/**
+	 * Creates the search of each action.
+	 * Without a budget the searches share a table of their own instead.
+	 * @param table the table of searched positions shared by the searches
+	 */
+	private void createSearches(TranspositionTable table) {
+		if (timeBudgetNanos == 0) {
+			ownTable = new TranspositionTable(OWN_TABLE_SIZE_BITS);
+			table = ownTable;
+		}
+		
+		root = new int[ExpectimaxSearch.STATE_SIZE];
+		rootSearches = new RootSearch[ExpectimaxSearch.ACTION_CHOICES];
+		
+		for (int opcode = 0; opcode < rootSearches.length; opcode++)
+			rootSearches[opcode] = new RootSearch(new ExpectimaxSearch(table, maxDepth), opcode, root);
+	}
+	
+	/**
+	 * Copies the stats of a character into the root position.
+	 * @param block SELF or OPPONENT
+	 * @param character
+	 */
+	private void loadBlock(int block, Character character) {
+		root[block + ExpectimaxSearch.HEALTH] = character.getCurrentHealth();
+		root[block + ExpectimaxSearch.ATTACK] = character.getAttack();
+		root[block + ExpectimaxSearch.DEFENSE] = character.getDefense();
+		root[block + ExpectimaxSearch.SEARCH] = character.getSearch();
+		root[block + ExpectimaxSearch.WEAKEN] = character.getWeakenModifier();
+		root[block + ExpectimaxSearch.DEFENSE_GAIN] = character.getIncreaseDefenseAmount();
+	}
+	
+	//====== [GETTER METHODS] =======	
+	
+	/**
+	 * @return "Expectimax Robot"
+	 */
+	@Override
+	protected String getNamePrefix() {
+		return "Expectimax Robot";
+	}
+	
+	/**
+	 * @return the depth of the deepest search that finished on the last move, in actions
+	 */
+	public int getLastDepth() {
+		return lastDepth;
+	}
+	
+	/**
+	 * @return the most time searched each move, in nanoseconds, 0 if there is no limit
+	 */
+	public long getTimeBudgetNanos() {
+		return timeBudgetNanos;
+	}
+	
+	/**
+	 * @return the number of positions searched by this enemy
+	 */
+	public long getNodesSearched() {
+		long nodes = 0;
+		
+		if (rootSearches != null)
+			for (RootSearch rootSearch : rootSearches)
+				nodes += rootSearch.search.getNodes();
+		
+		return nodes;
+	}
+	
+	/**
+	 * The search of one action at the root, reused by every move.
+	 */
+	private static final class RootSearch extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final transient ExpectimaxSearch search;
+		private final int opcode;
+		private final int[] root;
+		private int depth;
+		private long deadline;
+		private double value;
+		
+		/**
+		 * @param search the search used by this action
+		 * @param opcode the opcode of the action
+		 * @param root the position searched from, shared by the actions
+		 */
+		private RootSearch(ExpectimaxSearch search, int opcode, int[] root) {
+			this.search = search;
+			this.opcode = opcode;
+			this.root = root;
+		}
+		
+		@Override
+		protected void compute() {
+			value = search.valueOf(root, opcode, depth, deadline);
+		}
+	}
+}
@@ -0,0 +1,286 @@
+package model;
+
+/**
+ * Searches the actions ahead of an ExpectimaxEnemy, on copies of the stats of both characters.
+ * The enemy picks the action with the best value, and the opponent is expected to act the way a RandomEnemy does,
+ * each action with a 25% chance. A search is a chance node with one branch for every outcome of the 
+ * search table of CombatRules, weighted by its chance, and a search modifier of half the search stat.
+ * Positions at the end of the depth are valued by how many turns each character needs to slay the other.
+ * 
+ * One search is only used by one thread at a time, but the searches of one enemy share a TranspositionTable.
+ * @author Jason Osmond
+ */
+final class ExpectimaxSearch {
+	
+	//====== [CONSTANTS] =======	
+	
+	// The stats of a character in a position, the block of the enemy comes first
+	static final int HEALTH = 0;
+	static final int ATTACK = 1;
+	static final int DEFENSE = 2;
+	static final int SEARCH = 3;
+	static final int WEAKEN = 4;
+	static final int DEFENSE_GAIN = 5;
+	static final int BLOCK_SIZE = 6;
+	static final int SELF = 0;
+	static final int OPPONENT = BLOCK_SIZE;
+	static final int STATE_SIZE = 2 * BLOCK_SIZE;
+	
+	static final double WIN = 1;
+	static final double LOSS = -1;
+	
+	/** The number of actions searched, the opcodes of attack, defend, search and weaken. */
+	static final int ACTION_CHOICES = 4;
+	
+	/** The clock is read once every this many nodes, it must be one less than a power of 2. */
+	private static final int CLOCK_INTERVAL = 255;
+	
+	private static final double[] SEARCH_CHANCES = new double[CombatRules.SEARCH_OUTCOME_COUNT];
+	
+	static {
+		for (int outcome = 0; outcome < CombatRules.SEARCH_OUTCOME_COUNT; outcome++)
+			SEARCH_CHANCES[outcome] = CombatRules.searchOutcomeChance(outcome);
+	}
+	
+	//====== [INSTANCE VARIABLES] =======	
+	
+	private final TranspositionTable table;
+	
+	// The position at every ply of the search
+	private final int[] stack;
+	private long deadline;
+	private long nodes;
+	private boolean aborted;
+	
+	//====== [CONSTRUCTORS] =======	
+	
+	/**
+	 * @param table the table of searched positions
+	 * @param maxDepth the deepest the search goes, in actions
+	 */
+	ExpectimaxSearch(TranspositionTable table, int maxDepth) {
+		this.table = table;
+		stack = new int[(maxDepth + 1) * STATE_SIZE];
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Gets the value of the enemy taking an action in a position.
+	 * @param root the position
+	 * @param opcode the opcode of the action
+	 * @param depth the number of actions to search, including this one
+	 * @param deadline the System.nanoTime after which the search is aborted, 0 for no limit
+	 * @return the value, from LOSS to WIN, meaningless if the search was aborted
+	 */
+	double valueOf(int[] root, int opcode, int depth, long deadline) {
+		this.deadline = deadline;
+		aborted = false;
+		System.arraycopy(root, 0, stack, 0, STATE_SIZE);
+		
+		return actionValue(0, SELF, opcode, depth);
+	}
+	
+	/**
+	 * Gets the value of a character taking an action in the position at a ply.
+	 * @param ply
+	 * @param actor SELF or OPPONENT
+	 * @param opcode the opcode of the action
+	 * @param depth the number of actions left to search, including this one
+	 * @return the value
+	 */
+	private double actionValue(int ply, int actor, int opcode, int depth) {
+		int position = ply * STATE_SIZE;
+		int child = position + STATE_SIZE;
+		int mover = (actor == SELF) ? OPPONENT : SELF;
+		
+		if (opcode != Action.SEARCH.getOpcode()) {
+			System.arraycopy(stack, position, stack, child, STATE_SIZE);
+			apply(child, actor, opcode);
+			return positionValue(ply + 1, mover, depth - 1);
+		}
+		
+		double value = 0;
+		for (int outcome = 0; outcome < CombatRules.SEARCH_OUTCOME_COUNT; outcome++) {
+			System.arraycopy(stack, position, stack, child, STATE_SIZE);
+			applySearch(child + actor, outcome);
+			value += SEARCH_CHANCES[outcome] * positionValue(ply + 1, mover, depth - 1);
+		}
+		
+		return value;
+	}
+	
+	/**
+	 * Gets the value of the position at a ply.
+	 * The enemy takes its best action, the opponent takes each action with the same chance.
+	 * @param ply
+	 * @param mover the character acting next, SELF or OPPONENT
+	 * @param depth the number of actions left to search
+	 * @return the value
+	 */
+	private double positionValue(int ply, int mover, int depth) {
+		int position = ply * STATE_SIZE;
+		
+		// Only the target of an action can be slain by it, so both are never slain at once
+		if (stack[position + SELF + HEALTH] <= 0)
+			return LOSS;
+		if (stack[position + OPPONENT + HEALTH] <= 0)
+			return WIN;
+		if (depth == 0)
+			return evaluate(position);
+		
+		if ((++nodes & CLOCK_INTERVAL) == 0 && deadline != 0 && System.nanoTime() - deadline > 0)
+			aborted = true;
+		if (aborted)
+			return 0;
+		
+		long key = hash(position, mover);
+		float cached = table.probe(key, depth);
+		if (cached == cached)
+			return cached;
+		
+		double value;
+		if (mover == SELF) {
+			value = LOSS;
+			for (int opcode = 0; opcode < ACTION_CHOICES; opcode++)
+				value = Math.max(value, actionValue(ply, SELF, opcode, depth));
+		}
+		else {
+			value = 0;
+			for (int opcode = 0; opcode < ACTION_CHOICES; opcode++)
+				value += actionValue(ply, OPPONENT, opcode, depth);
+			value /= ACTION_CHOICES;
+		}
+		
+		if (!aborted)
+			table.store(key, depth, (float) value);
+		
+		return value;
+	}
+	
+	/**
+	 * Changes a position the way Character changes the stats when it takes an action other than search.
+	 * @param position the index of the position in the stack
+	 * @param actor SELF or OPPONENT
+	 * @param opcode the opcode of attack, defend or weaken
+	 */
+	private void apply(int position, int actor, int opcode) {
+		int self = position + actor;
+		int target = position + ((actor == SELF) ? OPPONENT : SELF);
+		
+		switch (Action.fromOpcode(opcode)) {
+			case ATTACK:
+				stack[target + HEALTH] -= CombatRules.damageAfterBlock(stack[self + ATTACK], stack[target + DEFENSE]);
+				break;
+			case DEFEND:
+				stack[self + DEFENSE] += stack[self + DEFENSE_GAIN];
+				break;
+			case WEAKEN:
+				int weakenModifier = stack[self + WEAKEN];
+				stack[target + HEALTH] -= weakenModifier;
+				stack[target + DEFENSE] = CombatRules.weakenedStat(stack[target + DEFENSE], weakenModifier);
+				stack[target + SEARCH] = CombatRules.weakenedStat(stack[target + SEARCH], weakenModifier);
+				break;
+			default:
+				break;
+		}
+	}
+	
+	/**
+	 * Changes the stats of a character the way Character.applySearchOutcome does,
+	 * with the search modifier a search is expected to roll.
+	 * @param self the index of the stats of the character in the stack
+	 * @param outcome one of the SEARCH_ constants of CombatRules
+	 */
+	private void applySearch(int self, int outcome) {
+		int searchModifier = Math.max(1, (stack[self + SEARCH] + 1) / 2);
+		int healthGained = searchModifier * CombatRules.HEALTH_PER_SEARCH_POINT;
+		
+		switch (outcome) {
+			case CombatRules.SEARCH_JACKPOT:
+				stack[self + HEALTH] += healthGained;
+				stack[self + ATTACK] += searchModifier;
+				stack[self + DEFENSE] += searchModifier;
+				stack[self + SEARCH] += searchModifier;
+				break;
+			case CombatRules.SEARCH_MAGNIFYING_GLASS:
+				stack[self + SEARCH] += searchModifier;
+				break;
+			case CombatRules.SEARCH_POISON:
+				stack[self + WEAKEN] += CombatRules.POISON_WEAKEN_INCREASE;
+				break;
+			case CombatRules.SEARCH_HEALING_POTION:
+				stack[self + HEALTH] += healthGained;
+				break;
+			case CombatRules.SEARCH_WEAPON:
+				stack[self + ATTACK] += searchModifier;
+				break;
+			default:
+				break;
+		}
+	}
+	
+	/**
+	 * Values a position that is not searched further.
+	 * Compares the attacks each character needs to slay the other, 
+	 * so the value goes up as the enemy gets closer to winning the race, without reaching WIN or LOSS.
+	 * @param position the index of the position in the stack
+	 * @return the value, between LOSS and WIN
+	 */
+	private double evaluate(int position) {
+		int self = position + SELF;
+		int opponent = position + OPPONENT;
+		
+		int turnsToWin = attacksToSlay(stack[opponent + HEALTH], 
+				CombatRules.damageAfterBlock(stack[self + ATTACK], stack[opponent + DEFENSE]));
+		int turnsToLose = attacksToSlay(stack[self + HEALTH], 
+				CombatRules.damageAfterBlock(stack[opponent + ATTACK], stack[self + DEFENSE]));
+		
+		return (double) (turnsToLose - turnsToWin) / (turnsToLose + turnsToWin);
+	}
+	
+	/**
+	 * @param health the health of the target
+	 * @param damage the damage of each attack, at least 1
+	 * @return the number of attacks needed to slay the target
+	 */
+	private static int attacksToSlay(int health, int damage) {
+		return (health + damage - 1) / damage;
+	}
+	
+	/**
+	 * Hashes a position and the character acting next into the key of the TranspositionTable.
+	 * @param position the index of the position in the stack
+	 * @param mover SELF or OPPONENT
+	 * @return the key
+	 */
+	private long hash(int position, int mover) {
+		long hash = mover;
+		
+		for (int stat = position; stat < position + STATE_SIZE; stat++)
+			hash = (hash ^ stack[stat]) * 0x9E3779B97F4A7C15L;
+		
+		// Mixes the high bits into the low bits, which pick the slot of the table
+		hash ^= hash >>> 33;
+		hash *= 0xFF51AFD7ED558CCDL;
+		hash ^= hash >>> 33;
+		
+		return hash;
+	}
+	
+	//====== [GETTER METHODS] =======	
+	
+	/**
+	 * @return true if the last search ran out of time
+	 */
+	boolean isAborted() {
+		return aborted;
+	}
+	
+	/**
+	 * @return the number of positions searched by this search since it was created
+	 */
+	long getNodes() {
+		return nodes;
+	}
+}
@@ -0,0 +1,134 @@
+package model;
+
+/**
+ * Holds the state that belongs to a single match.
+ * Every character in a match shares the same MatchContext, 
+ * which keeps track of the turn number, how many enemies were created
+ * and the random number generator used by the characters.
+ * Since no match state is static, many matches can be ran at the same time
+ * as long as each match has its own MatchContext.
+ * @author Jason Osmond
+ */
+public class MatchContext {
+	
+	//====== [CONSTANTS] =======	
+	
+	/**
+	 * Shared context for characters that were created outside of a match.
+	 * Keeps the old behaviour of the no argument constructors.
+	 */
+	private static final MatchContext SHARED_CONTEXT = new MatchContext();
+	
+	//====== [INSTANCE VARIABLES] =======	
+	
+	private int turn;
+	private int totalEnemyCount;
+	private int randomEnemiesFought;
+	private final MatchRandom random;
+	
+	//====== [CONSTRUCTORS] =======	
+	
+	/**
+	 * Creates a context for a new match with a random seed.
+	 * The turn and all the counters start at 0.
+	 */
+	public MatchContext() {
+		this(MatchRandom.newSeed());
+	}
+	
+	/**
+	 * Creates a context for a new match.
+	 * The turn and all the counters start at 0.
+	 * Two AI versus AI matches with the same seed play out exactly the same.
+	 * @param seed the seed of the match's random number generator
+	 */
+	public MatchContext(long seed) {
+		random = new MatchRandom(seed);
+		setTurn(0);
+		setTotalEnemyCount(0);
+		setRandomEnemiesFought(0);
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Gets the context used by characters that were not given one.
+	 * This context is shared, so it should not be used by matches that run in parallel.
+	 * @return the shared context
+	 */
+	public static MatchContext getSharedContext() {
+		return SHARED_CONTEXT;
+	}
+	
+	//====== [GETTER AND SETTER METHODS] =======	
+	
+	/**
+	 * Gets the random number generator of this match.
+	 * @return the random
+	 */
+	public MatchRandom getRandom() {
+		return random;
+	}
+	
+	/**
+	 * Gets the seed of this match.
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return random.getSeed();
+	}
+	
+	/**
+	 * Gets the turn number
+	 * @return the turn
+	 */
+	public int getTurn() {
+		return turn;
+	}
+	
+	/**
+	 * Sets the turn number
+	 * Can not be less than 0.
+	 * @param turn the turn to set
+	 */
+	public void setTurn(int turn) {
+		if (turn >= 0)
+			this.turn = turn;
+	}
+	
+	/**
+	 * Gets the total number of enemies created in this match.
+	 * @return the totalEnemyCount
+	 */
+	public int getTotalEnemyCount() {
+		return totalEnemyCount;
+	}
+	
+	/**
+	 * Sets the total number of enemies created in this match.
+	 * Can not be less than 0.
+	 * @param totalEnemyCount the totalEnemyCount to set
+	 */
+	public void setTotalEnemyCount(int totalEnemyCount) {
+		if (totalEnemyCount >= 0)
+			this.totalEnemyCount = totalEnemyCount;
+	}
+	
+	/**
+	 * Gets the count of all the random enemies fought in this match.
+	 * @return the randomEnemiesFought
+	 */
+	public int getRandomEnemiesFought() {
+		return randomEnemiesFought;
+	}
+	
+	/**
+	 * Sets the count of all the random enemies fought in this match.
+	 * Can not be less than 0.
+	 * @param randomEnemiesFought the randomEnemiesFought to set
+	 */
+	public void setRandomEnemiesFought(int randomEnemiesFought) {
+		if (randomEnemiesFought >= 0)
+			this.randomEnemiesFought = randomEnemiesFought;
+	}
+}
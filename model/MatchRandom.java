@@ -0,0 +1,137 @@
+package model;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The random number generator of a match.
+ * Uses the SplitMix64 algorithm, the same one used by java.util.SplittableRandom,
+ * but its state can be read and set, so a match can be recorded and ran again from its seed.
+ * Drawing a number does not allocate, so one instance can be used for every action of a match.
+ * A MatchRandom is not thread safe, each match should have its own.
+ * @author Jason Osmond
+ */
+public class MatchRandom {
+	
+	//====== [CONSTANTS] =======	
+	
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	
+	//====== [INSTANCE VARIABLES] =======	
+	
+	private final long seed;
+	private long state;
+	
+	//====== [CONSTRUCTORS] =======	
+	
+	/**
+	 * Creates a generator from a seed.
+	 * Two generators with the same seed return the same numbers.
+	 * @param seed
+	 */
+	public MatchRandom(long seed) {
+		this.seed = seed;
+		this.state = seed;
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Creates a new random seed.
+	 * Uses the random generator of the current thread, so no seed generator is shared between threads.
+	 * @return a random seed
+	 */
+	public static long newSeed() {
+		return ThreadLocalRandom.current().nextLong();
+	}
+	
+	/**
+	 * Derives the seed of one match in a series of matches from the seed of the series.
+	 * Each index gives a different, well mixed seed, so the matches do not depend on the order they are ran.
+	 * @param seed the seed of the series
+	 * @param index the index of the match in the series
+	 * @return the seed of the match
+	 */
+	public static long deriveSeed(long seed, long index) {
+		return mix64(seed + (index + 1) * GOLDEN_GAMMA);
+	}
+	
+	/**
+	 * Gets a random long.
+	 * @return the next random long
+	 */
+	public long nextLong() {
+		state += GOLDEN_GAMMA;
+		return mix64(state);
+	}
+	
+	/**
+	 * Gets a random int between 0 (inclusive) and the bound (exclusive).
+	 * All values are equally likely.
+	 * @param bound must be greater than 0
+	 * @return the next random int
+	 */
+	public int nextInt(int bound) {
+		if (bound <= 0)
+			throw new IllegalArgumentException("bound must be positive");
+		
+		int randomValue = (int) (nextLong() >>> 32);
+		int mask = bound - 1;
+		
+		// Power of two, the low bits can be used directly
+		if ((bound & mask) == 0)
+			return randomValue & mask;
+		
+		// Otherwise values that would make the result skewed are rejected
+		int unsigned = randomValue >>> 1;
+		while (unsigned + mask - (randomValue = unsigned % bound) < 0)
+			unsigned = (int) (nextLong() >>> 33);
+		
+		return randomValue;
+	}
+	
+	/**
+	 * Gets a random double between 0 (inclusive) and 1 (exclusive).
+	 * @return the next random double
+	 */
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+	
+	/**
+	 * The 64 bit mixing function of SplitMix64.
+	 * @param value
+	 * @return the mixed value
+	 */
+	private static long mix64(long value) {
+		value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+		value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+		return value ^ (value >>> 31);
+	}
+	
+	//====== [GETTER AND SETTER METHODS] =======	
+	
+	/**
+	 * Gets the seed this generator was created with.
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+	
+	/**
+	 * Gets the current state of this generator.
+	 * A generator set to this state returns the same numbers as this one.
+	 * @return the state
+	 */
+	public long getState() {
+		return state;
+	}
+	
+	/**
+	 * Sets the current state of this generator.
+	 * @param state the state to set
+	 */
+	public void setState(long state) {
+		this.state = state;
+	}
+}
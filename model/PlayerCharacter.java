@@ -1,7 +1,4 @@
 package model;
-import java.util.Dictionary;
-import java.util.Random;
-import java.util.Scanner;
 
 /**
  * A child class of Character that a user will be able to control
@@ -22,6 +19,7 @@ public class PlayerCharacter extends Character {
 	//====== [INSTANCE VARIABLES] =======	
 	
 	private int increaseDefenseAmount = 2; 
+	private PlayerInput input;
 	
 	//====== [CONSTRUCTORS] =======	
 	
@@ -62,79 +60,63 @@ public class PlayerCharacter extends Character {
 	}
 	
 	/**
-	 * Prompts the user for the action the player is taking.
+	 * Prompts the user for the action the player is taking, using the input of the player.
+	 * If the action was not recognized, the user is prompted again for a new action.
 	 * Then calls the executeAction method passing the action selected as a parameter
 	 * @param opponent 
-	 * @return A String describing the outcome of the action
+	 * @return the result of the action
 	 */
-	public String takeAction(Character opponent) {
+	public ActionResult takeAction(Character opponent) {
 		// Prompt User for input
-		Scanner scan = new Scanner(System.in);
-
-		System.out.println(getName() + "'s actions: Attack (A), Defend (D), Search (S), Weaken (W)");
-		String action = scan.nextLine().toLowerCase();
+		PlayerInput input = getInput();
+		Action action = null;
+		
+		while (action == null) {
+			input.println(getName() + "'s actions: Attack (A), Defend (D), Search (S), Weaken (W)");
+			action = Action.parse(input.nextLine().toLowerCase());
+			
+			if (action == null)
+				input.println("Invalid Action");
+		}
 		
 		return executeAction(opponent, action);
 	}
 	
 	/**
-	 * Contains a list of possible actions that can be taken by the PlayerCharacter.
-	 * Finds the chosen action within the list of actions 
-	 * available to this character and executes that action.
-	 * If the action is not present in the list, the takeAction method 
-	 * is called again, so the user can input another action. 
-	 * Has 2 cheat codes to make testing easier.
+	 * Adds the cheat codes to the actions that can be taken by the PlayerCharacter.
+	 * Has 2 cheat codes to make testing easier, 
+	 * all the other actions are executed by the Character class.
 	 * @param opponent the opponent of this character
 	 * @param action the action to be executed
-	 * @return A String describing the outcome of the action
+	 * @return the result of the action
 	 */
-	private String executeAction(Character opponent, String action) {
-		String actionReport =  "No action was selected";
-		
-		// Attack
-		if (action.equals("a") || action.equals("attack")) {
-			actionReport = executeActionAttack(opponent);
-		}
-		
-		// Defend
-		else if (action.equals("d") || action.equals("defend")) {
-			actionReport = executeActionDefend();
-		}
-		
-		// Search
-		else if (action.equals("s") || action.equals("search")) {
-			actionReport = executeActionSearch();		
-		}
-		
-		// Weaken
-		else if (action.equals("w") || action.equals("weaken")) { 
-			actionReport = executeActionWeaken(opponent);	
-
-		}
+	@Override
+	protected ActionResult executeAction(Character opponent, Action action) {
+		ActionResult actionResult;
 		
-		// Cheat code for better statistics
-		else if (action.equals("highground")) {
-			int cheater = 100;
-			increaseCurrentHealth(cheater);
-			increaseAttack(cheater);
-			increaseDefense(cheater);
-			increaseSearch(cheater);
+		switch (action) {
+			// Cheat code for better statistics
+			case HIGHGROUND:
+				int cheater = 100;
+				increaseCurrentHealth(cheater);
+				increaseAttack(cheater);
+				increaseDefense(cheater);
+				increaseSearch(cheater);
+				
+				actionResult = new ActionResult(this, opponent, action, ActionOutcome.HIGHGROUND, cheater);
+				break;
 			
-			actionReport = getName() + " has the highground! All Stats +" + cheater;
-		}
-		
-		// Cheat code to kill character
-		else if (action.equals("death")) {
-			setCurrentHealth(0);
-			actionReport = getName() + " has fallen!";
+			// Cheat code to kill character
+			case DEATH:
+				setCurrentHealth(0);
+				actionResult = new ActionResult(this, opponent, action, ActionOutcome.FALLEN, 0);
+				break;
+			
+			default:
+				actionResult = super.executeAction(opponent, action);
 		}
 		
-		// If the action was not recognized, the user is prompted again for a new action
-		else {
-			System.out.println("Invalid Action");
-			actionReport = this.takeAction(opponent);
-		}
-		return actionReport;
+		return actionResult;
 	}
 
 	//====== [GETTER AND SETTER METHODS] =======	
@@ -147,4 +129,24 @@ public class PlayerCharacter extends Character {
 	public int getIncreaseDefenseAmount() {
 		return this.increaseDefenseAmount;
 	}
+	
+	/**
+	 * Gets where the user of this player types its actions.
+	 * @return the input, the input of the console if none was set
+	 */
+	public PlayerInput getInput() {
+		if (input == null)
+			input = PlayerInput.system();
+		
+		return input;
+	}
+	
+	/**
+	 * Sets where the user of this player types its actions.
+	 * Players of the same session should share the session's input.
+	 * @param input the input to set
+	 */
+	public void setInput(PlayerInput input) {
+		this.input = input;
+	}
 }
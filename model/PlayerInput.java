@@ -0,0 +1,117 @@
+package model;
+
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+/**
+ * Where a game session reads what its users type and prints its prompts.
+ * A session keeps one PlayerInput for as long as it runs, so input that was read ahead 
+ * of what was asked for, such as commands piped in from a file, is kept for the next question.
+ * A session can read from a file, a pipe or an in-memory stream, 
+ * and any number of sessions can run in one program, each with its own PlayerInput.
+ * A PlayerInput is not thread safe, it belongs to one session.
+ * @author Jason Osmond
+ */
+public class PlayerInput {
+	
+	//====== [STATIC VARIABLES] =======	
+	
+	private static PlayerInput systemInput;
+	
+	//====== [INSTANCE VARIABLES] =======	
+	
+	private final Scanner scanner;
+	private final PrintStream out;
+	
+	//====== [CONSTRUCTORS] =======	
+	
+	/**
+	 * Creates an input that reads from the given stream, in the default charset.
+	 * @param in the stream the users type into
+	 * @param out the stream the prompts are printed into
+	 */
+	public PlayerInput(InputStream in, PrintStream out) {
+		this(in, Charset.defaultCharset(), out);
+	}
+	
+	/**
+	 * Creates an input that reads from the given stream.
+	 * @param in the stream the users type into
+	 * @param charset the charset of the stream
+	 * @param out the stream the prompts are printed into
+	 */
+	public PlayerInput(InputStream in, Charset charset, PrintStream out) {
+		this.scanner = new Scanner(in, charset);
+		this.out = out;
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Gets the input of the console, which reads System.in and prints into System.out.
+	 * The same input is returned every time, since System.in can only have one reader
+	 * without losing what the other readers read ahead.
+	 * @return the input of the console
+	 */
+	public static synchronized PlayerInput system() {
+		if (systemInput == null)
+			systemInput = new PlayerInput(System.in, System.out);
+		
+		return systemInput;
+	}
+	
+	/**
+	 * Reads the rest of the current line.
+	 * @return the line, without its line break
+	 * @throws NoSuchElementException if the input has ended
+	 */
+	public String nextLine() {
+		return scanner.nextLine();
+	}
+	
+	/**
+	 * Reads the next word as an integer. The rest of the line is left to be read.
+	 * @return the integer
+	 * @throws InputMismatchException if the next word is not an integer, the word is left to be read
+	 * @throws NoSuchElementException if the input has ended
+	 */
+	public int nextInt() {
+		return scanner.nextInt();
+	}
+	
+	/**
+	 * Ends the current line, or prints an empty line.
+	 */
+	public void println() {
+		out.println();
+	}
+	
+	/**
+	 * Prints a line, such as a prompt or the answer to one.
+	 * @param line
+	 */
+	public void println(String line) {
+		out.println(line);
+	}
+	
+	/**
+	 * Prints text without ending the line, such as a prompt answered on the same line.
+	 * @param text
+	 */
+	public void print(String text) {
+		out.print(text);
+	}
+	
+	//====== [GETTER METHODS] =======	
+	
+	/**
+	 * @return the stream the prompts are printed into
+	 */
+	public PrintStream getOut() {
+		return out;
+	}
+}
@@ -0,0 +1,158 @@
+package model;
+
+/**
+ * A child class of EnemyCharacter.
+ * This enemy takes the action with the highest value in a QTable for the state it is in against its opponent.
+ * While learning, it sometimes takes a random action instead, and after each action it moves the value
+ * of its last action towards the value of the state the action led to. Enemies sharing a table learn together.
+ * @author Jason Osmond
+ */
+public class QLearnedEnemy extends EnemyCharacter {
+	
+	//====== [INSTANCE VARIABLES] =======	
+	
+	private QTable table;
+	private boolean learning;
+	private float learningRate;
+	private float discount;
+	private float exploration;
+	
+	// The state and action of the last action taken while learning, -1 if none
+	private int lastState = -1;
+	private int lastAction;
+	
+	//====== [CONSTRUCTORS] =======	
+	
+	/**
+	 * Calls constructor in parent class
+	 * This will call the setDefaultStats() method from the EnemyCharacter class
+	 * which will set the stats to random values based on the turn number.
+	 * Uses the shared MatchContext.
+	 * @param table the learned values of the actions
+	 */
+	public QLearnedEnemy(QTable table) {
+		this(MatchContext.getSharedContext(), table);
+	}
+	
+	/**
+	 * Calls constructor in parent class
+	 * This will call the setDefaultStats() method from the EnemyCharacter class
+	 * which will set the stats to random values based on the turn number of the match.
+	 * @param matchContext the context of the match this enemy is in
+	 * @param table the learned values of the actions
+	 */
+	public QLearnedEnemy(MatchContext matchContext, QTable table) {
+		super(matchContext);
+		this.table = table;
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Turns this enemy into a new QLearnedEnemy, with new stats and a new number.
+	 * Whatever is left of the last episode is not learned from.
+	 */
+	@Override
+	public void respawn() {
+		super.respawn();
+		
+		lastState = -1;
+	}
+	
+	/**
+	 * Makes this enemy learn from the actions it takes, until stopLearning is called.
+	 * @param learningRate how far a value moves towards its target each update, from 0 to 1
+	 * @param discount how much the value of the next state counts, from 0 to 1
+	 * @param exploration the chance to take a random action, from 0 to 1
+	 */
+	public void startLearning(float learningRate, float discount, float exploration) {
+		this.learningRate = learningRate;
+		this.discount = discount;
+		this.exploration = exploration;
+		learning = true;
+		lastState = -1;
+	}
+	
+	/**
+	 * Stops learning, the enemy only takes the actions with the highest values from now on.
+	 */
+	public void stopLearning() {
+		learning = false;
+		lastState = -1;
+	}
+	
+	/**
+	 * Learns from the end of an episode: the value of the last action is moved towards the reward.
+	 * @param reward 1 for a win, -1 for a loss and 0 for a draw
+	 */
+	public void endEpisode(float reward) {
+		if (learning && lastState >= 0)
+			table.update(lastState, lastAction, reward, learningRate);
+		
+		lastState = -1;
+	}
+	
+	/**
+	 * Takes the action with the highest value in the state this enemy is in.
+	 * While learning, first updates the value of the last action with the value of this state,
+	 * and takes a random action as often as the exploration chance.
+	 * Then calls the executeAction method passing the action selected as a parameter
+	 * @param opponent 
+	 * @return the result of the action
+	 */
+	@Override
+	public ActionResult takeAction(Character opponent) {
+		int state = QTable.stateOf(this, opponent);
+		int opcode;
+		
+		if (learning) {
+			if (lastState >= 0)
+				table.update(lastState, lastAction, discount * table.maxValue(state), learningRate);
+			
+			MatchRandom random = getMatchContext().getRandom();
+			if (random.nextDouble() < exploration)
+				opcode = random.nextInt(QTable.ACTION_COUNT);
+			else
+				opcode = table.bestAction(state);
+			
+			lastState = state;
+			lastAction = opcode;
+		}
+		else {
+			opcode = table.bestAction(state);
+		}
+		
+		return executeAction(opponent, Action.fromOpcode(opcode));
+	}
+	
+	//====== [GETTER AND SETTER METHODS] =======	
+	
+	/**
+	 * @return "Q Robot"
+	 */
+	@Override
+	protected String getNamePrefix() {
+		return "Q Robot";
+	}
+	
+	/**
+	 * @return the table of learned values used by this enemy
+	 */
+	public QTable getTable() {
+		return table;
+	}
+	
+	/**
+	 * @param table the table of learned values to use
+	 */
+	public void setTable(QTable table) {
+		this.table = table;
+	}
+	
+	/**
+	 * @return true if this enemy is learning
+	 */
+	public boolean isLearning() {
+		return learning;
+	}
+}
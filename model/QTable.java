@@ -0,0 +1,215 @@
+package model;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The learned value of each action in each state of a duel, for a QLearnedEnemy.
+ * 
+ * A state is made of the stats of both characters, each cut into a few buckets:
+ * the share of the total health that is the character's own, the damage its attack does through the opponent's defense,
+ * the damage the opponent's attack does through its defense, its search and its weaken modifier.
+ * The values are kept in one flat float array, with the four actions of a state next to each other.
+ * 
+ * Training threads update the same table without locks. An update that races with another one on the same value
+ * can be lost, which only slows the learning down a little, since the states are many and each update is small.
+ * 
+ * A table file holds:
+ * <pre>
+ * int MAGIC, short VERSION, int STATE_COUNT, int ACTION_COUNT,
+ * float value for every action of every state,
+ * int CRC32C of everything before it
+ * </pre>
+ * @author Jason Osmond
+ */
+public final class QTable {
+	
+	//====== [CONSTANTS] =======	
+	
+	public static final int MAGIC = 0x42425154; // "BBQT"
+	public static final short VERSION = 1;
+	
+	// Buckets of each part of the state
+	public static final int HEALTH_BUCKETS = 8;
+	public static final int DAMAGE_BUCKETS = 8;
+	public static final int SEARCH_BUCKETS = 4;
+	public static final int WEAKEN_BUCKETS = 4;
+	
+	public static final int STATE_COUNT = HEALTH_BUCKETS * DAMAGE_BUCKETS * DAMAGE_BUCKETS * SEARCH_BUCKETS * WEAKEN_BUCKETS;
+	
+	/** The actions learned, the opcodes of attack, defend, search and weaken. */
+	public static final int ACTION_COUNT = 4;
+	
+	/** The size of a table written by write, in bytes. */
+	public static final int BYTES = Integer.BYTES + Short.BYTES + 2 * Integer.BYTES 
+			+ STATE_COUNT * ACTION_COUNT * Float.BYTES + Integer.BYTES;
+	
+	//====== [INSTANCE VARIABLES] =======	
+	
+	private final float[] values = new float[STATE_COUNT * ACTION_COUNT];
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Finds the state a character is in against its opponent.
+	 * @param self the character acting
+	 * @param opponent its opponent
+	 * @return the state, from 0 to STATE_COUNT - 1
+	 */
+	public static int stateOf(Character self, Character opponent) {
+		int health = Math.max(self.getCurrentHealth(), 0);
+		int totalHealth = health + Math.max(opponent.getCurrentHealth(), 0);
+		int healthBucket = (totalHealth == 0) ? 0 : Math.min(health * HEALTH_BUCKETS / totalHealth, HEALTH_BUCKETS - 1);
+		
+		int damageDealt = CombatRules.damageAfterBlock(self.getAttack(), opponent.getDefense());
+		int damageTaken = CombatRules.damageAfterBlock(opponent.getAttack(), self.getDefense());
+		
+		int state = healthBucket;
+		state = state * DAMAGE_BUCKETS + Math.min(damageDealt, DAMAGE_BUCKETS) - 1;
+		state = state * DAMAGE_BUCKETS + Math.min(damageTaken, DAMAGE_BUCKETS) - 1;
+		state = state * SEARCH_BUCKETS + Math.min(self.getSearch() / 2, SEARCH_BUCKETS - 1);
+		state = state * WEAKEN_BUCKETS + Math.min(Math.max(self.getWeakenModifier(), 1), WEAKEN_BUCKETS) - 1;
+		
+		return state;
+	}
+	
+	/**
+	 * Finds the action with the highest value in a state. Ties go to the action with the lowest opcode.
+	 * @param state
+	 * @return the opcode of the action
+	 */
+	public int bestAction(int state) {
+		int first = state * ACTION_COUNT;
+		int best = 0;
+		
+		for (int opcode = 1; opcode < ACTION_COUNT; opcode++)
+			if (values[first + opcode] > values[first + best])
+				best = opcode;
+		
+		return best;
+	}
+	
+	/**
+	 * @param state
+	 * @return the highest value of the actions of the state
+	 */
+	public float maxValue(int state) {
+		return values[state * ACTION_COUNT + bestAction(state)];
+	}
+	
+	/**
+	 * Moves the value of an action a step towards a target.
+	 * Not locked, see the comment of the class.
+	 * @param state
+	 * @param opcode the opcode of the action
+	 * @param target the value the action should have
+	 * @param learningRate the size of the step, from 0 to 1
+	 */
+	public void update(int state, int opcode, float target, float learningRate) {
+		int index = state * ACTION_COUNT + opcode;
+		
+		values[index] += learningRate * (target - values[index]);
+	}
+	
+	/**
+	 * Writes the table into a buffer.
+	 * @param buffer the buffer to write into, needs at least BYTES remaining
+	 */
+	public void write(ByteBuffer buffer) {
+		int start = buffer.position();
+		
+		buffer.putInt(MAGIC);
+		buffer.putShort(VERSION);
+		buffer.putInt(STATE_COUNT);
+		buffer.putInt(ACTION_COUNT);
+		
+		for (float value : values)
+			buffer.putFloat(value);
+		
+		buffer.putInt(BinaryFiles.checksum(buffer, start, buffer.position()));
+	}
+	
+	/**
+	 * Reads a table written by write.
+	 * @param buffer the buffer, from its position
+	 * @return the table
+	 * @throws IllegalArgumentException if the buffer does not hold a valid table with the same states
+	 */
+	public static QTable read(ByteBuffer buffer) {
+		int start = buffer.position();
+		
+		if (buffer.remaining() < Integer.BYTES + Short.BYTES || buffer.getInt() != MAGIC)
+			throw new IllegalArgumentException("Not a Q table");
+		
+		short version = buffer.getShort();
+		if (version != VERSION)
+			throw new IllegalArgumentException("Unsupported Q table version " + version);
+		
+		try {
+			if (buffer.getInt() != STATE_COUNT || buffer.getInt() != ACTION_COUNT)
+				throw new IllegalArgumentException("The Q table has different states");
+			
+			QTable table = new QTable();
+			for (int index = 0; index < table.values.length; index++)
+				table.values[index] = buffer.getFloat();
+			
+			if (buffer.getInt(buffer.position()) != BinaryFiles.checksum(buffer, start, buffer.position()))
+				throw new IllegalArgumentException("The Q table is corrupted");
+			buffer.position(buffer.position() + Integer.BYTES);
+			
+			return table;
+		}
+		catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("The Q table is cut short", e);
+		}
+	}
+	
+	/**
+	 * Saves the table into a file, crash safe, with BinaryFiles.save.
+	 * @param path the file, replaced if it exists
+	 * @throws IOException if the table could not be written
+	 */
+	public void save(Path path) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BYTES);
+		write(buffer);
+		BinaryFiles.save(buffer.flip(), path);
+	}
+	
+	/**
+	 * Loads a table saved by save.
+	 * @param path the file
+	 * @return the table
+	 * @throws IOException if the file could not be read
+	 * @throws IllegalArgumentException if the file does not hold a valid table
+	 */
+	public static QTable load(Path path) throws IOException {
+		return read(ByteBuffer.wrap(Files.readAllBytes(path)));
+	}
+	
+	//====== [GETTER METHODS] =======	
+	
+	/**
+	 * @param state
+	 * @param opcode the opcode of the action
+	 * @return the value of the action in the state
+	 */
+	public float getValue(int state, int opcode) {
+		return values[state * ACTION_COUNT + opcode];
+	}
+	
+	/**
+	 * @return the number of state and action values that were changed from 0 by training
+	 */
+	public int getVisitedCount() {
+		int visited = 0;
+		
+		for (float value : values)
+			if (value != 0)
+				visited++;
+		
+		return visited;
+	}
+}
@@ -1,7 +1,5 @@
 package model;
 
-import java.util.Random;
-
 /**
  * A child class of EnemyCharacter.
  * This enemy type randomly takes actions.
@@ -9,78 +7,82 @@ import java.util.Random;
  */
 public class RandomEnemy extends EnemyCharacter{
 	
-	//====== [INSTANCE VARIABLES] =======
-	
-	private static int randomEnemiesFought = 0;
-	
 	//====== [CONSTRUCTORS] =======
 	
 	/**
 	 * Calls constructor in parent class
 	 * This will call the setDefaultStats() method from the EnemyCharacter class
 	 * which will set the stats to random values based on the turn number.
-	 * Increases the the count of randomEnemiesFought and names the character.
+	 * Uses the shared MatchContext.
 	 */
 	public RandomEnemy() {
-		super();
-		
-		setRandomEnemiesFought(getRandomEnemiesFought() + 1);
-		
-		setName("Random Robot " + getRandomEnemiesFought() + " [Lvl " + getLevel()  + "]");
+		this(MatchContext.getSharedContext());
+	}
+	
+	/**
+	 * Calls constructor in parent class
+	 * This will call the setDefaultStats() method from the EnemyCharacter class
+	 * which will set the stats to random values based on the turn number of the match.
+	 * Increases the the count of randomEnemiesFought in the match and numbers the character.
+	 * @param matchContext the context of the match this enemy is in
+	 */
+	public RandomEnemy(MatchContext matchContext) {
+		super(matchContext);
 	}
 	
 	//====== [METHODS] =======	
 	
+	/**
+	 * Increases the the count of randomEnemiesFought in the match and takes the count as this robot's number.
+	 * @return the number of the robot
+	 */
+	@Override
+	protected int nextRobotNumber() {
+		MatchContext matchContext = getMatchContext();
+		matchContext.setRandomEnemiesFought(matchContext.getRandomEnemiesFought() + 1);
+		
+		return matchContext.getRandomEnemiesFought();
+	}
+	
+	/**
+	 * @return "Random Robot"
+	 */
+	@Override
+	protected String getNamePrefix() {
+		return "Random Robot";
+	}
+	
 	/**
 	 * Randomly picks an action to take.
 	 * The actions it can take are attack, defend, search, and weaken.
 	 * Each action has a 25% chance to be taken.
 	 * Then calls the executeAction method passing the action selected as a parameter
 	 * @param opponent 
-	 * @return A String describing the outcome of the action
+	 * @return the result of the action
 	 */
-	public String takeAction(Character playerCharacter) {
-		Random randomAction = new Random();
+	public ActionResult takeAction(Character playerCharacter) {
+		MatchRandom randomAction = getMatchContext().getRandom();
 		int randomValue = randomAction.nextInt(100);
-		String action;
+		Action action;
 		
 		// Possible Actions: Attack (A), Defend (D), Search (S), Weaken (W)
 		
 		// 25% chance to attack
 		if (randomValue < 25)
-			action = "attack";
+			action = Action.ATTACK;
 		
 		// 25% chance to defend
 		else if (randomValue < 50)
-			action = "defend";
+			action = Action.DEFEND;
 		
 		// 25% chance to search
 		else if (randomValue < 75)
-			action = "search";
+			action = Action.SEARCH;
 		
 		// 25% chance to weaken
 		else
-			action = "weaken";
+			action = Action.WEAKEN;
 		
 		return executeAction(playerCharacter,action);
 	}
-
-	//====== [GETTER AND SETTER METHODS] ======
-	
-	/**
-	 * Gets the count of all the random enemies fought
-	 * @return the randomEnemiesFought
-	 */
-	private static int getRandomEnemiesFought() {
-		return randomEnemiesFought;
-	}
-
-	/**
-	 * Set the number of random enemies fought to 
-	 * @param randomEnemiesFought the randomEnemiesFought to set
-	 */
-	private static void setRandomEnemiesFought(int randomEnemiesFought) {
-		if (randomEnemiesFought >= 0)
-			RandomEnemy.randomEnemiesFought = randomEnemiesFought;
-	}
 }
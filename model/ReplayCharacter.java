@@ -0,0 +1,187 @@
+package model;
+
+/**
+ * A character rebuilt from a recorded match.
+ * Instead of choosing its actions, it takes the next action from the recording
+ * and executes it through the same methods as every other character.
+ * The random rolls of a search are not made again, the recorded outcome is applied instead.
+ * If an action does not have the same result as in the recording, the replay has gone wrong
+ * and an IllegalStateException is thrown.
+ * @author Jason Osmond
+ */
+public class ReplayCharacter extends Character {
+	
+	//====== [INSTANCE VARIABLES] =======	
+	
+	private final ActionSource actionSource;
+	private final int increaseDefenseAmount;
+	private final int level;
+	
+	//====== [CONSTRUCTORS] =======	
+	
+	/**
+	 * Creates a character with the stats it had when it was recorded.
+	 * The base health already includes the character's toughness, so it is not applied again.
+	 * @param matchContext the context of the replayed match
+	 * @param actionSource where the recorded actions are read from
+	 * @param name
+	 * @param level the level of the character, 0 for players
+	 * @param baseHealth
+	 * @param currentHealth
+	 * @param attack
+	 * @param defense
+	 * @param search
+	 * @param toughness
+	 * @param weakenModifier
+	 * @param increaseDefenseAmount
+	 */
+	public ReplayCharacter(MatchContext matchContext, ActionSource actionSource, String name, int level,
+			int baseHealth, int currentHealth, int attack, int defense, int search, int toughness,
+			int weakenModifier, int increaseDefenseAmount) {
+		super(matchContext);
+		this.actionSource = actionSource;
+		this.increaseDefenseAmount = increaseDefenseAmount;
+		this.level = level;
+		
+		setName(name);
+		setBaseHealth(baseHealth);
+		setCurrentHealth(currentHealth);
+		setAttack(attack);
+		setDefense(defense);
+		setSearch(search);
+		setToughness(toughness);
+		setWeakenModifier(weakenModifier);
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * The stats are set by the constructor from the recording, there are no defaults.
+	 */
+	@Override
+	protected void setDefaultStats() {
+	}
+	
+	/**
+	 * Reads the next recorded action and executes it.
+	 * @param opponent
+	 * @return the result of the action, the same as the recorded result
+	 */
+	@Override
+	public ActionResult takeAction(Character opponent) {
+		actionSource.readNextAction();
+		
+		Action action = Action.fromOpcode(actionSource.getOpcode());
+		ActionOutcome outcome = ActionOutcome.fromCode(actionSource.getOutcomeCode());
+		int amount = actionSource.getAmount();
+		
+		ActionResult actionResult = replayAction(opponent, action, outcome, amount);
+		
+		if (actionResult.getOutcome() != outcome || actionResult.getAmount() != amount)
+			throw new IllegalStateException("The replay of " + getName() + "'s " + action.getCommand() + 
+					" does not match the recording (" + outcome + " " + amount + " was recorded, " +
+					actionResult.getOutcome() + " " + actionResult.getAmount() + " was replayed)");
+		
+		return actionResult;
+	}
+	
+	/**
+	 * Executes a recorded action.
+	 * @param opponent
+	 * @param action the recorded action
+	 * @param outcome the recorded outcome
+	 * @param amount the recorded amount
+	 * @return the result of the action
+	 */
+	private ActionResult replayAction(Character opponent, Action action, ActionOutcome outcome, int amount) {
+		switch (action) {
+			case SEARCH:
+				return replaySearch(outcome, amount);
+			
+			// Same as the cheat code of PlayerCharacter
+			case HIGHGROUND:
+				increaseCurrentHealth(amount);
+				increaseAttack(amount);
+				increaseDefense(amount);
+				increaseSearch(amount);
+				return new ActionResult(this, opponent, action, ActionOutcome.HIGHGROUND, amount);
+			
+			case DEATH:
+				setCurrentHealth(0);
+				return new ActionResult(this, opponent, action, ActionOutcome.FALLEN, 0);
+			
+			default:
+				return executeAction(opponent, action);
+		}
+	}
+	
+	/**
+	 * Applies a recorded search outcome.
+	 * The search modifier is worked out from the recorded amount.
+	 * @param outcome
+	 * @param amount
+	 * @return the result of the search
+	 */
+	private ActionResult replaySearch(ActionOutcome outcome, int amount) {
+		switch (outcome) {
+			case JACKPOT:
+				return applySearchOutcome(CombatRules.SEARCH_JACKPOT, amount);
+			case MAGNIFYING_GLASS:
+				return applySearchOutcome(CombatRules.SEARCH_MAGNIFYING_GLASS, amount);
+			case POISON:
+				return applySearchOutcome(CombatRules.SEARCH_POISON, 1);
+			case HEALING_POTION:
+				return applySearchOutcome(CombatRules.SEARCH_HEALING_POTION, amount / CombatRules.HEALTH_PER_SEARCH_POINT);
+			case WEAPON:
+				return applySearchOutcome(CombatRules.SEARCH_WEAPON, amount);
+			default:
+				return new ActionResult(this, null, Action.SEARCH, outcome, amount);
+		}
+	}
+	
+	//====== [GETTER METHODS] =======	
+	
+	/**
+	 * The recorded amount the character's defense is increased by when taking the defend action.
+	 * @return the increaseDefenseAmount
+	 */
+	@Override
+	public int getIncreaseDefenseAmount() {
+		return increaseDefenseAmount;
+	}
+	
+	/**
+	 * @return the recorded level, 0 for players
+	 */
+	public int getLevel() {
+		return level;
+	}
+	
+	/**
+	 * Where a ReplayCharacter reads its recorded actions from.
+	 * Works like a cursor, readNextAction moves to the next action 
+	 * and the getters return the parts of that action.
+	 */
+	public interface ActionSource {
+		
+		/**
+		 * Moves to the next recorded action.
+		 */
+		void readNextAction();
+		
+		/**
+		 * @return the opcode of the current action
+		 */
+		int getOpcode();
+		
+		/**
+		 * @return the code of the outcome of the current action
+		 */
+		int getOutcomeCode();
+		
+		/**
+		 * @return the amount of the current action
+		 */
+		int getAmount();
+	}
+}
@@ -0,0 +1,52 @@
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for an enemy joining a match, 
+ * either as a new EnemyCharacter or as a slain enemy respawned in place.
+ * The duration of a respawn covers rolling its new stats, a new enemy is recorded once it is created.
+ * @author Jason Osmond
+ */
+@Name("battlebots.Spawn")
+@Label("Enemy Spawn")
+@Category("Battle Bots")
+@Description("An enemy joining a match")
+@StackTrace(false)
+public class SpawnEvent extends jdk.jfr.Event {
+	
+	//====== [FIELDS] =======
+	
+	@Label("Turn")
+	int turn;
+	
+	@Label("Enemy Type")
+	Class<?> enemyType;
+	
+	@Label("Level")
+	int level;
+	
+	@Label("Respawned")
+	@Description("True if a slain enemy was reused, false if a new enemy was created")
+	boolean respawned;
+	
+	@Label("Enemy Number")
+	@Description("The total number of enemies in the match, including this one")
+	int enemyNumber;
+	
+	@Label("Attack")
+	int attack;
+	
+	@Label("Defense")
+	int defense;
+	
+	@Label("Search")
+	int search;
+	
+	@Label("Toughness")
+	int toughness;
+}
@@ -0,0 +1,287 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Records every change to the stats of one character, so its stats at any recent turn can be rebuilt.
+ * 
+ * Each change is recorded by the stat setters of the Character as a delta event, 
+ * a single long holding the turn, the stat and the amount it changed by, in a ring buffer of events.
+ * Every few turns the journal also takes a snapshot of all the stats. 
+ * The stats at a turn are rebuilt from the last snapshot taken at or before that turn plus the events after it,
+ * so rewinding or auditing a character never needs a copy of the character for every turn.
+ * Once the ring is full the oldest events are overwritten, and the turns they covered can no longer be rebuilt.
+ * 
+ * The format of an event:
+ * <pre>
+ * bits 63-32: turn, bits 31-29: stat (the STAT_ constants), bits 28-0: delta (signed)
+ * </pre>
+ * A journal belongs to one character and is only used by the thread running its match.
+ * @author Jason Osmond
+ */
+public class StatJournal {
+	
+	//====== [CONSTANTS] =======	
+	
+	public static final int STAT_BASE_HEALTH = 0;
+	public static final int STAT_ATTACK = 1;
+	public static final int STAT_DEFENSE = 2;
+	public static final int STAT_SEARCH = 3;
+	public static final int STAT_TOUGHNESS = 4;
+	public static final int STAT_CURRENT_HEALTH = 5;
+	public static final int STAT_WEAKEN_MODIFIER = 6;
+	public static final int STAT_COUNT = 7;
+	
+	public static final int DEFAULT_EVENT_CAPACITY = 4096;
+	public static final int DEFAULT_SNAPSHOT_CAPACITY = 64;
+	public static final int DEFAULT_SNAPSHOT_INTERVAL = 16;
+	
+	private static final int DELTA_BITS = 29;
+	private static final int MAX_DELTA = (1 << (DELTA_BITS - 1)) - 1;
+	private static final int MIN_DELTA = -(1 << (DELTA_BITS - 1));
+	
+	//====== [INSTANCE VARIABLES] =======	
+	
+	private final long[] events;
+	private final int eventMask;
+	private long eventCount;
+	
+	// The snapshots, snapshot i holds the stats after the events before snapshotSeqs[i], 
+	// which are all from snapshotTurns[i] or before
+	private final long[] snapshotSeqs;
+	private final int[] snapshotTurns;
+	private final int[] snapshotStats;
+	private final int snapshotMask;
+	private long snapshotCount;
+	private final int snapshotInterval;
+	
+	private Character character;
+	private int lastEventTurn;
+	
+	//====== [CONSTRUCTORS] =======	
+	
+	/**
+	 * Creates a journal with room for 4096 events and 64 snapshots, one every 16 turns.
+	 */
+	public StatJournal() {
+		this(DEFAULT_EVENT_CAPACITY, DEFAULT_SNAPSHOT_CAPACITY, DEFAULT_SNAPSHOT_INTERVAL);
+	}
+	
+	/**
+	 * @param eventCapacity the number of events kept, rounded up to a power of 2
+	 * @param snapshotCapacity the number of snapshots kept, rounded up to a power of 2
+	 * @param snapshotInterval the number of turns between snapshots
+	 */
+	public StatJournal(int eventCapacity, int snapshotCapacity, int snapshotInterval) {
+		if (eventCapacity < 1 || snapshotCapacity < 1 || snapshotInterval < 1)
+			throw new IllegalArgumentException("The capacities and the interval must be at least 1");
+		
+		events = new long[powerOfTwo(eventCapacity)];
+		eventMask = events.length - 1;
+		
+		snapshotSeqs = new long[powerOfTwo(snapshotCapacity)];
+		snapshotTurns = new int[snapshotSeqs.length];
+		snapshotStats = new int[snapshotSeqs.length * STAT_COUNT];
+		snapshotMask = snapshotSeqs.length - 1;
+		this.snapshotInterval = snapshotInterval;
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Starts recording the changes of a character, with a snapshot of its stats as they are.
+	 * Called by Character.setStatJournal, between turns.
+	 * @param character the character
+	 * @throws IllegalStateException if the journal already belongs to another character
+	 */
+	void attach(Character character) {
+		if (this.character != null && this.character != character)
+			throw new IllegalStateException("The journal already belongs to " + this.character.getName());
+		
+		this.character = character;
+		lastEventTurn = character.getMatchContext().getTurn();
+		snapshot();
+	}
+	
+	/**
+	 * Records a change to a stat, called by the stat setters of the Character just before the stat is changed.
+	 * The first change of a turn that is at least the snapshot interval after the last snapshot
+	 * first takes a snapshot of the stats as they were at the end of the turn before.
+	 * @param stat the stat, one of the STAT_ constants
+	 * @param delta the amount the stat is changed by
+	 */
+	void record(int stat, int delta) {
+		if (delta == 0)
+			return;
+		
+		int turn = character.getMatchContext().getTurn();
+		
+		if (turn != lastEventTurn) {
+			// No stat was changed yet this turn, so the stats are the stats at the end of the turn before
+			if (turn - lastSnapshotTurn() >= snapshotInterval)
+				takeSnapshot(turn - 1);
+			
+			lastEventTurn = turn;
+		}
+		
+		if (delta > MAX_DELTA || delta < MIN_DELTA) {
+			// Too big for an event, the change is kept in a snapshot instead
+			takeSnapshot(turn);
+			snapshotStats[(int) ((snapshotCount - 1) & snapshotMask) * STAT_COUNT + stat] += delta;
+			return;
+		}
+		
+		events[(int) (eventCount & eventMask)] = ((long) turn << 32) | ((long) stat << DELTA_BITS) | (delta & ((1L << DELTA_BITS) - 1));
+		eventCount++;
+	}
+	
+	/**
+	 * Takes a snapshot of the stats of the character as they are now.
+	 * The character calls this when its stats are changed without their setters, such as when it is restored.
+	 */
+	public void snapshot() {
+		takeSnapshot(character.getMatchContext().getTurn());
+	}
+	
+	/**
+	 * Takes a snapshot of the current stats.
+	 * @param turn the latest turn of the changes held by the snapshot
+	 */
+	private void takeSnapshot(int turn) {
+		int index = (int) (snapshotCount & snapshotMask);
+		
+		snapshotSeqs[index] = eventCount;
+		snapshotTurns[index] = turn;
+		currentStats(snapshotStats, index * STAT_COUNT);
+		
+		snapshotCount++;
+	}
+	
+	/**
+	 * Copies the current stats of the character into an array.
+	 * @param stats the array
+	 * @param offset the index of the first stat
+	 */
+	private void currentStats(int[] stats, int offset) {
+		stats[offset + STAT_BASE_HEALTH] = character.getBaseHealth();
+		stats[offset + STAT_ATTACK] = character.getAttack();
+		stats[offset + STAT_DEFENSE] = character.getDefense();
+		stats[offset + STAT_SEARCH] = character.getSearch();
+		stats[offset + STAT_TOUGHNESS] = character.getToughness();
+		stats[offset + STAT_CURRENT_HEALTH] = character.getCurrentHealth();
+		stats[offset + STAT_WEAKEN_MODIFIER] = character.getWeakenModifier();
+	}
+	
+	/**
+	 * Rebuilds the stats of the character as they were at the end of a turn.
+	 * Starts from the last snapshot of that turn or before it, and adds the changes made after it up to the end of the turn.
+	 * @param turn the turn
+	 * @return the stats, indexed by the STAT_ constants
+	 * @throws IllegalArgumentException if the turn is older than the oldest turn still in the journal
+	 */
+	public int[] statsAt(int turn) {
+		long oldestEvent = Math.max(0, eventCount - events.length);
+		long oldestSnapshot = Math.max(0, snapshotCount - snapshotSeqs.length);
+		
+		for (long snapshot = snapshotCount - 1; snapshot >= oldestSnapshot; snapshot--) {
+			int index = (int) (snapshot & snapshotMask);
+			
+			// The events after this snapshot, and every older snapshot, were overwritten
+			if (snapshotSeqs[index] < oldestEvent)
+				break;
+			
+			if (snapshotTurns[index] > turn)
+				continue;
+			
+			int[] stats = Arrays.copyOfRange(snapshotStats, index * STAT_COUNT, (index + 1) * STAT_COUNT);
+			
+			for (long seq = snapshotSeqs[index]; seq < eventCount; seq++) {
+				long event = events[(int) (seq & eventMask)];
+				
+				if (turnOf(event) > turn)
+					break;
+				
+				stats[statOf(event)] += deltaOf(event);
+			}
+			
+			return stats;
+		}
+		
+		throw new IllegalArgumentException("Turn " + turn + " is no longer in the journal");
+	}
+	
+	/**
+	 * @return the turn of the last snapshot
+	 */
+	private int lastSnapshotTurn() {
+		return snapshotTurns[(int) ((snapshotCount - 1) & snapshotMask)];
+	}
+	
+	/**
+	 * @param capacity
+	 * @return the smallest power of 2 that is at least the capacity
+	 */
+	private static int powerOfTwo(int capacity) {
+		return (capacity <= 1) ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+	}
+	
+	/**
+	 * Gets an event that is still in the journal, for auditing.
+	 * @param seq the number of the event, from getOldestEvent to getEventCount - 1
+	 * @return the event, read with turnOf, statOf and deltaOf
+	 * @throws IndexOutOfBoundsException if the event is not in the journal
+	 */
+	public long getEvent(long seq) {
+		if (seq < getOldestEvent() || seq >= eventCount)
+			throw new IndexOutOfBoundsException("Event " + seq + " is not in the journal");
+		
+		return events[(int) (seq & eventMask)];
+	}
+	
+	/**
+	 * @param event an event of the journal
+	 * @return the turn of the change
+	 */
+	public static int turnOf(long event) {
+		return (int) (event >>> 32);
+	}
+	
+	/**
+	 * @param event an event of the journal
+	 * @return the stat that changed, one of the STAT_ constants
+	 */
+	public static int statOf(long event) {
+		return (int) (event >>> DELTA_BITS) & 0x7;
+	}
+	
+	/**
+	 * @param event an event of the journal
+	 * @return the amount the stat changed by
+	 */
+	public static int deltaOf(long event) {
+		return ((int) event << (32 - DELTA_BITS)) >> (32 - DELTA_BITS);
+	}
+	
+	//====== [GETTER METHODS] =======	
+	
+	/**
+	 * @return the number of events recorded since the journal was created, including the ones overwritten
+	 */
+	public long getEventCount() {
+		return eventCount;
+	}
+	
+	/**
+	 * @return the number of the oldest event still in the journal
+	 */
+	public long getOldestEvent() {
+		return Math.max(0, eventCount - events.length);
+	}
+	
+	/**
+	 * @return the number of snapshots taken since the journal was created
+	 */
+	public long getSnapshotCount() {
+		return snapshotCount;
+	}
+}
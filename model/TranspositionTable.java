@@ -0,0 +1,105 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * A table of positions already searched by an ExpectimaxEnemy, so positions reached by different orders
+ * of actions, or searched again on the next move, are only searched once.
+ * 
+ * A position is found by a 64 bit hash of the stats of both characters. Each slot holds the value of one position
+ * and the depth it was searched to, and a newer position always replaces the one in its slot.
+ * The table is shared by threads without locks: the key of a slot is stored xored with its data,
+ * so a slot that was half written by another thread does not match its key and is treated as empty.
+ * @author Jason Osmond
+ */
+public final class TranspositionTable {
+	
+	//====== [CONSTANTS] =======	
+	
+	/** The default table holds 2 to the power of 18 positions, 4 MB. */
+	public static final int DEFAULT_SIZE_BITS = 18;
+	
+	//====== [INSTANCE VARIABLES] =======	
+	
+	// Two longs per slot, the key xored with the data, then the data
+	private final long[] slots;
+	private final int mask;
+	
+	//====== [CONSTRUCTORS] =======	
+	
+	/**
+	 * @param sizeBits the table holds 2 to the power of sizeBits positions, from 1 to 26
+	 */
+	public TranspositionTable(int sizeBits) {
+		if (sizeBits < 1 || sizeBits > 26)
+			throw new IllegalArgumentException("The size must be from 1 to 26 bits");
+		
+		slots = new long[2 << sizeBits];
+		mask = (1 << sizeBits) - 1;
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Gets the table shared by every ExpectimaxEnemy that was not given its own table.
+	 * Values only depend on the position, so enemies of different matches and threads can share them.
+	 * @return the shared table, created by the first call
+	 */
+	public static TranspositionTable shared() {
+		return SharedTable.TABLE;
+	}
+	
+	/**
+	 * Looks up the value of a position.
+	 * @param key the hash of the position
+	 * @param depth the depth the position is going to be searched to
+	 * @return the value, or NaN if the position is not in the table or was searched less deep
+	 */
+	float probe(long key, int depth) {
+		int slot = ((int) key & mask) << 1;
+		long data = slots[slot + 1];
+		
+		if ((slots[slot] ^ data) != key || (int) data < depth)
+			return Float.NaN;
+		
+		return Float.intBitsToFloat((int) (data >>> 32));
+	}
+	
+	/**
+	 * Stores the value of a position, replacing the position in its slot.
+	 * @param key the hash of the position
+	 * @param depth the depth the position was searched to
+	 * @param value the value
+	 */
+	void store(long key, int depth, float value) {
+		int slot = ((int) key & mask) << 1;
+		long data = ((long) Float.floatToRawIntBits(value) << 32) | (depth & 0xFFFFFFFFL);
+		
+		slots[slot] = key ^ data;
+		slots[slot + 1] = data;
+	}
+	
+	/**
+	 * Removes every position from the table.
+	 * Should not be called while the table is being searched.
+	 */
+	public void clear() {
+		Arrays.fill(slots, 0);
+	}
+	
+	//====== [GETTER METHODS] =======	
+	
+	/**
+	 * @return the number of positions the table holds
+	 */
+	public int getCapacity() {
+		return mask + 1;
+	}
+	
+	/**
+	 * Holds the shared table, so it is only created when an enemy first uses it.
+	 */
+	private static final class SharedTable {
+		private static final TranspositionTable TABLE = new TranspositionTable(DEFAULT_SIZE_BITS);
+	}
+}
@@ -0,0 +1,182 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A stand-in for a player, connects to a GameServer and plays random actions.
+ * Used to try the server on localhost with many clients at once.
+ * A bot can be told to skip some of its moves, so the server's move time limit is used as well.
+ * Each bot is a blocking client on its own thread, the server handles all of them on one.
+ * @author Jason Osmond
+ */
+public class BotClient implements Runnable {
+	
+	//====== [CONSTANTS] =======
+	
+	private static final String[] ACTIONS = {"a", "d", "s", "w"};
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final String host;
+	private final int port;
+	private final String name;
+	private final String mode;
+	private final int games;
+	private final int skipPercent;
+	private final SplittableRandom random;
+	
+	private int wins;
+	private int losses;
+	private int draws;
+	private long moves;
+	private long timeouts;
+	private long rejected;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * @param host the host of the server
+	 * @param port the port of the server
+	 * @param name the name of the bot, without spaces
+	 * @param mode the game mode to join, PVP or AI
+	 * @param games the number of games to play
+	 * @param skipPercent the chance the bot does not answer a turn, from 0 to 100
+	 * @param seed the seed of the bot's choices
+	 */
+	public BotClient(String host, int port, String name, String mode, int games, int skipPercent, long seed) {
+		this.host = host;
+		this.port = port;
+		this.name = name;
+		this.mode = mode;
+		this.games = games;
+		this.skipPercent = skipPercent;
+		this.random = new SplittableRandom(seed);
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Connects and plays the games, then quits.
+	 * @throws UncheckedIOException if the connection was lost
+	 */
+	@Override
+	public void run() {
+		try (Socket socket = new Socket(host, port)) {
+			socket.setTcpNoDelay(true);
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+			
+			for (int game = 0; game < games; game++)
+				play(in, out);
+			
+			out.println("QUIT");
+		}
+		catch (IOException ioe) {
+			throw new UncheckedIOException(name + " lost its connection", ioe);
+		}
+	}
+	
+	/**
+	 * Joins a game and plays it until it is over.
+	 * @param in the lines from the server
+	 * @param out the lines to the server
+	 * @throws IOException if the connection was lost
+	 */
+	private void play(BufferedReader in, PrintWriter out) throws IOException {
+		out.println("JOIN " + mode + " " + name);
+		
+		String line;
+		while ((line = in.readLine()) != null) {
+			if (line.startsWith("TURN")) {
+				if (random.nextInt(100) >= skipPercent) {
+					// The turn is sent back, so a move that comes in after its turn timed out is dropped by the server
+					out.println(ACTIONS[random.nextInt(ACTIONS.length)] + " " + line.split(" ")[1]);
+					moves++;
+				}
+			}
+			else if (line.startsWith("TIMEOUT")) {
+				timeouts++;
+			}
+			else if (line.startsWith("OVER")) {
+				String result = line.split(" ")[1];
+				if (result.equals("win"))
+					wins++;
+				else if (result.equals("lose"))
+					losses++;
+				else
+					draws++;
+				return;
+			}
+			else if (line.startsWith("ERR")) {
+				// A server that does not drop late moves rejects them, which only costs the bot that move
+				if (!line.equals("ERR action already sent") && !line.equals("ERR not in a match"))
+					throw new IllegalStateException(name + " was sent " + line);
+				rejected++;
+			}
+		}
+		
+		throw new IOException("The server closed the connection");
+	}
+	
+	/**
+	 * Starts bots against a server on their own threads and prints what they played.
+	 * @param args the host, the port, the number of bots, the games each bot plays, the game mode (PVP or AI),
+	 * and the chance a bot skips a move, 0 if not given
+	 * @throws InterruptedException if interrupted while waiting for the bots
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		if (args.length < 5) {
+			System.out.println("Usage: BotClient host port bots games PVP|AI [skipPercent]");
+			return;
+		}
+		
+		String host = args[0];
+		int port = Integer.parseInt(args[1]);
+		int botCount = Integer.parseInt(args[2]);
+		int games = Integer.parseInt(args[3]);
+		String mode = args[4];
+		int skipPercent = (args.length > 5) ? Integer.parseInt(args[5]) : 0;
+		
+		List<BotClient> bots = new ArrayList<>();
+		List<Thread> threads = new ArrayList<>();
+		long startTime = System.nanoTime();
+		
+		for (int index = 0; index < botCount; index++) {
+			BotClient bot = new BotClient(host, port, "Bot" + index, mode, games, skipPercent, index);
+			Thread thread = new Thread(bot, "Bot" + index);
+			thread.start();
+			bots.add(bot);
+			threads.add(thread);
+		}
+		
+		for (Thread thread : threads)
+			thread.join();
+		
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+		int wins = 0, losses = 0, draws = 0;
+		long moves = 0, timeouts = 0, rejected = 0;
+		
+		for (BotClient bot : bots) {
+			wins += bot.wins;
+			losses += bot.losses;
+			draws += bot.draws;
+			moves += bot.moves;
+			timeouts += bot.timeouts;
+			rejected += bot.rejected;
+		}
+		
+		System.out.println("Games: " + (wins + losses + draws) + " (" + wins + " won, " + losses + " lost, " + draws + " drawn)");
+		System.out.println("Moves: " + moves + ", timed out: " + timeouts + ", rejected: " + rejected);
+		System.out.printf("Elapsed: %.2f s, %.0f moves/sec%n", seconds, moves / seconds);
+	}
+}
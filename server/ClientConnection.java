@@ -0,0 +1,221 @@
+package server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+
+/**
+ * The connection of one client to the GameServer.
+ * Holds the bytes read from the client until a full line has arrived, 
+ * and the lines sent to the client until the channel takes them.
+ * A connection is only used by the thread of the server, so none of it is synchronized.
+ * @author Jason Osmond
+ */
+class ClientConnection {
+	
+	//====== [CONSTANTS] =======
+	
+	/** The longest line a client can send, in bytes. */
+	static final int MAX_LINE_LENGTH = 256;
+	
+	/** The most bytes that can wait to be sent to a client that is not reading them. */
+	static final int MAX_PENDING_OUTPUT = 64 * 1024;
+	
+	private static final int INITIAL_OUTPUT_CAPACITY = 512;
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final SocketChannel channel;
+	private final SelectionKey key;
+	private final Queue<ClientConnection> flushQueue;
+	private final ByteBuffer input = ByteBuffer.allocate(MAX_LINE_LENGTH);
+	private ByteBuffer output = ByteBuffer.allocate(INITIAL_OUTPUT_CAPACITY);
+	private int scanned;
+	private boolean queuedForFlush;
+	private boolean overflowed;
+	private boolean closed;
+	
+	// The game of the client
+	private boolean waiting;
+	private RemoteMatch match;
+	private int slot;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * @param channel the channel of the client
+	 * @param key the key of the channel in the selector of the server
+	 * @param flushQueue the queue of connections the server flushes after each round of events
+	 */
+	ClientConnection(SocketChannel channel, SelectionKey key, Queue<ClientConnection> flushQueue) {
+		this.channel = channel;
+		this.key = key;
+		this.flushQueue = flushQueue;
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Reads what the client sent into the input buffer.
+	 * @return the number of bytes read, -1 if the client closed the connection
+	 * @throws IOException if the channel could not be read
+	 */
+	int read() throws IOException {
+		return channel.read(input);
+	}
+	
+	/**
+	 * Takes the next full line out of the input buffer.
+	 * @return the line without its line break, or null if no full line has arrived
+	 */
+	String nextLine() {
+		for (int index = scanned; index < input.position(); index++) {
+			if (input.get(index) != '\n')
+				continue;
+			
+			int length = (index > 0 && input.get(index - 1) == '\r') ? index - 1 : index;
+			String line = new String(input.array(), 0, length, StandardCharsets.UTF_8);
+			
+			input.flip().position(index + 1);
+			input.compact();
+			scanned = 0;
+			
+			return line;
+		}
+		
+		scanned = input.position();
+		return null;
+	}
+	
+	/**
+	 * @return true if the input buffer is full without holding a full line
+	 */
+	boolean isInputFull() {
+		return !input.hasRemaining();
+	}
+	
+	/**
+	 * Adds a line to the output of the client. 
+	 * The line is sent when the server flushes the connection, so the lines of a turn are sent together.
+	 * If the client has stopped reading and too much output is waiting, the output is dropped 
+	 * and the server closes the connection when it flushes it.
+	 * @param line the line to send, without a line break
+	 */
+	void send(String line) {
+		if (closed || overflowed)
+			return;
+		
+		byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+		int needed = bytes.length + 1;
+		
+		if (output.remaining() < needed) {
+			int capacity = output.capacity();
+			while (capacity - output.position() < needed)
+				capacity *= 2;
+			
+			if (capacity > MAX_PENDING_OUTPUT) {
+				overflowed = true;
+			}
+			else {
+				ByteBuffer larger = ByteBuffer.allocate(capacity);
+				output.flip();
+				larger.put(output);
+				output = larger;
+			}
+		}
+		
+		if (!overflowed)
+			output.put(bytes).put((byte) '\n');
+		
+		if (!queuedForFlush) {
+			queuedForFlush = true;
+			flushQueue.add(this);
+		}
+	}
+	
+	/**
+	 * Writes as much of the output as the channel takes.
+	 * If some of it is left, the server is told to wait until the channel can take more.
+	 * @throws IOException if the channel could not be written to, or the output overflowed
+	 */
+	void flush() throws IOException {
+		queuedForFlush = false;
+		
+		if (overflowed)
+			throw new IOException("Too much output is waiting for the client");
+		
+		output.flip();
+		channel.write(output);
+		output.compact();
+		
+		if (output.position() > 0)
+			key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+		else
+			key.interestOps(SelectionKey.OP_READ);
+	}
+	
+	/**
+	 * Closes the channel, any output still waiting is dropped.
+	 */
+	void close() {
+		closed = true;
+		key.cancel();
+		
+		try {
+			channel.close();
+		}
+		catch (IOException ioe) {
+			// The connection is gone either way
+		}
+	}
+	
+	//====== [GETTER AND SETTER METHODS] ======
+	
+	/**
+	 * @return true once the connection is closed
+	 */
+	boolean isClosed() {
+		return closed;
+	}
+	
+	/**
+	 * @return true if the client is waiting for an opponent
+	 */
+	boolean isWaiting() {
+		return waiting;
+	}
+	
+	/**
+	 * @param waiting the waiting to set
+	 */
+	void setWaiting(boolean waiting) {
+		this.waiting = waiting;
+	}
+	
+	/**
+	 * @return the match the client is playing, null if none
+	 */
+	RemoteMatch getMatch() {
+		return match;
+	}
+	
+	/**
+	 * @return the slot of the client in its match, 1 or 2
+	 */
+	int getSlot() {
+		return slot;
+	}
+	
+	/**
+	 * Joins the client to a match, or leaves the match if it is null.
+	 * @param match the match
+	 * @param slot the slot of the client in the match, 1 or 2
+	 */
+	void setMatch(RemoteMatch match, int slot) {
+		this.match = match;
+		this.slot = slot;
+	}
+}
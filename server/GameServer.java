@@ -0,0 +1,528 @@
+package server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+import model.Action;
+import model.PlayerCharacter;
+
+/**
+ * A server that hosts Player versus Player and Player versus AI matches over TCP.
+ * 
+ * All the connections and matches are handled by one thread with a Selector, 
+ * so a player that is thinking about its move holds no thread, only its connection and its match.
+ * Each move has a time limit, a player that does not send an action in time takes the default action, defend.
+ * A player that leaves in the middle of a match falls on the next turn.
+ * 
+ * The protocol is made of lines of text, words are split by spaces.
+ * The client sends:
+ * <ul>
+ * <li>JOIN [PVP|AI] [name] ([attack] [defense] [search] [toughness]): joins a match, 
+ * the points work the same way as the character creation of the TextApplication,
+ * a player without points has the default stats</li>
+ * <li>a, d, s or w (or attack, defend, search or weaken) ([turn]): the action for the next turn.
+ * A client that also sends the turn of the TURN line it answers has its late actions dropped, 
+ * an action for a turn that timed out or a match that is over is then not taken for the next turn</li>
+ * <li>QUIT: closes the connection</li>
+ * </ul>
+ * The server sends:
+ * <ul>
+ * <li>WAIT: no opponent has joined yet</li>
+ * <li>MATCH [slot] [game mode] [opponent name]: the match has started, the client is character one or two</li>
+ * <li>TURN [turn] [health one] [health two]: send the action for this turn</li>
+ * <li>TIMEOUT [turn] [action]: no action was sent in time, the default action is taken</li>
+ * <li>ACTION [turn] [slot] [action] [outcome] [amount]: the result of an action</li>
+ * <li>SLAIN [turn] [slot]: a character was slain</li>
+ * <li>SPAWN [turn] [name]: a new enemy joined a Player versus AI match</li>
+ * <li>OVER [win|lose|draw] [turns] [enemies slain]: the match is over, the client can join again</li>
+ * <li>ERR [message]: the last line was not understood</li>
+ * </ul>
+ * @author Jason Osmond
+ */
+public class GameServer implements Runnable {
+	
+	//====== [CONSTANTS] =======
+	
+	public static final int DEFAULT_PORT = 7777;
+	public static final long DEFAULT_MOVE_TIMEOUT_MILLIS = 30_000;
+	
+	/** The longest name a player can have. */
+	public static final int MAX_NAME_LENGTH = 24;
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final Selector selector;
+	private final ServerSocketChannel serverChannel;
+	private final long moveTimeoutMillis;
+	private final ArrayDeque<ClientConnection> flushQueue = new ArrayDeque<>();
+	private final ArrayDeque<ClientConnection> waitingPlayers = new ArrayDeque<>();
+	private final ArrayDeque<RemotePlayer> waitingCharacters = new ArrayDeque<>();
+	private final PriorityQueue<MoveTimer> moveTimers = new PriorityQueue<>();
+	private volatile boolean running = true;
+	private int connectionCount;
+	private long matchesStarted;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * Opens a server on the given address. The server does not accept clients until it is ran.
+	 * @param address the address to listen on, port 0 picks a free port
+	 * @param moveTimeoutMillis the time a player has for each move, in milliseconds
+	 * @throws IOException if the address could not be bound
+	 */
+	public GameServer(InetSocketAddress address, long moveTimeoutMillis) throws IOException {
+		this.moveTimeoutMillis = moveTimeoutMillis;
+		
+		selector = Selector.open();
+		serverChannel = ServerSocketChannel.open();
+		serverChannel.bind(address, 1024);
+		serverChannel.configureBlocking(false);
+		serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Runs the event loop until the server is closed.
+	 * Each round handles the channels that are ready, the moves that ran out of time, 
+	 * and then sends the output of the round.
+	 */
+	@Override
+	public void run() {
+		try {
+			while (running) {
+				selector.select(this::handleKey, selectTimeout());
+				expireMoves();
+				flushConnections();
+			}
+		}
+		catch (IOException ioe) {
+			throw new IllegalStateException("The server stopped", ioe);
+		}
+		finally {
+			closeAll();
+		}
+	}
+	
+	/**
+	 * Stops the server, the thread running it closes every connection and returns.
+	 */
+	public void close() {
+		running = false;
+		selector.wakeup();
+	}
+	
+	/**
+	 * @return the time to wait for events, until the next move runs out of time, 0 to wait with no limit
+	 */
+	private long selectTimeout() {
+		MoveTimer next = moveTimers.peek();
+		
+		if (next == null)
+			return 0;
+		
+		return Math.max(1, next.deadline - now());
+	}
+	
+	/**
+	 * Handles a channel that is ready.
+	 * @param key the key of the channel
+	 */
+	private void handleKey(SelectionKey key) {
+		if (!key.isValid())
+			return;
+		
+		if (key.isAcceptable()) {
+			accept();
+			return;
+		}
+		
+		ClientConnection connection = (ClientConnection) key.attachment();
+		
+		try {
+			if (key.isWritable())
+				connection.flush();
+			
+			if (key.isReadable())
+				read(connection);
+		}
+		catch (IOException ioe) {
+			disconnect(connection);
+		}
+	}
+	
+	/**
+	 * Accepts the clients that are waiting to connect.
+	 */
+	private void accept() {
+		try {
+			SocketChannel channel;
+			while ((channel = serverChannel.accept()) != null) {
+				channel.configureBlocking(false);
+				channel.socket().setTcpNoDelay(true);
+				
+				SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+				key.attach(new ClientConnection(channel, key, flushQueue));
+				connectionCount++;
+			}
+		}
+		catch (IOException ioe) {
+			// The client gave up before it was accepted, the server carries on
+		}
+	}
+	
+	/**
+	 * Reads from a client and handles each full line it sent.
+	 * @param connection
+	 * @throws IOException if the connection was lost or the client sent a line that is too long
+	 */
+	private void read(ClientConnection connection) throws IOException {
+		if (connection.read() < 0)
+			throw new IOException("The client closed the connection");
+		
+		String line;
+		while (!connection.isClosed() && (line = connection.nextLine()) != null)
+			handleLine(connection, line.trim());
+		
+		if (!connection.isClosed() && connection.isInputFull()) {
+			connection.send("ERR line too long");
+			connection.flush();
+			throw new IOException("The client sent a line that is too long");
+		}
+	}
+	
+	/**
+	 * Handles a line sent by a client.
+	 * @param connection the client
+	 * @param line the line, without a line break
+	 */
+	private void handleLine(ClientConnection connection, String line) {
+		if (line.isEmpty())
+			return;
+		
+		String[] words = line.split(" +");
+		String command = words[0].toLowerCase();
+		
+		if (command.equals("join"))
+			join(connection, words);
+		else if (command.equals("quit"))
+			disconnect(connection);
+		else
+			move(connection, words);
+	}
+	
+	/**
+	 * Handles a JOIN line, starts a match or waits for an opponent.
+	 * @param connection the client
+	 * @param words the words of the line
+	 */
+	private void join(ClientConnection connection, String[] words) {
+		if (connection.getMatch() != null || connection.isWaiting()) {
+			connection.send("ERR already in a match");
+			return;
+		}
+		
+		if (words.length != 3 && words.length != 7) {
+			connection.send("ERR usage: JOIN PVP|AI name [attack defense search toughness]");
+			return;
+		}
+		
+		String mode = words[1].toLowerCase();
+		if (!mode.equals("pvp") && !mode.equals("ai")) {
+			connection.send("ERR unknown game mode " + words[1]);
+			return;
+		}
+		
+		String name = words[2];
+		if (name.length() > MAX_NAME_LENGTH) {
+			connection.send("ERR name longer than " + MAX_NAME_LENGTH);
+			return;
+		}
+		
+		RemotePlayer player = createPlayer(connection, name, words);
+		if (player == null)
+			return;
+		
+		if (mode.equals("ai")) {
+			startMatch(new RemoteMatch(connection, player));
+			return;
+		}
+		
+		// Pair with the first player still waiting, players that left while waiting are skipped
+		while (!waitingPlayers.isEmpty()) {
+			ClientConnection opponent = waitingPlayers.poll();
+			RemotePlayer opponentPlayer = waitingCharacters.poll();
+			
+			if (!opponent.isClosed()) {
+				opponent.setWaiting(false);
+				startMatch(new RemoteMatch(opponent, opponentPlayer, connection, player));
+				return;
+			}
+		}
+		
+		connection.setWaiting(true);
+		waitingPlayers.add(connection);
+		waitingCharacters.add(player);
+		connection.send("WAIT");
+	}
+	
+	/**
+	 * Creates the character of a player, with the points given in the JOIN line if there are any.
+	 * @param connection the client, told what was wrong with the points
+	 * @param name the name of the player
+	 * @param words the words of the JOIN line
+	 * @return the player, or null if the points were not valid
+	 */
+	private RemotePlayer createPlayer(ClientConnection connection, String name, String[] words) {
+		if (words.length == 3)
+			return new RemotePlayer(name);
+		
+		int[] points = new int[4];
+		int total = 0;
+		
+		try {
+			for (int index = 0; index < points.length; index++) {
+				points[index] = Integer.parseInt(words[index + 3]);
+				
+				if (points[index] < 0) {
+					connection.send("ERR negative points");
+					return null;
+				}
+				
+				// Checked one by one first, so the total can not overflow
+				if (points[index] > PlayerCharacter.DEFAULT_POINTS_AVAILABLE) {
+					connection.send("ERR more than " + PlayerCharacter.DEFAULT_POINTS_AVAILABLE + " points");
+					return null;
+				}
+				total += points[index];
+			}
+		}
+		catch (NumberFormatException nfe) {
+			connection.send("ERR points are not integers");
+			return null;
+		}
+		
+		if (total > PlayerCharacter.DEFAULT_POINTS_AVAILABLE) {
+			connection.send("ERR more than " + PlayerCharacter.DEFAULT_POINTS_AVAILABLE + " points");
+			return null;
+		}
+		
+		// Points in attack and defense are worth 3, the same as in the TextApplication
+		return new RemotePlayer(name, points[0] * 3, points[1] * 3, points[2], points[3]);
+	}
+	
+	/**
+	 * Starts a match and the timer of its first move.
+	 * @param match
+	 */
+	private void startMatch(RemoteMatch match) {
+		matchesStarted++;
+		match.start(now() + moveTimeoutMillis);
+		moveTimers.add(new MoveTimer(match.getMoveDeadline(), match));
+	}
+	
+	/**
+	 * Handles an action sent by a client, the turn is ran once every player of the match has sent one.
+	 * An action sent with the turn it was meant for is dropped if that turn is already over.
+	 * @param connection the client
+	 * @param words the words of the line, the action and the turn if it was given
+	 */
+	private void move(ClientConnection connection, String[] words) {
+		RemoteMatch match = connection.getMatch();
+		String command = words[0].toLowerCase();
+		Action action = Action.parse(command);
+		
+		if (action == null || action.isCheat()) {
+			connection.send("ERR unknown command " + command);
+			return;
+		}
+		
+		if (words.length > 2) {
+			connection.send("ERR usage: action [turn]");
+			return;
+		}
+		
+		// 0 when the client did not say which turn the action is for
+		int turn = 0;
+		if (words.length == 2) {
+			try {
+				turn = Integer.parseInt(words[1]);
+			}
+			catch (NumberFormatException nfe) {
+				connection.send("ERR turn is not an integer");
+				return;
+			}
+		}
+		
+		// The turn timed out or the match ended before the action came in, so it is too late to take
+		if (turn > 0 && (match == null || turn < match.getNextTurn()))
+			return;
+		
+		if (turn > 0 && turn > match.getNextTurn())
+			connection.send("ERR turn " + turn + " has not started");
+		else if (match == null)
+			connection.send("ERR not in a match");
+		else if (!match.submit(connection.getSlot(), action))
+			connection.send("ERR action already sent");
+		else if (match.isReady())
+			match.resolve(now() + moveTimeoutMillis);
+	}
+	
+	/**
+	 * Runs the turns of the matches whose moves ran out of time.
+	 * Each match has at most one timer. A timer that goes off after its match moved on 
+	 * is put back for the deadline of the current move, so the timers never have to be searched.
+	 */
+	private void expireMoves() {
+		long now = now();
+		
+		while (!moveTimers.isEmpty() && moveTimers.peek().deadline <= now) {
+			RemoteMatch match = moveTimers.poll().match;
+			
+			if (match.isOver())
+				continue;
+			
+			if (match.getMoveDeadline() <= now)
+				match.timeOut(now + moveTimeoutMillis);
+			
+			if (!match.isOver())
+				moveTimers.add(new MoveTimer(match.getMoveDeadline(), match));
+		}
+	}
+	
+	/**
+	 * Sends the output of every connection that was sent lines this round.
+	 */
+	private void flushConnections() {
+		ClientConnection connection;
+		
+		while ((connection = flushQueue.poll()) != null) {
+			if (connection.isClosed())
+				continue;
+			
+			try {
+				connection.flush();
+			}
+			catch (IOException ioe) {
+				disconnect(connection);
+			}
+		}
+	}
+	
+	/**
+	 * Closes the connection of a client. If the client was in a match, its player forfeits.
+	 * @param connection
+	 */
+	private void disconnect(ClientConnection connection) {
+		if (connection.isClosed())
+			return;
+		
+		connection.close();
+		connectionCount--;
+		
+		RemoteMatch match = connection.getMatch();
+		if (match != null) {
+			match.forfeit(connection.getSlot());
+			connection.setMatch(null, 0);
+			
+			if (match.isReady())
+				match.resolve(now() + moveTimeoutMillis);
+		}
+	}
+	
+	/**
+	 * Closes every connection and the server channel.
+	 */
+	private void closeAll() {
+		for (SelectionKey key : selector.keys())
+			if (key.attachment() instanceof ClientConnection)
+				((ClientConnection) key.attachment()).close();
+		
+		try {
+			serverChannel.close();
+			selector.close();
+		}
+		catch (IOException ioe) {
+			// Closing anyway
+		}
+	}
+	
+	/**
+	 * @return the current time in milliseconds, only used to measure time between events
+	 */
+	private static long now() {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+	}
+	
+	//====== [GETTER METHODS] ======
+	
+	/**
+	 * @return the port the server listens on
+	 */
+	public int getPort() {
+		return serverChannel.socket().getLocalPort();
+	}
+	
+	/**
+	 * @return the number of clients connected, only up to date on the thread running the server
+	 */
+	public int getConnectionCount() {
+		return connectionCount;
+	}
+	
+	/**
+	 * @return the number of matches started, only up to date on the thread running the server
+	 */
+	public long getMatchesStarted() {
+		return matchesStarted;
+	}
+	
+	/**
+	 * The timer of the current move of a match.
+	 */
+	private static class MoveTimer implements Comparable<MoveTimer> {
+		
+		private final long deadline;
+		private final RemoteMatch match;
+		
+		/**
+		 * @param deadline when the time for the move is up
+		 * @param match
+		 */
+		MoveTimer(long deadline, RemoteMatch match) {
+			this.deadline = deadline;
+			this.match = match;
+		}
+		
+		@Override
+		public int compareTo(MoveTimer other) {
+			return Long.compare(deadline, other.deadline);
+		}
+	}
+	
+	/**
+	 * Runs a server until the process is stopped.
+	 * @param args the port, 7777 if not given, and the time for each move in milliseconds, 30000 if not given
+	 * @throws IOException if the port could not be bound
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = DEFAULT_PORT;
+		if (args.length > 0)
+			port = Integer.parseInt(args[0]);
+		
+		long moveTimeoutMillis = DEFAULT_MOVE_TIMEOUT_MILLIS;
+		if (args.length > 1)
+			moveTimeoutMillis = Long.parseLong(args[1]);
+		
+		GameServer server = new GameServer(new InetSocketAddress(port), moveTimeoutMillis);
+		System.out.println("Listening on port " + server.getPort() + ", " + moveTimeoutMillis + " ms per move");
+		server.run();
+	}
+}
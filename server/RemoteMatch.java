@@ -0,0 +1,252 @@
+package server;
+
+import application.GameEventListener;
+import application.TurnTracker;
+import model.Action;
+import model.ActionResult;
+import model.Character;
+
+/**
+ * A match hosted by the GameServer, between two clients or between a client and endless AI enemies.
+ * The match is ran one turn at a time: a turn is only ran once every player has sent in an action,
+ * or the time for the move is up, so a match waiting on its players holds no thread.
+ * The match is also the listener of its TurnTracker, and sends what happens to its clients.
+ * @author Jason Osmond
+ */
+class RemoteMatch implements GameEventListener {
+	
+	//====== [CONSTANTS] =======
+	
+	/** The action taken by a player that did not send one in time. */
+	static final Action DEFAULT_ACTION = Action.DEFEND;
+	
+	//====== [INSTANCE VARIABLES] =======
+	
+	private final TurnTracker turnTracker;
+	private final ClientConnection[] connections;
+	private final RemotePlayer[] players;
+	private int enemiesSlain;
+	private long moveDeadline;
+	
+	//====== [CONSTRUCTORS] ======
+	
+	/**
+	 * Player versus Player, game mode 2.
+	 * @param connectionOne the client of player one
+	 * @param playerOne
+	 * @param connectionTwo the client of player two
+	 * @param playerTwo
+	 */
+	RemoteMatch(ClientConnection connectionOne, RemotePlayer playerOne, ClientConnection connectionTwo, RemotePlayer playerTwo) {
+		turnTracker = new TurnTracker(playerOne, playerTwo);
+		connections = new ClientConnection[] {connectionOne, connectionTwo};
+		players = new RemotePlayer[] {playerOne, playerTwo};
+		
+		initialize();
+	}
+	
+	/**
+	 * Player versus AI, game mode 1.
+	 * @param connection the client of the player
+	 * @param player
+	 */
+	RemoteMatch(ClientConnection connection, RemotePlayer player) {
+		turnTracker = new TurnTracker(player);
+		connections = new ClientConnection[] {connection};
+		players = new RemotePlayer[] {player};
+		
+		initialize();
+	}
+	
+	//====== [METHODS] ======
+	
+	/**
+	 * Joins the clients to the match and listens to the TurnTracker.
+	 */
+	private void initialize() {
+		turnTracker.setEventListener(this);
+		
+		for (int index = 0; index < connections.length; index++)
+			connections[index].setMatch(this, index + 1);
+	}
+	
+	/**
+	 * Tells the clients the match has started and asks for the actions of the first turn.
+	 * @param moveDeadline when the time for the first move is up, in milliseconds of System.nanoTime
+	 */
+	void start(long moveDeadline) {
+		Character characterOne = turnTracker.getCharacterOne();
+		Character characterTwo = turnTracker.getCharacterTwo();
+		
+		for (int index = 0; index < connections.length; index++) {
+			Character opponent = (index == 0) ? characterTwo : characterOne;
+			send(index, "MATCH " + (index + 1) + " " + turnTracker.getGameMode() + " " + opponent.getName());
+		}
+		
+		promptTurn(moveDeadline);
+	}
+	
+	/**
+	 * Sets the action of a player for the next turn.
+	 * @param slot the slot of the player, 1 or 2
+	 * @param action the action
+	 * @return false if the player already has an action for the next turn
+	 */
+	boolean submit(int slot, Action action) {
+		RemotePlayer player = players[slot - 1];
+		
+		if (player.hasPendingAction())
+			return false;
+		
+		player.setPendingAction(action);
+		return true;
+	}
+	
+	/**
+	 * @return true if every player has an action for the next turn
+	 */
+	boolean isReady() {
+		for (RemotePlayer player : players)
+			if (!player.hasPendingAction())
+				return false;
+		
+		return true;
+	}
+	
+	/**
+	 * Runs the next turn, then either asks for the actions of the turn after it or ends the match.
+	 * @param moveDeadline when the time for the next move is up, in milliseconds of System.nanoTime
+	 */
+	void resolve(long moveDeadline) {
+		if (turnTracker.playTurn())
+			promptTurn(moveDeadline);
+		else
+			for (ClientConnection connection : connections)
+				if (connection != null)
+					connection.setMatch(null, 0);
+	}
+	
+	/**
+	 * The time for the move is up, every player that has not sent an action takes the default action.
+	 * Then runs the turn.
+	 * @param moveDeadline when the time for the next move is up, in milliseconds of System.nanoTime
+	 */
+	void timeOut(long moveDeadline) {
+		for (int index = 0; index < players.length; index++) {
+			if (!players[index].hasPendingAction()) {
+				players[index].setPendingAction(DEFAULT_ACTION);
+				send(index, "TIMEOUT " + (turnTracker.getTurn() + 1) + " " + DEFAULT_ACTION.getShortCommand());
+			}
+		}
+		
+		resolve(moveDeadline);
+	}
+	
+	/**
+	 * The client of a player left the match, the player falls on the next turn.
+	 * @param slot the slot of the player, 1 or 2
+	 */
+	void forfeit(int slot) {
+		players[slot - 1].forfeit();
+		connections[slot - 1] = null;
+	}
+	
+	/**
+	 * Asks the clients for the actions of the next turn.
+	 * @param moveDeadline when the time for the move is up, in milliseconds of System.nanoTime
+	 */
+	private void promptTurn(long moveDeadline) {
+		this.moveDeadline = moveDeadline;
+		
+		String prompt = "TURN " + (turnTracker.getTurn() + 1) + " " + 
+				turnTracker.getCharacterOne().getCurrentHealth() + " " + 
+				turnTracker.getCharacterTwo().getCurrentHealth();
+		
+		for (int index = 0; index < connections.length; index++)
+			send(index, prompt);
+	}
+	
+	/**
+	 * Sends a line to the client in a slot, unless the client left.
+	 * @param index the index of the slot, 0 or 1
+	 * @param line
+	 */
+	private void send(int index, String line) {
+		if (connections[index] != null)
+			connections[index].send(line);
+	}
+	
+	/**
+	 * Sends a line to every client of the match.
+	 * @param line
+	 */
+	private void sendAll(String line) {
+		for (int index = 0; index < connections.length; index++)
+			send(index, line);
+	}
+	
+	/**
+	 * @param character a character of the match
+	 * @return the slot of the character, 1 or 2
+	 */
+	private int slotOf(Character character) {
+		return (character == turnTracker.getCharacterOne()) ? 1 : 2;
+	}
+	
+	@Override
+	public void actionResolved(int turn, ActionResult actionResult) {
+		sendAll("ACTION " + turn + " " + slotOf(actionResult.getActor()) + " " + 
+				actionResult.getAction().getCommand() + " " + 
+				actionResult.getOutcome().name().toLowerCase() + " " + actionResult.getAmount());
+	}
+	
+	@Override
+	public void characterSlain(int turn, Character slain, Character slayer, boolean gameOver) {
+		if (!gameOver)
+			enemiesSlain++;
+		
+		sendAll("SLAIN " + turn + " " + slotOf(slain));
+	}
+	
+	@Override
+	public void enemySpawned(int turn, Character enemy) {
+		sendAll("SPAWN " + turn + " " + enemy.getName());
+	}
+	
+	@Override
+	public void gameOver(TurnTracker turnTracker) {
+		boolean oneAlive = turnTracker.getCharacterOne().getCurrentHealth() > 0;
+		boolean twoAlive = turnTracker.getCharacterTwo().getCurrentHealth() > 0;
+		
+		for (int index = 0; index < connections.length; index++) {
+			boolean alive = (index == 0) ? oneAlive : twoAlive;
+			boolean opponentAlive = (index == 0) ? twoAlive : oneAlive;
+			String result = (alive == opponentAlive) ? "draw" : (alive ? "win" : "lose");
+			
+			send(index, "OVER " + result + " " + turnTracker.getTurn() + " " + enemiesSlain);
+		}
+	}
+	
+	//====== [GETTER METHODS] ======
+	
+	/**
+	 * @return true once the match is over
+	 */
+	boolean isOver() {
+		return turnTracker.isGameOver();
+	}
+	
+	/**
+	 * @return when the time for the next move is up, in milliseconds of System.nanoTime
+	 */
+	long getMoveDeadline() {
+		return moveDeadline;
+	}
+	
+	/**
+	 * @return the turn the players are sending actions for, the one of the last TURN line
+	 */
+	int getNextTurn() {
+		return turnTracker.getTurn() + 1;
+	}
+}
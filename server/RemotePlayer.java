@@ -0,0 +1,107 @@
+package server;
+
+import model.Action;
+import model.ActionResult;
+import model.Character;
+import model.PlayerCharacter;
+
+/**
+ * A PlayerCharacter played by a client of the GameServer.
+ * Instead of asking for an action when it is its turn, 
+ * the action is sent in by the client ahead of time and kept until the turn is ran.
+ * A player that left the game falls on its next action.
+ * @author Jason Osmond
+ */
+public class RemotePlayer extends PlayerCharacter {
+	
+	//====== [INSTANCE VARIABLES] =======	
+	
+	private Action pendingAction;
+	private boolean forfeited;
+	
+	//====== [CONSTRUCTORS] =======	
+	
+	/**
+	 * Creates a player with the default stats of a PlayerCharacter.
+	 * @param name the name of the player
+	 */
+	public RemotePlayer(String name) {
+		super();
+		setName(name);
+	}
+	
+	/**
+	 * Creates a player with the given stats.
+	 * @param name the name of the player
+	 * @param attackStat
+	 * @param defenseStat
+	 * @param searchStat
+	 * @param toughnessStat
+	 */
+	public RemotePlayer(String name, int attackStat, int defenseStat, int searchStat, int toughnessStat) {
+		super(attackStat, defenseStat, searchStat, toughnessStat);
+		setName(name);
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Takes the action sent in by the client, which is then cleared for the next turn.
+	 * If the player forfeited, the player falls instead.
+	 * @param opponent 
+	 * @return the result of the action
+	 * @throws IllegalStateException if no action was sent in
+	 */
+	@Override
+	public ActionResult takeAction(Character opponent) {
+		if (forfeited)
+			return executeAction(opponent, Action.DEATH);
+		
+		if (pendingAction == null)
+			throw new IllegalStateException(getName() + " has not chosen an action");
+		
+		Action action = pendingAction;
+		pendingAction = null;
+		
+		return executeAction(opponent, action);
+	}
+	
+	/**
+	 * Makes the player fall on its next action, for a client that left in the middle of a game.
+	 */
+	public void forfeit() {
+		forfeited = true;
+	}
+	
+	/**
+	 * Checks if the player is ready for the next turn.
+	 * @return true if an action was sent in or the player forfeited
+	 */
+	public boolean hasPendingAction() {
+		return forfeited || pendingAction != null;
+	}
+	
+	//====== [GETTER AND SETTER METHODS] =======	
+	
+	/**
+	 * @return the pendingAction, null if none was sent in
+	 */
+	public Action getPendingAction() {
+		return pendingAction;
+	}
+	
+	/**
+	 * Sets the action the player takes on its next turn.
+	 * @param pendingAction the pendingAction to set
+	 */
+	public void setPendingAction(Action pendingAction) {
+		this.pendingAction = pendingAction;
+	}
+	
+	/**
+	 * @return true if the player forfeited
+	 */
+	public boolean isForfeited() {
+		return forfeited;
+	}
+}
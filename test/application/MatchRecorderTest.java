@@ -0,0 +1,176 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import model.AutoPlayerCharacter;
+import model.MatchContext;
+
+/**
+ * Records matches into a MatchLog and replays them, checking that the replay prints the same text as the match.
+ * @author Jason Osmond
+ */
+class MatchRecorderTest {
+	
+	//====== [CONSTANTS] =======	
+	
+	private static final long SEED = 42;
+	
+	@TempDir
+	Path folder;
+	
+	//====== [TESTS] =======	
+	
+	@Test
+	void aiVsAiMatch() throws IOException {
+		Path path = folder.resolve("ai.log");
+		TextCapture original = new TextCapture();
+		
+		try (MatchLog matchLog = new MatchLog(path)) {
+			TurnTracker turnTracker = new TurnTracker(new MatchContext(SEED));
+			turnTracker.setEventListener(new CompositeEventListener(original.listener(), new MatchRecorder(matchLog)));
+			turnTracker.nextTurn();
+		}
+		
+		List<ByteBuffer> matches = MatchReplayer.splitMatches(MatchLog.read(path));
+		assertEquals(1, matches.size());
+		assertEquals(original.text(), replay(matches.get(0)).text());
+	}
+	
+	@Test
+	void matchRestoredFromACheckpoint() throws IOException {
+		Path path = folder.resolve("restored.log");
+		
+		TurnTracker saved = new TurnTracker(new MatchContext(SEED));
+		for (int turn = 0; turn < 3; turn++)
+			saved.playTurn();
+		ByteBuffer checkpoint = ByteBuffer.allocate(4096);
+		MatchCheckpoint.write(saved, checkpoint);
+		checkpoint.flip();
+		
+		TextCapture original = new TextCapture();
+		TurnTracker restored = MatchCheckpoint.read(checkpoint);
+		try (MatchLog matchLog = new MatchLog(path)) {
+			restored.setEventListener(new CompositeEventListener(original.listener(), new MatchRecorder(matchLog)));
+			restored.nextTurn();
+		}
+		
+		TextCapture replayed = new TextCapture();
+		TurnTracker turnTracker = new MatchReplayer(MatchReplayer.splitMatches(MatchLog.read(path)).get(0))
+				.replay(replayed.listener());
+		assertEquals(restored.getTurn(), turnTracker.getTurn());
+		assertEquals(original.text(), replayed.text());
+	}
+	
+	@Test
+	void playerVsAiMatchWithRespawns() throws IOException {
+		Path path = folder.resolve("pvai.log");
+		TextCapture original = new TextCapture();
+		
+		try (MatchLog matchLog = new MatchLog(path)) {
+			AutoPlayerCharacter playerCharacter = new AutoPlayerCharacter(new MatchContext(SEED), 3, 3, 3, 3);
+			playerCharacter.setName("Tester");
+			TurnTracker turnTracker = new TurnTracker(playerCharacter);
+			turnTracker.setEventListener(new CompositeEventListener(original.listener(), new MatchRecorder(matchLog, 3)));
+			turnTracker.nextTurn();
+		}
+		
+		assertEquals(original.text(), replay(MatchReplayer.splitMatches(MatchLog.read(path)).get(0)).text());
+	}
+	
+	@Test
+	void matchesRecordedAtTheSameTime() throws IOException {
+		Path path = folder.resolve("interleaved.log");
+		TextCapture[] originals = { new TextCapture(), new TextCapture() };
+		
+		// One turn of each match at a time, every turn appended on its own, so their chunks alternate in the log
+		try (MatchLog matchLog = new MatchLog(path)) {
+			TurnTracker[] turnTrackers = new TurnTracker[originals.length];
+			for (int match = 0; match < turnTrackers.length; match++) {
+				turnTrackers[match] = new TurnTracker(new MatchContext(SEED + match));
+				turnTrackers[match].setEventListener(
+						new CompositeEventListener(originals[match].listener(), new MatchRecorder(matchLog, 1)));
+			}
+			
+			boolean running = true;
+			while (running) {
+				running = false;
+				for (TurnTracker turnTracker : turnTrackers)
+					running |= turnTracker.playTurn();
+			}
+		}
+		
+		List<ByteBuffer> matches = MatchReplayer.splitMatches(MatchLog.read(path));
+		assertEquals(originals.length, matches.size());
+		for (int match = 0; match < originals.length; match++)
+			assertEquals(originals[match].text(), replay(matches.get(match)).text());
+	}
+	
+	@Test
+	void unfinishedMatchKeepsTheAppendedTurns() throws IOException {
+		Path path = folder.resolve("killed.log");
+		
+		// The run stops after 10 turns without closing the log, as if it was killed
+		MatchLog matchLog = new MatchLog(path);
+		TurnTracker turnTracker = new TurnTracker(new MatchContext(SEED));
+		turnTracker.setEventListener(new MatchRecorder(matchLog, 4));
+		for (int turn = 0; turn < 10; turn++)
+			turnTracker.playTurn();
+		
+		// A chunk cut short while it was being appended is left out
+		Files.write(path, new byte[] {0, 0, 0, 1, MatchLog.CHUNK_FIRST, 0, 0, 1, 0, 7}, StandardOpenOption.APPEND);
+		
+		List<ByteBuffer> matches = MatchReplayer.splitMatches(MatchLog.read(path));
+		assertEquals(1, matches.size());
+		
+		TurnTracker replayed = new MatchReplayer(matches.get(0)).replay(new GameEventListener() {});
+		assertEquals(8, replayed.getTurn());
+		assertFalse(replayed.isGameOver());
+		matchLog.close();
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * @param matchRecord
+	 * @return the text printed by the replay of the match
+	 */
+	private static TextCapture replay(ByteBuffer matchRecord) {
+		TextCapture replayed = new TextCapture();
+		TurnTracker turnTracker = new MatchReplayer(matchRecord).replay(replayed.listener());
+		
+		assertTrue(turnTracker.isGameOver());
+		return replayed;
+	}
+	
+	/**
+	 * The text a ConsoleEventListener prints, kept in memory.
+	 */
+	private static final class TextCapture {
+		
+		private final ByteArrayOutputStream printed = new ByteArrayOutputStream();
+		private final ConsoleEventListener listener = new ConsoleEventListener(new PrintStream(printed, true, StandardCharsets.UTF_8));
+		
+		GameEventListener listener() {
+			return listener;
+		}
+		
+		String text() {
+			return printed.toString(StandardCharsets.UTF_8);
+		}
+	}
+}
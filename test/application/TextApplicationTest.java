@@ -0,0 +1,60 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import model.PlayerInput;
+
+/**
+ * Plays the TextApplication from in-memory streams, the way a script or a pipe would.
+ * @author Jason Osmond
+ */
+class TextApplicationTest {
+	
+	//====== [TESTS] =======	
+	
+	@Test
+	void aiVsAiWithNewline() {
+		assertFinished(play("3\n"));
+	}
+	
+	@Test
+	void aiVsAiWithoutNewline() {
+		assertFinished(play("3"));
+	}
+	
+	@Test
+	void invalidModeThenAiVsAi() {
+		String output = play("x\n5\n3");
+		
+		assertTrue(output.contains("User input was not an integer"), output);
+		assertTrue(output.contains("Game mode '5' not recognized"), output);
+		assertFinished(output);
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Runs a game with the given text as everything the users type.
+	 * @param typed
+	 * @return everything the game printed
+	 */
+	private static String play(String typed) {
+		ByteArrayOutputStream printed = new ByteArrayOutputStream();
+		PlayerInput input = new PlayerInput(new ByteArrayInputStream(typed.getBytes(StandardCharsets.UTF_8)),
+				StandardCharsets.UTF_8, new PrintStream(printed, true, StandardCharsets.UTF_8));
+		
+		new TextApplication(input).start();
+		return printed.toString(StandardCharsets.UTF_8);
+	}
+	
+	private static void assertFinished(String output) {
+		assertTrue(output.contains("Thanks for playing!"), "The game did not finish:\n" + output);
+	}
+}
@@ -0,0 +1,79 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that BinomialDistribution.sample follows the binomial distribution with a chi-square test,
+ * both for small means, which are drawn by inversion, and for larger ones, which are drawn by BTPE.
+ * CombatRules only draws from it with large means, so the inversion is tested here on its own.
+ * @author Jason Osmond
+ */
+class BinomialDistributionTest {
+	
+	//====== [CONSTANTS] =======	
+	
+	private static final long SEED = 0xB1_2024L;
+	private static final int DRAWS = 20_000;
+	
+	//====== [TESTS] =======	
+	
+	@Test
+	void inversionWithFewSuccesses() {
+		checkSample(10, 0.3);
+		checkSample(200, 0.01);
+	}
+	
+	@Test
+	void inversionNearTheLimit() {
+		checkSample(100, 0.29);
+	}
+	
+	@Test
+	void inversionOfLikelySuccesses() {
+		checkSample(40, 0.8);
+	}
+	
+	@Test
+	void btpeJustAboveTheLimit() {
+		checkSample(100, 0.31);
+		checkSample(150, 0.75);
+	}
+	
+	@Test
+	void edgeCases() {
+		MatchRandom random = new MatchRandom(SEED);
+		
+		assertEquals(0, BinomialDistribution.sample(random, 0, 0.5));
+		assertEquals(0, BinomialDistribution.sample(random, 10, 0));
+		assertEquals(10, BinomialDistribution.sample(random, 10, 1));
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Draws many times and tests the draws against the binomial distribution.
+	 * @param trials
+	 * @param probability
+	 */
+	private static void checkSample(int trials, double probability) {
+		MatchRandom random = new MatchRandom(SEED + trials);
+		long[] counts = new long[trials + 1];
+		
+		for (int draw = 0; draw < DRAWS; draw++) {
+			int successes = BinomialDistribution.sample(random, trials, probability);
+			assertTrue(successes >= 0 && successes <= trials, "Draw out of range: " + successes);
+			counts[successes]++;
+		}
+		
+		double[] expected = ChiSquare.binomial(trials, probability);
+		for (int k = 0; k < expected.length; k++)
+			expected[k] *= DRAWS;
+		
+		double[] statistic = ChiSquare.ordered(counts, expected);
+		assertTrue(ChiSquare.passes(statistic), 
+				"Bin(" + trials + ", " + probability + "): " + ChiSquare.describe(statistic));
+	}
+}
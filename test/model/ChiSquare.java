@@ -0,0 +1,144 @@
+package model;
+
+/**
+ * Chi-square goodness of fit tests for the tests of random draws.
+ * Bins expected to get too few draws are merged, and a statistic is compared with
+ * the value a correct distribution stays below, except 1 in 1000 times.
+ * @author Jason Osmond
+ */
+final class ChiSquare {
+	
+	//====== [CONSTANTS] =======	
+	
+	/** Bins expected to get fewer draws than this are merged with other bins. */
+	static final double MIN_EXPECTED = 5;
+	
+	/** The normal quantile of the chance of failing a correct distribution, 1 in 1000. */
+	private static final double Z = 3.09;
+	
+	//====== [CONSTRUCTORS] =======	
+	
+	/**
+	 * Only has static methods, can not be created.
+	 */
+	private ChiSquare() {
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * @param trials
+	 * @param probability
+	 * @return the chance of each number of successes, from 0 to trials
+	 */
+	static double[] binomial(int trials, double probability) {
+		double[] chances = new double[trials + 1];
+		double logOdds = Math.log(probability / (1 - probability));
+		
+		// Summed as logarithms, the chance of 0 successes is too small for a double with many trials
+		double logChance = trials * Math.log(1 - probability);
+		chances[0] = Math.exp(logChance);
+		for (int k = 0; k < trials; k++) {
+			logChance += logOdds + Math.log((trials - k) / (double) (k + 1));
+			chances[k + 1] = Math.exp(logChance);
+		}
+		
+		return chances;
+	}
+	
+	/**
+	 * Tests counts of ordered values, like a number of successes.
+	 * Bins are merged from both ends towards the middle until each one is expected to get enough draws.
+	 * @param counts the number of draws of each value
+	 * @param expected the expected number of draws of each value
+	 * @return the chi-square statistic and its degrees of freedom
+	 */
+	static double[] ordered(long[] counts, double[] expected) {
+		int low = 0;
+		int high = expected.length - 1;
+		double lowExpected = expected[low];
+		long lowCount = counts[low];
+		double highExpected = expected[high];
+		long highCount = counts[high];
+		
+		while (low < high && lowExpected < MIN_EXPECTED) {
+			low++;
+			lowExpected += expected[low];
+			lowCount += counts[low];
+		}
+		while (high > low && highExpected < MIN_EXPECTED) {
+			high--;
+			highExpected += expected[high];
+			highCount += counts[high];
+		}
+		
+		double statistic = square(lowCount - lowExpected) / lowExpected + square(highCount - highExpected) / highExpected;
+		for (int k = low + 1; k < high; k++)
+			statistic += square(counts[k] - expected[k]) / expected[k];
+		
+		return new double[] { statistic, high - low };
+	}
+	
+	/**
+	 * Tests counts of unordered values, like the cells of a multinomial distribution.
+	 * Every bin expected to get too few draws is merged into one shared bin.
+	 * @param counts the number of draws of each value
+	 * @param expected the expected number of draws of each value
+	 * @return the chi-square statistic and its degrees of freedom
+	 */
+	static double[] pooled(long[] counts, double[] expected) {
+		double statistic = 0;
+		int bins = 0;
+		double pooledExpected = 0;
+		long pooledCount = 0;
+		
+		for (int k = 0; k < expected.length; k++) {
+			if (expected[k] < MIN_EXPECTED) {
+				pooledExpected += expected[k];
+				pooledCount += counts[k];
+			}
+			else {
+				statistic += square(counts[k] - expected[k]) / expected[k];
+				bins++;
+			}
+		}
+		
+		if (pooledExpected > 0) {
+			statistic += square(pooledCount - pooledExpected) / pooledExpected;
+			bins++;
+		}
+		
+		return new double[] { statistic, bins - 1 };
+	}
+	
+	/**
+	 * Wilson and Hilferty's approximation of the quantile of the chi-square distribution.
+	 * @param degreesOfFreedom
+	 * @return the value a correct statistic stays below, except 1 in 1000 times
+	 */
+	static double criticalValue(int degreesOfFreedom) {
+		double variance = 2.0 / (9 * degreesOfFreedom);
+		return degreesOfFreedom * Math.pow(1 - variance + Z * Math.sqrt(variance), 3);
+	}
+	
+	/**
+	 * @param statistic a statistic and its degrees of freedom
+	 * @return true if the statistic is below the critical value
+	 */
+	static boolean passes(double[] statistic) {
+		return statistic[0] < criticalValue((int) statistic[1]);
+	}
+	
+	/**
+	 * @param statistic a statistic and its degrees of freedom
+	 * @return the statistic for an assertion message
+	 */
+	static String describe(double[] statistic) {
+		return "chi-square " + statistic[0] + " with " + (int) statistic[1] 
+				+ " degrees of freedom, above " + criticalValue((int) statistic[1]);
+	}
+	
+	private static double square(double value) {
+		return value * value;
+	}
+}
@@ -0,0 +1,161 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that CombatRules.allocateEnemyPoints spends the points as if every point was rolled on its own,
+ * so the points of all the stats together follow a multinomial distribution with a 1 in 4 chance per point.
+ * Each stat is checked with a chi-square test against the binomial distribution with a 1 in 4 chance, 
+ * and each pair of stats against the binomial distribution with a 1 in 2 chance, 
+ * which only holds when the stats depend on each other the right way.
+ * Small point buys are also checked against every way of spending them.
+ * A fixed seed is used so the tests always give the same result. Small point buys are rolled 
+ * 32 at a time, large ones are drawn from binomial distributions, so both are tested.
+ * @author Jason Osmond
+ */
+class CombatRulesTest {
+	
+	//====== [CONSTANTS] =======	
+	
+	private static final long SEED = 0x5EED_2024L;
+	private static final int DRAWS = 20_000;
+	
+	//====== [TESTS] =======	
+	
+	@Test
+	void packedPointsInOneLong() {
+		checkMarginals(12);
+		checkPairs(12);
+		checkJoint(12);
+	}
+	
+	@Test
+	void packedPointsAcrossLongs() {
+		checkMarginals(100);
+		checkPairs(100);
+	}
+	
+	@Test
+	void binomialPoints() {
+		checkMarginals(2000);
+		checkPairs(2000);
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Allocates the points many times and checks that they all were spent.
+	 * @param pointBuy
+	 * @return the points of each draw, indexed by draw and then by the POINT_ constants
+	 */
+	private static int[][] allocate(int pointBuy) {
+		MatchRandom random = new MatchRandom(SEED + pointBuy);
+		int[][] draws = new int[DRAWS][CombatRules.POINT_TYPES];
+		
+		for (int[] points : draws) {
+			CombatRules.allocateEnemyPoints(random, pointBuy, points);
+			
+			int spent = 0;
+			for (int type = 0; type < CombatRules.POINT_TYPES; type++)
+				spent += points[type];
+			assertEquals(pointBuy, spent, "Every point has to be spent");
+		}
+		
+		return draws;
+	}
+	
+	/**
+	 * Tests the points of each stat against the binomial distribution with a 1 in 4 chance.
+	 * @param pointBuy
+	 */
+	private static void checkMarginals(int pointBuy) {
+		int[][] draws = allocate(pointBuy);
+		double[] expected = expectedCounts(ChiSquare.binomial(pointBuy, 1.0 / CombatRules.POINT_TYPES));
+		
+		for (int type = 0; type < CombatRules.POINT_TYPES; type++) {
+			long[] counts = new long[pointBuy + 1];
+			for (int[] points : draws)
+				counts[points[type]]++;
+			
+			double[] statistic = ChiSquare.ordered(counts, expected);
+			assertTrue(ChiSquare.passes(statistic), 
+					"Stat " + type + " of " + pointBuy + " points: " + ChiSquare.describe(statistic));
+		}
+	}
+	
+	/**
+	 * Tests the points of each pair of stats against the binomial distribution with a 1 in 2 chance.
+	 * The sum of two stats only has the variance of that distribution 
+	 * if their covariance is -pointBuy/16, as when every point is rolled on its own.
+	 * @param pointBuy
+	 */
+	private static void checkPairs(int pointBuy) {
+		int[][] draws = allocate(pointBuy);
+		double[] expected = expectedCounts(ChiSquare.binomial(pointBuy, 2.0 / CombatRules.POINT_TYPES));
+		
+		for (int first = 0; first < CombatRules.POINT_TYPES; first++) {
+			for (int second = first + 1; second < CombatRules.POINT_TYPES; second++) {
+				long[] counts = new long[pointBuy + 1];
+				for (int[] points : draws)
+					counts[points[first] + points[second]]++;
+				
+				double[] statistic = ChiSquare.ordered(counts, expected);
+				assertTrue(ChiSquare.passes(statistic), "Stats " + first + " and " + second 
+						+ " of " + pointBuy + " points: " + ChiSquare.describe(statistic));
+			}
+		}
+	}
+	
+	/**
+	 * Tests how often each way of spending the points comes up against the multinomial distribution.
+	 * Only works for small point buys, the number of ways grows with the cube of the points.
+	 * @param pointBuy
+	 */
+	private static void checkJoint(int pointBuy) {
+		int[][] draws = allocate(pointBuy);
+		int side = pointBuy + 1;
+		long[] counts = new long[side * side * side];
+		double[] expected = new double[counts.length];
+		double[] factorials = new double[side];
+		
+		factorials[0] = 1;
+		for (int k = 1; k < side; k++)
+			factorials[k] = factorials[k - 1] * k;
+		
+		// The toughness points are the rest, so the first three stats decide the cell
+		for (int attack = 0; attack < side; attack++) {
+			for (int defense = 0; attack + defense < side; defense++) {
+				for (int search = 0; attack + defense + search < side; search++) {
+					int toughness = pointBuy - attack - defense - search;
+					double ways = factorials[pointBuy] 
+							/ (factorials[attack] * factorials[defense] * factorials[search] * factorials[toughness]);
+					expected[cell(side, attack, defense, search)] = DRAWS * ways * Math.pow(CombatRules.POINT_TYPES, -pointBuy);
+				}
+			}
+		}
+		
+		for (int[] points : draws)
+			counts[cell(side, points[CombatRules.POINT_ATTACK], points[CombatRules.POINT_DEFENSE], points[CombatRules.POINT_SEARCH])]++;
+		
+		double[] statistic = ChiSquare.pooled(counts, expected);
+		assertTrue(ChiSquare.passes(statistic), "All stats of " + pointBuy + " points: " + ChiSquare.describe(statistic));
+	}
+	
+	private static int cell(int side, int attack, int defense, int search) {
+		return (attack * side + defense) * side + search;
+	}
+	
+	/**
+	 * @param chances the chance of each value
+	 * @return the number of draws each value is expected to get
+	 */
+	private static double[] expectedCounts(double[] chances) {
+		double[] expected = new double[chances.length];
+		for (int k = 0; k < chances.length; k++)
+			expected[k] = chances[k] * DRAWS;
+		return expected;
+	}
+}
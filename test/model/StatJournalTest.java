@@ -0,0 +1,282 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that a StatJournal rebuilds the stats of a character at every turn still in the journal.
+ * Seeded matches are played with small rings, so the oldest events and snapshots are overwritten,
+ * and the rebuilt stats are compared with a copy of the stats taken at the end of every turn.
+ * The events are also checked bit by bit, along with the changes too big for an event 
+ * and the turns the journal takes its snapshots on.
+ * @author Jason Osmond
+ */
+class StatJournalTest {
+	
+	//====== [CONSTANTS] =======	
+	
+	private static final int MAX_DELTA = (1 << 28) - 1;
+	private static final int MIN_DELTA = -(1 << 28);
+	
+	private static final int MATCHES = 20;
+	private static final int MAX_TURNS = 1000;
+	
+	//====== [TESTS] =======	
+	
+	@Test
+	void statsAtEveryTurnWithRoomForTheWholeMatch() {
+		for (int seed = 0; seed < MATCHES; seed++)
+			assertEquals(0, playAndCheck(seed, 1 << 16, 1 << 12, 3));
+	}
+	
+	@Test
+	void statsAtEveryTurnWithSmallRings() {
+		int overwritten = 0;
+		
+		for (int seed = 0; seed < MATCHES; seed++)
+			overwritten += playAndCheck(seed, 16, 2, 3);
+		
+		assertTrue(overwritten > 0, "The rings were never overwritten");
+	}
+	
+	@Test
+	void changeTooBigForAnEvent() {
+		MatchContext matchContext = new MatchContext(1);
+		RandomEnemy character = new RandomEnemy(matchContext);
+		StatJournal journal = new StatJournal(64, 64, 100);
+		character.setStatJournal(journal);
+		int[] start = stats(character);
+		
+		matchContext.setTurn(1);
+		character.setCurrentHealth(character.getCurrentHealth() - 1);
+		character.setCurrentHealth(character.getCurrentHealth() + MAX_DELTA + 1);
+		character.setCurrentHealth(character.getCurrentHealth() - 2);
+		
+		// The change in the middle is kept in a snapshot instead of an event
+		assertEquals(2, journal.getEventCount());
+		assertEquals(2, journal.getSnapshotCount());
+		assertArrayEquals(start, journal.statsAt(0));
+		assertArrayEquals(stats(character), journal.statsAt(1));
+		
+		matchContext.setTurn(2);
+		character.setCurrentHealth(character.getCurrentHealth() + MIN_DELTA - 1);
+		assertEquals(3, journal.getSnapshotCount());
+		assertArrayEquals(stats(character), journal.statsAt(2));
+		
+		// The largest changes that still fit are kept as events
+		matchContext.setTurn(3);
+		character.setCurrentHealth(character.getCurrentHealth() + MAX_DELTA);
+		character.setCurrentHealth(character.getCurrentHealth() + MIN_DELTA);
+		assertEquals(4, journal.getEventCount());
+		assertEquals(3, journal.getSnapshotCount());
+		assertArrayEquals(stats(character), journal.statsAt(3));
+	}
+	
+	@Test
+	void overwrittenEvents() {
+		MatchContext matchContext = new MatchContext(1);
+		RandomEnemy character = new RandomEnemy(matchContext);
+		StatJournal journal = new StatJournal(4, 1, 100);
+		character.setStatJournal(journal);
+		
+		for (int turn = 1; turn <= 4; turn++) {
+			matchContext.setTurn(turn);
+			character.setCurrentHealth(character.getCurrentHealth() - 1);
+		}
+		assertArrayEquals(stats(character), journal.statsAt(4));
+		
+		// The fifth event overwrites the first, which the only snapshot needs
+		matchContext.setTurn(5);
+		character.setCurrentHealth(character.getCurrentHealth() - 1);
+		assertEquals(1, journal.getOldestEvent());
+		assertThrows(IllegalArgumentException.class, () -> journal.statsAt(5));
+		assertThrows(IllegalArgumentException.class, () -> journal.statsAt(0));
+		assertThrows(IndexOutOfBoundsException.class, () -> journal.getEvent(0));
+	}
+	
+	@Test
+	void overwrittenSnapshots() {
+		MatchContext matchContext = new MatchContext(1);
+		RandomEnemy character = new RandomEnemy(matchContext);
+		StatJournal journal = new StatJournal(64, 2, 1);
+		character.setStatJournal(journal);
+		
+		for (int turn = 1; turn <= 4; turn++) {
+			matchContext.setTurn(turn);
+			character.setCurrentHealth(character.getCurrentHealth() - 1);
+		}
+		
+		// One snapshot when attached and one for each turn before, only the ones of turns 2 and 3 are left
+		assertEquals(5, journal.getSnapshotCount());
+		journal.statsAt(2);
+		assertThrows(IllegalArgumentException.class, () -> journal.statsAt(1));
+	}
+	
+	@Test
+	void eventPacking() {
+		MatchContext matchContext = new MatchContext(1);
+		StatJournal journal = new StatJournal();
+		new RandomEnemy(matchContext).setStatJournal(journal);
+		
+		int[] turns = {1, 7, 1_000_000, Integer.MAX_VALUE};
+		int[] statsChanged = {StatJournal.STAT_BASE_HEALTH, StatJournal.STAT_WEAKEN_MODIFIER, 
+				StatJournal.STAT_CURRENT_HEALTH, StatJournal.STAT_WEAKEN_MODIFIER};
+		int[] deltas = {MAX_DELTA, -1, MIN_DELTA, 1};
+		
+		for (int index = 0; index < turns.length; index++) {
+			matchContext.setTurn(turns[index]);
+			journal.record(statsChanged[index], deltas[index]);
+		}
+		
+		for (int index = 0; index < turns.length; index++) {
+			long event = journal.getEvent(index);
+			
+			assertEquals(turns[index], StatJournal.turnOf(event));
+			assertEquals(statsChanged[index], StatJournal.statOf(event));
+			assertEquals(deltas[index], StatJournal.deltaOf(event));
+		}
+		
+		// A change of 0 is not recorded
+		journal.record(StatJournal.STAT_ATTACK, 0);
+		assertEquals(turns.length, journal.getEventCount());
+	}
+	
+	@Test
+	void snapshotTurns() {
+		MatchContext matchContext = new MatchContext(1);
+		RandomEnemy character = new RandomEnemy(matchContext);
+		StatJournal journal = new StatJournal(64, 64, 4);
+		character.setStatJournal(journal);
+		List<int[]> copies = new ArrayList<>();
+		copies.add(stats(character));
+		
+		// Turns 1 to 3 are less than the interval after the snapshot taken when the journal was attached
+		for (int turn = 1; turn <= 9; turn++) {
+			matchContext.setTurn(turn);
+			
+			if (turn <= 4 || turn == 9) {
+				character.setAttack(character.getAttack() + 1);
+				
+				if (turn == 4)
+					assertEquals(2, journal.getSnapshotCount());
+				else if (turn == 9)
+					assertEquals(3, journal.getSnapshotCount());
+				else
+					assertEquals(1, journal.getSnapshotCount());
+				
+				character.setDefense(character.getDefense() + 1);
+			}
+			
+			copies.add(stats(character));
+		}
+		
+		// Turns without changes have the stats of the turn before
+		for (int turn = 0; turn <= 9; turn++)
+			assertArrayEquals(copies.get(turn), journal.statsAt(turn), "Turn " + turn);
+		
+		journal.snapshot();
+		assertEquals(4, journal.getSnapshotCount());
+		assertArrayEquals(copies.get(9), journal.statsAt(9));
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * Plays a seeded match between two robots that record their stats in journals.
+	 * After every turn, every turn before it is rebuilt from the journals and compared with a copy of the stats.
+	 * @param seed
+	 * @param eventCapacity
+	 * @param snapshotCapacity
+	 * @param snapshotInterval
+	 * @return the number of times a turn was no longer in a journal
+	 */
+	private static int playAndCheck(long seed, int eventCapacity, int snapshotCapacity, int snapshotInterval) {
+		MatchContext matchContext = new MatchContext(seed);
+		RandomEnemy[] characters = {new RandomEnemy(matchContext), new RandomEnemy(matchContext)};
+		List<List<int[]>> copies = new ArrayList<>();
+		
+		for (RandomEnemy character : characters) {
+			character.setStatJournal(new StatJournal(eventCapacity, snapshotCapacity, snapshotInterval));
+			copies.add(new ArrayList<>());
+			copies.get(copies.size() - 1).add(stats(character));
+		}
+		
+		int overwritten = 0;
+		
+		for (int turn = 1; turn <= MAX_TURNS; turn++) {
+			matchContext.setTurn(turn);
+			characters[0].resolveAction(characters[1]);
+			characters[1].resolveAction(characters[0]);
+			
+			for (int index = 0; index < characters.length; index++) {
+				copies.get(index).add(stats(characters[index]));
+				overwritten += checkJournal(characters[index].getStatJournal(), copies.get(index), seed);
+			}
+			
+			if (characters[0].getCurrentHealth() <= 0 || characters[1].getCurrentHealth() <= 0)
+				break;
+		}
+		
+		return overwritten;
+	}
+	
+	/**
+	 * Rebuilds every turn from the latest one back. The latest turn must be in the journal, 
+	 * and once a turn is no longer in it, neither are the turns before it.
+	 * @param journal
+	 * @param copies the stats at the end of every turn
+	 * @param seed the seed of the match, for the messages
+	 * @return the number of turns no longer in the journal
+	 */
+	private static int checkJournal(StatJournal journal, List<int[]> copies, long seed) {
+		int latest = copies.size() - 1;
+		
+		for (int turn = latest; turn >= 0; turn--) {
+			int[] stats;
+			
+			try {
+				stats = journal.statsAt(turn);
+			}
+			catch (IllegalArgumentException iae) {
+				assertTrue(turn < latest, "Seed " + seed + ": the latest turn " + latest + " is not in the journal");
+				
+				for (int older = turn - 1; older >= 0; older--) {
+					int olderTurn = older;
+					assertThrows(IllegalArgumentException.class, () -> journal.statsAt(olderTurn), 
+							"Seed " + seed + ": turn " + older + " is in the journal but turn " + turn + " is not");
+				}
+				
+				return turn + 1;
+			}
+			
+			assertArrayEquals(copies.get(turn), stats, "Seed " + seed + ", turn " + turn + " of " + latest);
+		}
+		
+		return 0;
+	}
+	
+	/**
+	 * @param character
+	 * @return the current stats of the character, indexed by the STAT_ constants of the StatJournal
+	 */
+	private static int[] stats(Character character) {
+		int[] stats = new int[StatJournal.STAT_COUNT];
+		
+		stats[StatJournal.STAT_BASE_HEALTH] = character.getBaseHealth();
+		stats[StatJournal.STAT_ATTACK] = character.getAttack();
+		stats[StatJournal.STAT_DEFENSE] = character.getDefense();
+		stats[StatJournal.STAT_SEARCH] = character.getSearch();
+		stats[StatJournal.STAT_TOUGHNESS] = character.getToughness();
+		stats[StatJournal.STAT_CURRENT_HEALTH] = character.getCurrentHealth();
+		stats[StatJournal.STAT_WEAKEN_MODIFIER] = character.getWeakenModifier();
+		
+		return stats;
+	}
+}
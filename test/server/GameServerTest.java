@@ -0,0 +1,135 @@
+package server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Plays against a GameServer on localhost with a client that answers too late.
+ * @author Jason Osmond
+ */
+class GameServerTest {
+	
+	//====== [CONSTANTS] =======	
+	
+	private static final long MOVE_TIMEOUT_MILLIS = 200;
+	
+	/** How long the client waits for a line before the test fails. */
+	private static final int READ_TIMEOUT_MILLIS = 5_000;
+	
+	private GameServer server;
+	private Thread serverThread;
+	private Socket socket;
+	private BufferedReader in;
+	private PrintWriter out;
+	
+	//====== [SETUP] =======	
+	
+	@BeforeEach
+	void startServer() throws IOException {
+		server = new GameServer(new InetSocketAddress("localhost", 0), MOVE_TIMEOUT_MILLIS);
+		serverThread = new Thread(server, "GameServer");
+		serverThread.start();
+		
+		socket = new Socket("localhost", server.getPort());
+		socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+		in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+		out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+	}
+	
+	@AfterEach
+	void stopServer() throws IOException, InterruptedException {
+		socket.close();
+		server.close();
+		serverThread.join();
+	}
+	
+	//====== [TESTS] =======	
+	
+	@Test
+	void lateActionIsNotTakenForTheNextTurn() throws IOException {
+		out.println("JOIN AI Slow");
+		readUntil("TURN 1 ");
+		
+		// No answer until the first move has timed out and the second one was asked for
+		assertEquals("TIMEOUT 1 d", readUntil("TIMEOUT"));
+		readUntil("TURN 2 ");
+		
+		out.println("a 1");
+		out.println("w 2");
+		
+		String line;
+		while (!(line = readLine()).startsWith("ACTION 2 1 "))
+			assertFalse(line.startsWith("ERR") || line.startsWith("TIMEOUT"), line);
+		
+		assertTrue(line.startsWith("ACTION 2 1 weaken "), line);
+	}
+	
+	@Test
+	void lateActionAfterTheMatchIsOver() throws IOException {
+		out.println("JOIN AI Quick");
+		
+		String line;
+		int turn = 0;
+		while (!(line = readLine()).startsWith("OVER")) {
+			if (line.startsWith("TURN ")) {
+				turn = Integer.parseInt(line.split(" ")[1]);
+				out.println("a " + turn);
+			}
+		}
+		
+		// The answer to the last turn again, as if it crossed the OVER line on its way to the server
+		out.println("a " + turn);
+		out.println("JOIN AI Quick");
+		
+		assertTrue(readLine().startsWith("MATCH 1 1 "));
+	}
+	
+	@Test
+	void actionForATurnThatHasNotStarted() throws IOException {
+		out.println("JOIN AI Early");
+		readUntil("TURN 1 ");
+		
+		out.println("a 2");
+		assertEquals("ERR turn 2 has not started", readUntil("ERR"));
+	}
+	
+	//====== [METHODS] =======	
+	
+	/**
+	 * @return the next line from the server
+	 * @throws IOException if the server closed the connection or sent nothing in time
+	 */
+	private String readLine() throws IOException {
+		String line = in.readLine();
+		assertNotNull(line, "The server closed the connection");
+		return line;
+	}
+	
+	/**
+	 * Skips the lines from the server until one starts with the prefix.
+	 * @param prefix
+	 * @return the line that starts with the prefix
+	 * @throws IOException if the server closed the connection or sent nothing in time
+	 */
+	private String readUntil(String prefix) throws IOException {
+		String line;
+		while (!(line = readLine()).startsWith(prefix));
+		
+		return line;
+	}
+}